@@ -0,0 +1,226 @@
+package com.tetris.ui;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLExt;
+import android.opengl.EGLSurface;
+import android.opengl.GLES30;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.SpeedCurve;
+import com.tetris.game.TetrisGame;
+import com.tetris.game.UniformGenerator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// 在离屏 pbuffer 上用 GL 渲染器画一帧，与 Canvas 路径画到位图上的同一帧逐像素比较。
+// 模拟器上由软件光栅化（SwiftShader 或 llvmpipe）执行着色器，不依赖真实 GPU
+@RunWith(AndroidJUnit4.class)
+public class GLBoardRendererTest {
+    // 调色板颜色换算回 8 位时允许的误差
+    private static final int CHANNEL_TOLERANCE = 2;
+    // 覆盖有网格线、无网格线、无边框以及棋盘两侧或上下留边的布局，以及超过 1024 像素的手机尺寸。
+    // 软件光栅化按 fp32 执行着色器，测不出 GPU 上的精度不足，真机上仍需检查大尺寸
+    private static final int[][] SIZES = {{320, 640}, {331, 667}, {200, 410}, {75, 150}, {36, 60}, {1080, 2160}};
+
+    private EGLDisplay display;
+    private EGLConfig config;
+    private EGLContext context;
+    private EGLSurface surface = EGL14.EGL_NO_SURFACE;
+    private GameView view;
+
+    @Before
+    public void setUp() {
+        display = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+        int[] version = new int[2];
+        assertTrue(EGL14.eglInitialize(display, version, 0, version, 1));
+
+        int[] attributes = {
+                EGL14.EGL_RENDERABLE_TYPE, EGLExt.EGL_OPENGL_ES3_BIT_KHR,
+                EGL14.EGL_SURFACE_TYPE, EGL14.EGL_PBUFFER_BIT,
+                EGL14.EGL_RED_SIZE, 8,
+                EGL14.EGL_GREEN_SIZE, 8,
+                EGL14.EGL_BLUE_SIZE, 8,
+                EGL14.EGL_ALPHA_SIZE, 8,
+                EGL14.EGL_NONE
+        };
+        EGLConfig[] configs = new EGLConfig[1];
+        int[] count = new int[1];
+        assertTrue(EGL14.eglChooseConfig(display, attributes, 0, configs, 0, 1, count, 0));
+        assertTrue("no OpenGL ES 3.0 pbuffer config", count[0] > 0);
+        config = configs[0];
+        context = EGL14.eglCreateContext(display, config, EGL14.EGL_NO_CONTEXT,
+                new int[]{EGL14.EGL_CONTEXT_CLIENT_VERSION, 3, EGL14.EGL_NONE}, 0);
+        assertTrue(context != EGL14.EGL_NO_CONTEXT);
+
+        // SurfaceView 需要在主线程上创建
+        final Context target = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                view = new GameView(target);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        EGL14.eglMakeCurrent(display, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+        if (surface != EGL14.EGL_NO_SURFACE) {
+            EGL14.eglDestroySurface(display, surface);
+        }
+        EGL14.eglDestroyContext(display, context);
+        EGL14.eglTerminate(display);
+    }
+
+    @Test
+    public void emptyBoardMatchesCanvas() {
+        TetrisGame game = newGame();
+        for (int[] size : SIZES) {
+            assertSameImage(game, size[0], size[1]);
+        }
+    }
+
+    @Test
+    public void stackAndPieceMatchCanvas() {
+        TetrisGame game = newGame();
+        GameGrid grid = game.getGrid();
+        // 底部几行填入所有单元格取值（含垃圾行），每行留一个空洞，最右列和最底行都有方块
+        for (int y = grid.getHeight() - 4; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (x != y % grid.getWidth()) {
+                    grid.setCell(x, y, 1 + (x + y) % GameGrid.GARBAGE_CELL);
+                }
+            }
+        }
+        for (int[] size : SIZES) {
+            assertSameImage(game, size[0], size[1]);
+        }
+    }
+
+    @Test
+    public void pausedBoardMatchesCanvasOutsideLabel() {
+        TetrisGame game = newGame();
+        game.getGrid().setCell(game.getGrid().getWidth() - 1, game.getGrid().getHeight() - 1, 3);
+        game.pause();
+        // 提示文字的字形由各自的文字栅格化决定，只比较文字区域以外的像素
+        for (int[] size : SIZES) {
+            assertSameImage(game, size[0], size[1]);
+        }
+    }
+
+    // 重力间隔设为一小时，两条路径都不会出现下落插值
+    private static TetrisGame newGame() {
+        TetrisGame game = new TetrisGame(new UniformGenerator(42));
+        game.setSpeedCurve(SpeedCurve.linear(3_600_000, 0, 3_600_000));
+        return game;
+    }
+
+    private void assertSameImage(TetrisGame game, int width, int height) {
+        Bitmap expected = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        view.setGame(game);
+        view.drawFrame(new Canvas(expected), width, height);
+
+        int[] actual = renderWithGl(game, width, height);
+
+        GameGrid grid = game.getGrid();
+        int blockSize = Math.max(1, Math.min(width / grid.getWidth(), height / grid.getHeight()));
+        int offsetX = (width - grid.getWidth() * blockSize) / 2;
+        int offsetY = (height - grid.getHeight() * blockSize) / 2;
+        // 提示文字所在的两行单元格
+        int labelTop = game.isPaused() || game.isGameOver()
+                ? offsetY + (grid.getHeight() / 2 - 1) * blockSize : -1;
+        int labelBottom = labelTop + 2 * blockSize;
+
+        int mismatches = 0;
+        String first = null;
+        for (int y = 0; y < height; y++) {
+            if (y >= labelTop && y < labelBottom) {
+                continue;
+            }
+            for (int x = 0; x < width; x++) {
+                int want = expected.getPixel(x, y);
+                int got = actual[y * width + x];
+                if (!close(want, got)) {
+                    mismatches++;
+                    if (first == null) {
+                        first = "(" + (x - offsetX) + ", " + (y - offsetY) + ") expected "
+                                + Integer.toHexString(want) + " but was " + Integer.toHexString(got);
+                    }
+                }
+            }
+        }
+        expected.recycle();
+        assertEquals(width + "x" + height + " block " + blockSize + ", first mismatch at board pixel " + first,
+                0, mismatches);
+    }
+
+    // 返回按行从上到下排列的 ARGB 像素
+    private int[] renderWithGl(TetrisGame game, int width, int height) {
+        if (surface != EGL14.EGL_NO_SURFACE) {
+            EGL14.eglMakeCurrent(display, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+            EGL14.eglDestroySurface(display, surface);
+        }
+        surface = EGL14.eglCreatePbufferSurface(display, config,
+                new int[]{EGL14.EGL_WIDTH, width, EGL14.EGL_HEIGHT, height, EGL14.EGL_NONE}, 0);
+        assertTrue(surface != EGL14.EGL_NO_SURFACE);
+        assertTrue(EGL14.eglMakeCurrent(display, surface, surface, context));
+
+        GameLoop loop = new GameLoop();
+        loop.setGame(game);
+        final boolean[] failed = new boolean[1];
+        GLBoardRenderer renderer = new GLBoardRenderer(loop, new Runnable() {
+            @Override
+            public void run() {
+                failed[0] = true;
+            }
+        });
+        renderer.onSurfaceCreated(null, null);
+        assertFalse("shader compile or link failed", failed[0]);
+        renderer.onSurfaceChanged(null, width, height);
+        renderer.onDrawFrame(null);
+        GLES30.glFinish();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder());
+        GLES30.glReadPixels(0, 0, width, height, GLES30.GL_RGBA, GLES30.GL_UNSIGNED_BYTE, buffer);
+        assertEquals(GLES30.GL_NO_ERROR, GLES30.glGetError());
+
+        // glReadPixels 的第一行是画面底部
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int row = (height - 1 - y) * width * 4;
+            for (int x = 0; x < width; x++) {
+                int i = row + x * 4;
+                pixels[y * width + x] = Color.argb(buffer.get(i + 3) & 0xFF, buffer.get(i) & 0xFF,
+                        buffer.get(i + 1) & 0xFF, buffer.get(i + 2) & 0xFF);
+            }
+        }
+        return pixels;
+    }
+
+    // 画面不透明，只比较 RGB
+    private static boolean close(int a, int b) {
+        return Math.abs(Color.red(a) - Color.red(b)) <= CHANNEL_TOLERANCE
+                && Math.abs(Color.green(a) - Color.green(b)) <= CHANNEL_TOLERANCE
+                && Math.abs(Color.blue(a) - Color.blue(b)) <= CHANNEL_TOLERANCE;
+    }
+}
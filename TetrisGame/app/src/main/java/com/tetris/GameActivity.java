@@ -1,23 +1,55 @@
 package com.tetris;
 
+import android.app.ActivityManager;
+import android.content.Context;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.tetris.data.DiagnosticsStore;
 import com.tetris.data.GameDataManager;
+import com.tetris.data.ReplayStore;
+import com.tetris.data.StatsStore;
+import com.tetris.game.GameCommand;
+import com.tetris.game.GameEventListener;
+import com.tetris.game.GameSnapshot;
+import com.tetris.game.SpeedCurve;
 import com.tetris.game.TetrisGame;
+import com.tetris.game.Tetromino;
+import com.tetris.metrics.LatencyHistogram;
+import com.tetris.metrics.MetricsRegistry;
+import com.tetris.replay.ReplayRecorder;
 import com.tetris.sound.SoundManager;
+import com.tetris.ui.GLGameView;
+import com.tetris.ui.GameSurface;
 import com.tetris.ui.GameView;
 import com.tetris.ui.NextBlockView;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class GameActivity extends AppCompatActivity {
+    // 待处理的界面更新，由游戏线程标记、界面线程在下一帧统一处理
+    private static final int UPDATE_STATS = 1;
+    private static final int UPDATE_NEXT_BLOCK = 1 << 1;
+    private static final int UPDATE_GAME_OVER = 1 << 2;
+    // 进程被回收时保存的局面和已进行的时长
+    private static final String KEY_SNAPSHOT = "game_snapshot";
+    private static final String KEY_ELAPSED = "game_elapsed";
+    // GLGameView 需要的最低 OpenGL ES 版本（3.0）
+    private static final int GL_ES_VERSION_3_0 = 0x30000;
+    // 手指拖动超过这个距离（dp）才算按住方向键或软降
+    private static final float HOLD_THRESHOLD_DP = 24;
+
     private TetrisGame game;
-    private GameView gameView;
+    private GameSurface gameView;
     private NextBlockView nextBlockView;
     private TextView scoreTextView;
     private TextView levelTextView;
@@ -26,8 +58,31 @@ public class GameActivity extends AppCompatActivity {
     private Button restartButton;
     private SoundManager soundManager;
     private GameDataManager dataManager;
+    private StatsStore statsStore;
+    private long gameStartTime;
+    private ReplayRecorder replayRecorder;
+    private ReplayStore replayStore;
+    private final GameSnapshot snapshot = new GameSnapshot();
+    // 开启性能浮层时记录的指标，每局结束导出一次；未开启时为 null
+    private MetricsRegistry metrics;
+    private LatencyHistogram uiUpdateTime;
+    private DiagnosticsStore diagnosticsStore;
     private GestureDetector gestureDetector;
+    // 按住拖动的起点和当前按住的键位（GameCommand.HOLD_*），自动重复由 TimingEngine 负责
+    private float touchDownX;
+    private float touchDownY;
+    private int heldKeys;
+    private float holdThreshold;
     private boolean isPaused = false;
+    // 游戏线程在生成方块时记下的下一个方块形状；游戏中的方块对象会被复用改写，界面线程不直接读取
+    private volatile Tetromino.Shape nextShape;
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+    private final Runnable applyUpdatesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applyPendingUpdates();
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -37,17 +92,32 @@ public class GameActivity extends AppCompatActivity {
         // 初始化游戏
         game = new TetrisGame();
         dataManager = new GameDataManager(this);
+        statsStore = StatsStore.getInstance(this);
         soundManager = new SoundManager(this);
+        replayStore = new ReplayStore(this);
+        replayRecorder = new ReplayRecorder();
 
         // 设置音效状态
         soundManager.setEnabled(dataManager.isSoundEnabled());
 
-        // 初始化视图
-        gameView = findViewById(R.id.game_view);
+        // 按难度设置选择下落速度曲线
+        game.setSpeedCurve(speedCurveFor(dataManager.getDifficulty()));
+        // 界面上启用锁定延迟，着地后仍可移动和旋转；是否启用会写进录像头部
+        game.setLockDelayEnabled(true);
+
+        // 初始化视图：支持时使用 OpenGL ES 渲染，否则使用布局中的 Canvas 视图
+        gameView = createGameSurface();
         gameView.setGame(game);
+        if (dataManager.isPerfHudEnabled()) {
+            metrics = new MetricsRegistry();
+            uiUpdateTime = metrics.histogram(MetricsRegistry.UI_UPDATE);
+            diagnosticsStore = new DiagnosticsStore(this);
+            gameView.setMetrics(metrics);
+        }
 
         nextBlockView = findViewById(R.id.next_block_view);
-        nextBlockView.setNextTetromino(game.getNextTetromino());
+        nextShape = game.getNextTetromino().getShape();
+        nextBlockView.setNextShape(nextShape);
 
         scoreTextView = findViewById(R.id.score_text_view);
         levelTextView = findViewById(R.id.level_text_view);
@@ -69,7 +139,10 @@ public class GameActivity extends AppCompatActivity {
             }
         });
 
-        // 初始化手势检测器
+        holdThreshold = HOLD_THRESHOLD_DP * getResources().getDisplayMetrics().density;
+
+        // 初始化手势检测器：手势只把指令放入输入队列，由游戏线程统一执行。
+        // 左右移动和软降由按住拖动处理（见 onTouchEvent），这里只处理快速下滑、上滑和点击
         gestureDetector = new GestureDetector(this, new GestureDetector.SimpleOnGestureListener() {
             private static final int SWIPE_THRESHOLD = 100;
             private static final int SWIPE_VELOCITY_THRESHOLD = 100;
@@ -85,28 +158,15 @@ public class GameActivity extends AppCompatActivity {
                 try {
                     float diffY = e2.getY() - e1.getY();
                     float diffX = e2.getX() - e1.getX();
-                    if (Math.abs(diffX) > Math.abs(diffY)) {
-                        if (Math.abs(diffX) > SWIPE_THRESHOLD && Math.abs(velocityX) > SWIPE_VELOCITY_THRESHOLD) {
-                            if (diffX > 0) {
-                                // 向右滑动
-                                game.moveRight();
-                                soundManager.playMoveSound();
-                            } else {
-                                // 向左滑动
-                                game.moveLeft();
-                                soundManager.playMoveSound();
-                            }
-                            result = true;
-                        }
-                    } else {
+                    if (Math.abs(diffY) >= Math.abs(diffX)) {
                         if (Math.abs(diffY) > SWIPE_THRESHOLD && Math.abs(velocityY) > SWIPE_VELOCITY_THRESHOLD) {
                             if (diffY > 0) {
                                 // 向下滑动
-                                game.dropDown();
+                                gameView.sendCommand(GameCommand.DROP);
                                 soundManager.playMoveSound();
                             } else {
                                 // 向上滑动
-                                game.rotate();
+                                gameView.sendCommand(GameCommand.ROTATE);
                                 soundManager.playRotateSound();
                             }
                             result = true;
@@ -121,59 +181,213 @@ public class GameActivity extends AppCompatActivity {
             @Override
             public boolean onSingleTapConfirmed(MotionEvent e) {
                 // 点击屏幕旋转方块
-                game.rotate();
+                gameView.sendCommand(GameCommand.ROTATE);
                 soundManager.playRotateSound();
                 return true;
             }
         });
 
-        // 启动游戏
-        gameView.startGame();
+        // 监听游戏事件，只在状态变化时刷新界面
+        game.setGameEventListener(new GameEventListener() {
+            @Override
+            public void onScoreChanged(int score, int level, int linesCleared) {
+                postUpdate(UPDATE_STATS);
+            }
+
+            @Override
+            public void onPieceSpawned(Tetromino current, Tetromino next) {
+                nextShape = next.getShape();
+                postUpdate(UPDATE_NEXT_BLOCK);
+            }
+
+            @Override
+            public void onLinesCleared(int lines) {
+                // 在游戏线程上直接触发音效，不等待界面刷新
+                soundManager.playClearSound();
+            }
 
-        // 开始更新UI的线程
-        startUpdateThread();
+            @Override
+            public void onGameOver(int score, int level, int linesCleared) {
+                soundManager.playGameOverSound();
+                postUpdate(UPDATE_GAME_OVER);
+            }
+        });
+        postUpdate(UPDATE_STATS | UPDATE_NEXT_BLOCK);
+
+        if (savedInstanceState != null && restoreGame(savedInstanceState)) {
+            // 恢复的局面保持暂停，等待玩家继续；录像无法从中途接续，本局不再录制
+            isPaused = game.isPaused();
+            pauseButton.setText(isPaused ? R.string.resume : R.string.pause);
+            return;
+        }
+
+        // 每局都录制回放，用于复查和回归测试；重置、开始录制和开局在游戏循环的锁内一次完成
+        gameStartTime = SystemClock.elapsedRealtime();
+        gameView.restartGame(replayRecorder, System.nanoTime());
+    }
+
+    private GameSurface createGameSurface() {
+        GameView canvasView = findViewById(R.id.game_view);
+        if (!dataManager.isGlRendererEnabled() || !supportsGlEs3()) {
+            return canvasView;
+        }
+        GLGameView glView = new GLGameView(this);
+        glView.setFallbackListener(new Runnable() {
+            @Override
+            public void run() {
+                fallBackToCanvas();
+            }
+        });
+        replaceView(canvasView, glView);
+        return glView;
+    }
+
+    private boolean supportsGlEs3() {
+        ActivityManager activityManager = (ActivityManager) getSystemService(Context.ACTIVITY_SERVICE);
+        return activityManager != null
+                && activityManager.getDeviceConfigurationInfo().reqGlEsVersion >= GL_ES_VERSION_3_0;
+    }
+
+    // GL 初始化失败时换回 Canvas 渲染并记住该选择，局面和重力相位通过存档原样转移
+    private void fallBackToCanvas() {
+        dataManager.setGlRendererEnabled(false);
+        gameView.saveSnapshot(snapshot);
+        GameView canvasView = new GameView(this);
+        replaceView(gameView.getView(), canvasView);
+        canvasView.setGame(game);
+        canvasView.setMetrics(metrics);
+        try {
+            canvasView.restoreSnapshot(snapshot);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        gameView = canvasView;
+    }
+
+    // 在同一位置以相同的 id 和布局参数替换视图
+    private static void replaceView(View oldView, View newView) {
+        ViewGroup parent = (ViewGroup) oldView.getParent();
+        int index = parent.indexOfChild(oldView);
+        newView.setId(oldView.getId());
+        parent.removeViewAt(index);
+        parent.addView(newView, index, oldView.getLayoutParams());
+    }
+
+    private boolean restoreGame(Bundle savedInstanceState) {
+        byte[] bytes = savedInstanceState.getByteArray(KEY_SNAPSHOT);
+        if (bytes == null) {
+            return false;
+        }
+        try {
+            gameView.restoreSnapshot(GameSnapshot.fromByteArray(bytes));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        gameStartTime = SystemClock.elapsedRealtime() - savedInstanceState.getLong(KEY_ELAPSED);
+        return true;
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (!game.isGameOver()) {
+            gameView.saveSnapshot(snapshot);
+            outState.putByteArray(KEY_SNAPSHOT, snapshot.toByteArray());
+            outState.putLong(KEY_ELAPSED, SystemClock.elapsedRealtime() - gameStartTime);
+        }
+    }
+
+    private static SpeedCurve speedCurveFor(GameDataManager.Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY:
+                return SpeedCurve.EASY;
+            case HARD:
+                return SpeedCurve.HARD;
+            default:
+                return SpeedCurve.NORMAL;
+        }
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        updateHeldKeys(event);
         return gestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
     }
 
-    private void startUpdateThread() {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (!isFinishing()) {
-                    runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            updateUI();
-                        }
-                    });
-
-                    try {
-                        Thread.sleep(100); // 每100毫秒更新一次UI
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
+    // 按住拖动：相对按下位置的水平偏移对应按住左右键，向下偏移对应软降；
+    // 只在按住状态变化时发送一次 HOLD 指令，DAS 和自动重复由渲染线程上的 TimingEngine 按时间计算
+    private void updateHeldKeys(MotionEvent event) {
+        int held = heldKeys;
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                touchDownX = event.getX();
+                touchDownY = event.getY();
+                held = 0;
+                break;
+            case MotionEvent.ACTION_MOVE:
+                float diffX = event.getX() - touchDownX;
+                float diffY = event.getY() - touchDownY;
+                held = 0;
+                if (Math.abs(diffX) > holdThreshold && Math.abs(diffX) > Math.abs(diffY)) {
+                    held = diffX > 0 ? GameCommand.HOLD_RIGHT : GameCommand.HOLD_LEFT;
+                } else if (diffY > holdThreshold) {
+                    held = GameCommand.HOLD_SOFT_DROP;
                 }
-            }
-        }).start();
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                held = 0;
+                break;
+            default:
+                return;
+        }
+        if (held == heldKeys) {
+            return;
+        }
+        if ((held & (GameCommand.HOLD_LEFT | GameCommand.HOLD_RIGHT)) != 0) {
+            soundManager.playMoveSound();
+        }
+        heldKeys = held;
+        gameView.sendCommand(GameCommand.HOLD | held);
+    }
+
+    private void postUpdate(int flags) {
+        int previous;
+        do {
+            previous = pendingUpdates.get();
+        } while (!pendingUpdates.compareAndSet(previous, previous | flags));
+
+        // 同一帧内的多个事件合并为一次界面更新
+        if (previous == 0) {
+            gameView.getView().postOnAnimation(applyUpdatesRunnable);
+        }
     }
 
-    private void updateUI() {
+    private void applyPendingUpdates() {
+        long start = System.nanoTime();
+        int flags = pendingUpdates.getAndSet(0);
+
         // 更新下一个方块预览
-        nextBlockView.setNextTetromino(game.getNextTetromino());
+        if ((flags & UPDATE_NEXT_BLOCK) != 0) {
+            nextBlockView.setNextShape(nextShape);
+        }
 
         // 更新分数、等级和行数
-        scoreTextView.setText(getString(R.string.score, game.getScore()));
-        levelTextView.setText(getString(R.string.level, game.getLevel()));
-        linesTextView.setText(getString(R.string.lines, game.getLinesCleared()));
+        if ((flags & UPDATE_STATS) != 0) {
+            scoreTextView.setText(getString(R.string.score, game.getScore()));
+            levelTextView.setText(getString(R.string.level, game.getLevel()));
+            linesTextView.setText(getString(R.string.lines, game.getLinesCleared()));
+        }
 
-        // 检查游戏是否结束
-        if (game.isGameOver()) {
+        // 游戏结束事件每局只会触发一次
+        if ((flags & UPDATE_GAME_OVER) != 0) {
             handleGameOver();
         }
+
+        if (uiUpdateTime != null) {
+            uiUpdateTime.record(System.nanoTime() - start);
+        }
     }
 
     private void togglePause() {
@@ -188,25 +402,39 @@ public class GameActivity extends AppCompatActivity {
     }
 
     private void restartGame() {
-        game.reset();
-        gameView.resetGame();
+        // 以新种子重置游戏并重新开始录制
+        gameStartTime = SystemClock.elapsedRealtime();
+        gameView.restartGame(replayRecorder, System.nanoTime());
         pauseButton.setText(R.string.pause);
         isPaused = false;
     }
 
     private void handleGameOver() {
-        // 播放游戏结束音效
-        soundManager.playGameOverSound();
+        // 更新游戏数据：合并为一次后台写入
+        statsStore.recordGame(game.getScore(), game.getLinesCleared(), game.getLevel(),
+                SystemClock.elapsedRealtime() - gameStartTime);
 
-        // 更新游戏数据
-        dataManager.setHighScore(game.getScore());
-        dataManager.incrementGameCount();
-        dataManager.addLines(game.getLinesCleared());
+        // 保存本局录像（从存档恢复的对局没有完整录像）
+        replayRecorder.end();
+        if (replayRecorder.isFinished()) {
+            replayStore.save(replayRecorder.toByteArray());
+        }
+
+        // 导出本次会话至今的性能指标
+        if (metrics != null) {
+            diagnosticsStore.dump(metrics);
+        }
 
         // 这里可以添加游戏结束的提示对话框
         // 例如使用AlertDialog显示最终分数和重新开始选项
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        gameView.onResume();
+    }
+
     @Override
     protected void onPause() {
         super.onPause();
@@ -215,11 +443,16 @@ public class GameActivity extends AppCompatActivity {
             isPaused = true;
             pauseButton.setText(R.string.resume);
         }
+        gameView.onPause();
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
         soundManager.release();
+        replayStore.shutdown();
+        if (diagnosticsStore != null) {
+            diagnosticsStore.shutdown();
+        }
     }
 }
\ No newline at end of file
@@ -8,10 +8,10 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.tetris.data.GameDataManager;
+import com.tetris.data.StatsStore;
 
 public class MainActivity extends AppCompatActivity {
-    private GameDataManager dataManager;
+    private StatsStore statsStore;
     private TextView highScoreTextView;
 
     @Override
@@ -19,7 +19,7 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        dataManager = new GameDataManager(this);
+        statsStore = StatsStore.getInstance(this);
         highScoreTextView = findViewById(R.id.high_score_text_view);
 
         // 显示最高分
@@ -55,7 +55,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void updateHighScore() {
-        int highScore = dataManager.getHighScore();
+        int highScore = statsStore.getHighScore();
         highScoreTextView.setText(getString(R.string.high_score, highScore));
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.tetris.data;
+
+import android.content.Context;
+
+import com.tetris.metrics.MetricsRegistry;
+
+import java.io.File;
+import java.io.IOException;
+
+// 把性能指标导出为文本文件，供现场诊断时取回；写文件在后台线程完成
+public class DiagnosticsStore {
+    private static final String DIR_NAME = "diagnostics";
+    private static final String PREFIX = "metrics-";
+    private static final String EXTENSION = ".txt";
+    private static final int MAX_DUMPS = 20;
+
+    private final TimestampedFiles files;
+
+    public DiagnosticsStore(Context context) {
+        files = new TimestampedFiles(new File(context.getFilesDir(), DIR_NAME), PREFIX, EXTENSION, MAX_DUMPS);
+    }
+
+    public void dump(final MetricsRegistry metrics) {
+        files.write(new TimestampedFiles.Writer() {
+            @Override
+            public void writeTo(File file) throws IOException {
+                metrics.dump(file);
+            }
+        });
+    }
+
+    public File[] list() {
+        return files.list();
+    }
+
+    public void shutdown() {
+        files.shutdown();
+    }
+}
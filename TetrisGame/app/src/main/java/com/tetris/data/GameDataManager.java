@@ -4,12 +4,15 @@ import android.content.Context;
 import android.content.SharedPreferences;
 
 public class GameDataManager {
-    private static final String PREF_NAME = "tetris_game_data";
-    private static final String KEY_HIGH_SCORE = "high_score";
-    private static final String KEY_GAME_COUNT = "game_count";
-    private static final String KEY_TOTAL_LINES = "total_lines";
+    static final String PREF_NAME = "tetris_game_data";
+    // 统计数据由 StatsStore 负责读写
+    static final String KEY_HIGH_SCORE = "high_score";
+    static final String KEY_GAME_COUNT = "game_count";
+    static final String KEY_TOTAL_LINES = "total_lines";
     private static final String KEY_SOUND_ENABLED = "sound_enabled";
     private static final String KEY_DIFFICULTY = "difficulty";
+    private static final String KEY_GL_RENDERER = "gl_renderer";
+    private static final String KEY_PERF_HUD = "perf_hud";
 
     private SharedPreferences preferences;
 
@@ -17,35 +20,6 @@ public class GameDataManager {
         preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
     }
 
-    public int getHighScore() {
-        return preferences.getInt(KEY_HIGH_SCORE, 0);
-    }
-
-    public void setHighScore(int score) {
-        int currentHighScore = getHighScore();
-        if (score > currentHighScore) {
-            preferences.edit().putInt(KEY_HIGH_SCORE, score).apply();
-        }
-    }
-
-    public int getGameCount() {
-        return preferences.getInt(KEY_GAME_COUNT, 0);
-    }
-
-    public void incrementGameCount() {
-        int count = getGameCount();
-        preferences.edit().putInt(KEY_GAME_COUNT, count + 1).apply();
-    }
-
-    public int getTotalLines() {
-        return preferences.getInt(KEY_TOTAL_LINES, 0);
-    }
-
-    public void addLines(int lines) {
-        int total = getTotalLines();
-        preferences.edit().putInt(KEY_TOTAL_LINES, total + lines).apply();
-    }
-
     public boolean isSoundEnabled() {
         return preferences.getBoolean(KEY_SOUND_ENABLED, true);
     }
@@ -63,6 +37,24 @@ public class GameDataManager {
         preferences.edit().putString(KEY_DIFFICULTY, difficulty.name()).apply();
     }
 
+    // 是否使用 OpenGL ES 渲染；设备不支持或初始化失败时自动关闭并改用 Canvas
+    public boolean isGlRendererEnabled() {
+        return preferences.getBoolean(KEY_GL_RENDERER, true);
+    }
+
+    public void setGlRendererEnabled(boolean enabled) {
+        preferences.edit().putBoolean(KEY_GL_RENDERER, enabled).apply();
+    }
+
+    // 是否记录性能指标并显示性能浮层，用于现场诊断，默认关闭
+    public boolean isPerfHudEnabled() {
+        return preferences.getBoolean(KEY_PERF_HUD, false);
+    }
+
+    public void setPerfHudEnabled(boolean enabled) {
+        preferences.edit().putBoolean(KEY_PERF_HUD, enabled).apply();
+    }
+
     public enum Difficulty {
         EASY,
         NORMAL,
@@ -0,0 +1,86 @@
+package com.tetris.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+// 只追加的二进制对局历史日志。每条记录定长：
+// long 时间戳 | int 分数 | int 行数 | int 等级 | long 时长（毫秒）
+// 记录数超过上限的两倍时压缩，只保留最新的 maxRecords 条。非线程安全，由 StatsStore 的后台线程独占访问
+class GameHistoryLog {
+    static final int RECORD_SIZE = 8 + 4 + 4 + 4 + 8;
+
+    private final File file;
+    private final int maxRecords;
+
+    GameHistoryLog(File file, int maxRecords) {
+        this.file = file;
+        this.maxRecords = maxRecords;
+    }
+
+    void append(GameRecord record) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(file, true)) {
+            // 先截掉末尾的残缺记录，否则之后追加的记录全部错位
+            FileChannel channel = stream.getChannel();
+            long size = channel.size();
+            if (size % RECORD_SIZE != 0) {
+                channel.truncate(size - size % RECORD_SIZE);
+            }
+            // 整条记录缓冲后一次写出
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, RECORD_SIZE));
+            write(out, record);
+            out.flush();
+        }
+        if (file.length() / RECORD_SIZE > 2L * maxRecords) {
+            compact();
+        }
+    }
+
+    List<GameRecord> readAll() throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        if (!file.exists()) {
+            return records;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            long count = file.length() / RECORD_SIZE;
+            for (long i = 0; i < count; i++) {
+                records.add(new GameRecord(in.readLong(), in.readInt(), in.readInt(), in.readInt(), in.readLong()));
+            }
+        } catch (EOFException e) {
+            // 末尾的残缺记录（例如写入时进程被杀）直接忽略
+        }
+        return records;
+    }
+
+    // 把最新的记录写入临时文件，再原子地替换原文件
+    void compact() throws IOException {
+        List<GameRecord> records = readAll();
+        int from = Math.max(0, records.size() - maxRecords);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            for (int i = from; i < records.size(); i++) {
+                write(out, records.get(i));
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Failed to replace " + file);
+        }
+    }
+
+    private static void write(DataOutputStream out, GameRecord record) throws IOException {
+        out.writeLong(record.timestamp);
+        out.writeInt(record.score);
+        out.writeInt(record.lines);
+        out.writeInt(record.level);
+        out.writeLong(record.durationMillis);
+    }
+}
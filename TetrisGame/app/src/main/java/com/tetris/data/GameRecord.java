@@ -0,0 +1,18 @@
+package com.tetris.data;
+
+// 单局游戏的结果，对应历史日志中的一条定长记录
+public class GameRecord {
+    public final long timestamp;
+    public final int score;
+    public final int lines;
+    public final int level;
+    public final long durationMillis;
+
+    public GameRecord(long timestamp, int score, int lines, int level, long durationMillis) {
+        this.timestamp = timestamp;
+        this.score = score;
+        this.lines = lines;
+        this.level = level;
+        this.durationMillis = durationMillis;
+    }
+}
@@ -0,0 +1,39 @@
+package com.tetris.data;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+// 把录像保存到应用私有目录，写文件在后台线程完成
+public class ReplayStore {
+    private static final String DIR_NAME = "replays";
+    private static final String EXTENSION = ".trp";
+    private static final int MAX_REPLAYS = 50;
+
+    private final TimestampedFiles files;
+
+    public ReplayStore(Context context) {
+        files = new TimestampedFiles(new File(context.getFilesDir(), DIR_NAME), "", EXTENSION, MAX_REPLAYS);
+    }
+
+    public void save(final byte[] replay) {
+        files.write(new TimestampedFiles.Writer() {
+            @Override
+            public void writeTo(File file) throws IOException {
+                try (FileOutputStream out = new FileOutputStream(file)) {
+                    out.write(replay);
+                }
+            }
+        });
+    }
+
+    public File[] list() {
+        return files.list();
+    }
+
+    public void shutdown() {
+        files.shutdown();
+    }
+}
@@ -0,0 +1,102 @@
+package com.tetris.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// 游戏统计数据：读取走内存缓存，每局结束时的所有更新合并成一次 SharedPreferences 提交，
+// 并在后台线程追加到对局历史日志，游戏结束时主线程不做任何磁盘 I/O
+public class StatsStore {
+    private static final String HISTORY_FILE = "game_history.bin";
+    private static final int MAX_HISTORY = 1000;
+
+    private static StatsStore instance;
+
+    private final SharedPreferences preferences;
+    private final GameHistoryLog historyLog;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // 内存缓存，只在主线程读写
+    private int highScore;
+    private int gameCount;
+    private int totalLines;
+
+    public static synchronized StatsStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new StatsStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private StatsStore(Context context) {
+        preferences = context.getSharedPreferences(GameDataManager.PREF_NAME, Context.MODE_PRIVATE);
+        historyLog = new GameHistoryLog(new File(context.getFilesDir(), HISTORY_FILE), MAX_HISTORY);
+
+        highScore = preferences.getInt(GameDataManager.KEY_HIGH_SCORE, 0);
+        gameCount = preferences.getInt(GameDataManager.KEY_GAME_COUNT, 0);
+        totalLines = preferences.getInt(GameDataManager.KEY_TOTAL_LINES, 0);
+    }
+
+    public int getHighScore() {
+        return highScore;
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    public int getTotalLines() {
+        return totalLines;
+    }
+
+    // 记录一局结果：立即更新缓存，然后在后台一次性写入偏好设置和历史日志
+    public void recordGame(int score, int lines, int level, long durationMillis) {
+        highScore = Math.max(highScore, score);
+        gameCount++;
+        totalLines += lines;
+
+        final int newHighScore = highScore;
+        final int newGameCount = gameCount;
+        final int newTotalLines = totalLines;
+        final GameRecord record = new GameRecord(System.currentTimeMillis(), score, lines, level, durationMillis);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                preferences.edit()
+                        .putInt(GameDataManager.KEY_HIGH_SCORE, newHighScore)
+                        .putInt(GameDataManager.KEY_GAME_COUNT, newGameCount)
+                        .putInt(GameDataManager.KEY_TOTAL_LINES, newTotalLines)
+                        .commit();
+                try {
+                    historyLog.append(record);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    // 在后台线程读取历史，保证与尚未完成的写入顺序一致
+    public Future<List<GameRecord>> loadHistory() {
+        return executor.submit(new Callable<List<GameRecord>>() {
+            @Override
+            public List<GameRecord> call() {
+                try {
+                    return historyLog.readAll();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return Collections.emptyList();
+                }
+            }
+        });
+    }
+}
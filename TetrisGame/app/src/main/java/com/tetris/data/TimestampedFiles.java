@@ -0,0 +1,66 @@
+package com.tetris.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 应用私有目录下以保存时间命名的一组文件：写文件在后台线程完成，超过上限时删除最旧的文件
+class TimestampedFiles {
+    interface Writer {
+        void writeTo(File file) throws IOException;
+    }
+
+    private final File directory;
+    private final String prefix;
+    private final String extension;
+    private final int maxFiles;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    TimestampedFiles(File directory, String prefix, String extension, int maxFiles) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.extension = extension;
+        this.maxFiles = maxFiles;
+    }
+
+    void write(final Writer writer) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    return;
+                }
+                File file = new File(directory, prefix + System.currentTimeMillis() + extension);
+                try {
+                    writer.writeTo(file);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                trim();
+            }
+        });
+    }
+
+    File[] list() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        // 文件名是保存时间，按名称排序即按时间排序
+        Arrays.sort(files);
+        return files;
+    }
+
+    private void trim() {
+        File[] files = list();
+        for (int i = 0; i < files.length - maxFiles; i++) {
+            files[i].delete();
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,63 +1,80 @@
 package com.tetris.sound;
 
 import android.content.Context;
-import android.media.MediaPlayer;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
 
 import com.tetris.R;
 
+// 基于 SoundPool 的低延迟音效：所有音效启动时预加载到内存，播放时不分配对象、不做 I/O，
+// 可以在任意线程调用，多个音效可以同时发声，超过上限时由 SoundPool 按优先级抢占
 public class SoundManager {
-    private Context context;
-    private boolean isEnabled;
-    private MediaPlayer moveSound;
-    private MediaPlayer rotateSound;
-    private MediaPlayer clearSound;
-    private MediaPlayer gameOverSound;
+    // 同时发声的最大数量
+    private static final int MAX_VOICES = 4;
+
+    // 优先级越高越不容易被抢占
+    private static final int PRIORITY_MOVE = 0;
+    private static final int PRIORITY_ROTATE = 1;
+    private static final int PRIORITY_CLEAR = 2;
+    private static final int PRIORITY_GAME_OVER = 3;
+
+    private SoundPool soundPool;
+    private volatile boolean isEnabled;
+    private final int moveSound;
+    private final int rotateSound;
+    private final int clearSound;
+    private final int gameOverSound;
+    // 按 SoundPool 的样本 ID 记录是否加载完成，未加载完成的音效直接跳过
+    private final boolean[] loaded = new boolean[8];
 
     public SoundManager(Context context) {
-        this.context = context;
         this.isEnabled = true;
-        initSounds();
-    }
 
-    private void initSounds() {
-        // 初始化各种音效
-        moveSound = MediaPlayer.create(context, R.raw.move);
-        rotateSound = MediaPlayer.create(context, R.raw.rotate);
-        clearSound = MediaPlayer.create(context, R.raw.clear);
-        gameOverSound = MediaPlayer.create(context, R.raw.game_over);
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_GAME)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build();
+        soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_VOICES)
+                .setAudioAttributes(attributes)
+                .build();
+        soundPool.setOnLoadCompleteListener(new SoundPool.OnLoadCompleteListener() {
+            @Override
+            public void onLoadComplete(SoundPool pool, int sampleId, int status) {
+                if (status == 0 && sampleId < loaded.length) {
+                    loaded[sampleId] = true;
+                }
+            }
+        });
+
+        // 预加载全部音效，解码在 SoundPool 的后台线程完成
+        moveSound = soundPool.load(context, R.raw.move, 1);
+        rotateSound = soundPool.load(context, R.raw.rotate, 1);
+        clearSound = soundPool.load(context, R.raw.clear, 1);
+        gameOverSound = soundPool.load(context, R.raw.game_over, 1);
     }
 
     public void playMoveSound() {
-        if (isEnabled && moveSound != null) {
-            playSound(moveSound);
-        }
+        play(moveSound, PRIORITY_MOVE);
     }
 
     public void playRotateSound() {
-        if (isEnabled && rotateSound != null) {
-            playSound(rotateSound);
-        }
+        play(rotateSound, PRIORITY_ROTATE);
     }
 
     public void playClearSound() {
-        if (isEnabled && clearSound != null) {
-            playSound(clearSound);
-        }
+        play(clearSound, PRIORITY_CLEAR);
     }
 
     public void playGameOverSound() {
-        if (isEnabled && gameOverSound != null) {
-            playSound(gameOverSound);
-        }
+        play(gameOverSound, PRIORITY_GAME_OVER);
     }
 
-    private void playSound(MediaPlayer player) {
-        if (player.isPlaying()) {
-            player.stop();
-            player.reset();
-            initSounds(); // 重新初始化音效
+    private void play(int sampleId, int priority) {
+        SoundPool pool = soundPool;
+        if (isEnabled && pool != null && sampleId < loaded.length && loaded[sampleId]) {
+            pool.play(sampleId, 1f, 1f, priority, 0, 1f);
         }
-        player.start();
     }
 
     public boolean isEnabled() {
@@ -70,21 +87,9 @@ public class SoundManager {
 
     public void release() {
         // 释放所有音效资源
-        if (moveSound != null) {
-            moveSound.release();
-            moveSound = null;
-        }
-        if (rotateSound != null) {
-            rotateSound.release();
-            rotateSound = null;
-        }
-        if (clearSound != null) {
-            clearSound.release();
-            clearSound = null;
-        }
-        if (gameOverSound != null) {
-            gameOverSound.release();
-            gameOverSound = null;
+        if (soundPool != null) {
+            soundPool.release();
+            soundPool = null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.tetris.ui;
+
+import android.graphics.Color;
+
+import com.tetris.game.Tetromino;
+
+public final class BlockPalette {
+    // 按单元格取值（0 为空，1-7 对应 I J L O S T Z，8 为对战垃圾行）索引的颜色表，只解析一次
+    private static final int[] CELL_COLORS = {
+        Color.BLACK,                // 空
+        Color.CYAN,                 // I
+        Color.BLUE,                 // J
+        Color.parseColor("#FFA500"), // L (Orange)
+        Color.YELLOW,               // O
+        Color.GREEN,                // S
+        Color.parseColor("#800080"), // T (Purple)
+        Color.RED,                  // Z
+        Color.GRAY                  // 垃圾行
+    };
+
+    private BlockPalette() {
+    }
+
+    public static int colorOf(Tetromino.Shape shape) {
+        return CELL_COLORS[shape.ordinal() + 1];
+    }
+
+    public static int colorOfCell(int cellValue) {
+        if (cellValue <= 0 || cellValue >= CELL_COLORS.length) {
+            return Color.BLACK;
+        }
+        return CELL_COLORS[cellValue];
+    }
+}
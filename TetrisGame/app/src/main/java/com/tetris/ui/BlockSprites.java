@@ -0,0 +1,99 @@
+package com.tetris.ui;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.Tetromino;
+
+// 按实际单元格尺寸预先绘制好的方块贴图：每种颜色一张实心方块和一张影子方块，
+// 绘制时每个单元格只需一次 drawBitmap，不再逐格切换 Paint 的颜色和样式
+public final class BlockSprites {
+    // 单元格小于该尺寸时省略边框，只画实心色块
+    private static final int MIN_BORDER_SIZE = 4;
+    // 按单元格取值索引（0 为空，1-7 对应 I J L O S T Z，最后是垃圾行）
+    private static final int CELL_VALUES = GameGrid.GARBAGE_CELL + 1;
+
+    private final Bitmap[] blocks = new Bitmap[CELL_VALUES];
+    private final Bitmap[] ghosts = new Bitmap[CELL_VALUES];
+    private int cellSize;
+
+    // 尺寸变化时重新生成全部贴图，返回是否发生了变化
+    public boolean setCellSize(int size) {
+        if (size == cellSize || size <= 0) {
+            return false;
+        }
+        recycle();
+        cellSize = size;
+
+        // 白边用两个实心矩形叠出，避免 1 像素描边落在半像素坐标上时取整方向不确定
+        Paint fill = new Paint();
+        fill.setStyle(Paint.Style.FILL);
+        Paint border = new Paint();
+        border.setStyle(Paint.Style.FILL);
+        border.setColor(Color.WHITE);
+        Paint ghost = new Paint();
+        ghost.setStyle(Paint.Style.STROKE);
+        ghost.setStrokeWidth(2);
+
+        boolean bordered = size >= MIN_BORDER_SIZE;
+        for (int value = 1; value < CELL_VALUES; value++) {
+            int color = BlockPalette.colorOfCell(value);
+
+            blocks[value] = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(blocks[value]);
+            fill.setColor(color);
+            if (bordered) {
+                canvas.drawRect(1, 1, size - 1, size - 1, border);
+                canvas.drawRect(2, 2, size - 2, size - 2, fill);
+            } else {
+                canvas.drawRect(0, 0, size, size, fill);
+            }
+
+            ghosts[value] = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            canvas = new Canvas(ghosts[value]);
+            ghost.setColor(color);
+            if (bordered) {
+                canvas.drawRect(2, 2, size - 2, size - 2, ghost);
+            } else {
+                canvas.drawRect(0, 0, size, size, ghost);
+            }
+        }
+        return true;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public void drawCell(Canvas canvas, int cellValue, float x, float y) {
+        Bitmap bitmap = blocks[cellValue];
+        if (bitmap != null) {
+            canvas.drawBitmap(bitmap, x, y, null);
+        }
+    }
+
+    public void drawBlock(Canvas canvas, Tetromino.Shape shape, float x, float y) {
+        canvas.drawBitmap(blocks[shape.ordinal() + 1], x, y, null);
+    }
+
+    public void drawGhost(Canvas canvas, Tetromino.Shape shape, float x, float y) {
+        canvas.drawBitmap(ghosts[shape.ordinal() + 1], x, y, null);
+    }
+
+    public void recycle() {
+        for (int i = 0; i < CELL_VALUES; i++) {
+            if (blocks[i] != null) {
+                blocks[i].recycle();
+                blocks[i] = null;
+            }
+            if (ghosts[i] != null) {
+                ghosts[i].recycle();
+                ghosts[i] = null;
+            }
+        }
+        cellSize = 0;
+    }
+}
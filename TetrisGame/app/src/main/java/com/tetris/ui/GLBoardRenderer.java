@@ -0,0 +1,434 @@
+package com.tetris.ui;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.opengl.GLES30;
+import android.opengl.GLSurfaceView;
+import android.opengl.GLUtils;
+import android.util.Log;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.RotationTable;
+import com.tetris.game.Tetromino;
+import com.tetris.game.TetrisGame;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.opengles.GL10;
+
+// OpenGL ES 3.0 渲染器：每帧把棋盘、影子方块、当前方块和提示文字写入一个实例缓冲区，
+// 用一次 glDrawArraysInstanced 画出全部单元格。
+// 每个实例是 vec4 矩形（单元格坐标 x, y, w, h）加 vec2（颜色索引, 样式），
+// 边框、影子轮廓和网格线都在片元着色器中按像素计算，与 Canvas 路径的画法一致
+final class GLBoardRenderer implements GLSurfaceView.Renderer {
+    private static final String TAG = "GLBoardRenderer";
+
+    // 实例样式，与片元着色器中的分支对应
+    private static final int STYLE_BLOCK = 0;
+    private static final int STYLE_GHOST = 1;
+    private static final int STYLE_BOARD = 2;
+    private static final int STYLE_LABEL = 3;
+    // 每个实例 6 个 float：x, y, w, h, 颜色索引, 样式
+    private static final int FLOATS_PER_INSTANCE = 6;
+    private static final int INSTANCE_STRIDE = FLOATS_PER_INSTANCE * 4;
+    // 除已固定的单元格外每帧最多的实例数：背景、影子、当前方块和提示文字
+    private static final int EXTRA_INSTANCES = 2 + RotationTable.CELLS * 2;
+    // 提示文字的状态位
+    private static final int LABEL_PAUSED = 1;
+    private static final int LABEL_GAME_OVER = 1 << 1;
+    // 单元格取值 0-8 各一种颜色（含对战垃圾行）
+    private static final int PALETTE_SIZE = GameGrid.GARBAGE_CELL + 1;
+
+    private static final String VERTEX_SHADER =
+            "#version 300 es\n"
+            + "layout(location = 0) in vec2 a_corner;\n"
+            + "layout(location = 1) in vec4 a_rect;\n"
+            + "layout(location = 2) in vec2 a_style;\n"
+            + "uniform vec2 u_viewport;\n"
+            + "uniform vec2 u_origin;\n"
+            + "uniform float u_cell;\n"
+            + "out vec2 v_local;\n"
+            + "out vec2 v_uv;\n"
+            + "flat out vec2 v_size;\n"
+            + "flat out int v_color;\n"
+            + "flat out int v_style;\n"
+            + "void main() {\n"
+            + "    v_size = a_rect.zw * u_cell;\n"
+            + "    v_local = a_corner * v_size;\n"
+            + "    v_uv = a_corner;\n"
+            + "    v_color = int(a_style.x);\n"
+            + "    v_style = int(a_style.y);\n"
+            + "    vec2 pixel = u_origin + a_rect.xy * u_cell + v_local;\n"
+            + "    gl_Position = vec4(pixel.x / u_viewport.x * 2.0 - 1.0,\n"
+            + "                       1.0 - pixel.y / u_viewport.y * 2.0, 0.0, 1.0);\n"
+            + "}\n";
+
+    // 像素到实例边缘的距离决定边框：方块外圈 1 像素透明、再 1 像素白边；
+    // 影子方块为内缩 1 像素的 2 像素轮廓；单元格小于 4 像素时只画实心色块或细轮廓；
+    // 背景在单元格不小于 8 像素时每格左侧和上方各画一条灰色网格线，棋盘最右一列和最下一行像素再画一条收口线。
+    // v_local、far 等都是像素距离，mediump 在多数移动 GPU 上是 fp16，超过 1024 像素就表示不了半像素，
+    // 手机上约 2000 像素高的棋盘下半部网格线和边框会错位，因此用 highp（ES 3.0 片段着色器必须支持）
+    private static final String FRAGMENT_SHADER =
+            "#version 300 es\n"
+            + "precision highp float;\n"
+            + "uniform vec4 u_palette[" + PALETTE_SIZE + "];\n"
+            + "uniform vec4 u_gridLine;\n"
+            + "uniform float u_cell;\n"
+            + "uniform sampler2D u_label;\n"
+            + "in vec2 v_local;\n"
+            + "in vec2 v_uv;\n"
+            + "flat in vec2 v_size;\n"
+            + "flat in int v_color;\n"
+            + "flat in int v_style;\n"
+            + "out vec4 fragColor;\n"
+            + "void main() {\n"
+            + "    vec2 far = v_size - v_local;\n"
+            + "    float edge = min(min(v_local.x, v_local.y), min(far.x, far.y));\n"
+            + "    bool bordered = u_cell >= 4.0;\n"
+            + "    if (v_style == " + STYLE_BLOCK + ") {\n"
+            + "        if (!bordered) {\n"
+            + "            fragColor = u_palette[v_color];\n"
+            + "        } else if (edge < 1.0) {\n"
+            + "            discard;\n"
+            + "        } else {\n"
+            + "            fragColor = edge < 2.0 ? vec4(1.0) : u_palette[v_color];\n"
+            + "        }\n"
+            + "    } else if (v_style == " + STYLE_GHOST + ") {\n"
+            + "        if (bordered ? (edge < 1.0 || edge >= 3.0) : edge >= 1.0) {\n"
+            + "            discard;\n"
+            + "        }\n"
+            + "        fragColor = u_palette[v_color];\n"
+            + "    } else if (v_style == " + STYLE_BOARD + ") {\n"
+            + "        vec2 m = mod(v_local, u_cell);\n"
+            + "        bool line = u_cell >= 8.0 && (m.x < 1.0 || m.y < 1.0 || far.x < 1.0 || far.y < 1.0);\n"
+            + "        fragColor = line ? u_gridLine : u_palette[0];\n"
+            + "    } else {\n"
+            + "        fragColor = texture(u_label, v_uv);\n"
+            + "    }\n"
+            + "}\n";
+
+    // 两个三角形组成的单位正方形
+    private static final float[] QUAD = {0, 0, 1, 0, 0, 1, 1, 1};
+
+    private final GameLoop loop;
+    // 着色器编译或链接失败时在 GL 线程上调用，由视图切换回 Canvas 渲染
+    private final Runnable failureCallback;
+    private volatile boolean ghostEnabled = true;
+    private volatile long frameTimeNanos;
+
+    private boolean failed;
+    private int program;
+    private int vertexArray;
+    private int quadBuffer;
+    private int instanceBuffer;
+    private int labelTexture;
+    private int viewportLocation;
+    private int originLocation;
+    private int cellLocation;
+
+    private FloatBuffer instances;
+    private int instanceCount;
+    private int surfaceWidth;
+    private int surfaceHeight;
+    private int columns;
+    private int rows;
+    private int blockSize;
+    private int boardWidth;
+    private int boardHeight;
+    private int offsetX;
+    private int offsetY;
+    // 已上传到纹理的提示文字状态，-1 表示需要重建
+    private int labelState = -1;
+    private Paint pausedPaint;
+    private Paint gameOverPaint;
+
+    GLBoardRenderer(GameLoop loop, Runnable failureCallback) {
+        this.loop = loop;
+        this.failureCallback = failureCallback;
+
+        pausedPaint = new Paint();
+        pausedPaint.setColor(Color.WHITE);
+        pausedPaint.setTextAlign(Paint.Align.CENTER);
+
+        gameOverPaint = new Paint();
+        gameOverPaint.setColor(Color.RED);
+        gameOverPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    void setGhostEnabled(boolean enabled) {
+        ghostEnabled = enabled;
+    }
+
+    long getFrameTimeNanos() {
+        return frameTimeNanos;
+    }
+
+    @Override
+    public void onSurfaceCreated(GL10 unused, EGLConfig config) {
+        // EGL 上下文丢失后所有对象都要重建
+        program = linkProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        failed = program == 0;
+        if (failed) {
+            failureCallback.run();
+            return;
+        }
+        GLES30.glUseProgram(program);
+        viewportLocation = GLES30.glGetUniformLocation(program, "u_viewport");
+        originLocation = GLES30.glGetUniformLocation(program, "u_origin");
+        cellLocation = GLES30.glGetUniformLocation(program, "u_cell");
+
+        float[] palette = new float[PALETTE_SIZE * 4];
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            putColor(palette, i * 4, BlockPalette.colorOfCell(i));
+        }
+        GLES30.glUniform4fv(GLES30.glGetUniformLocation(program, "u_palette"), PALETTE_SIZE, palette, 0);
+        float[] gridLine = new float[4];
+        putColor(gridLine, 0, Color.GRAY);
+        GLES30.glUniform4fv(GLES30.glGetUniformLocation(program, "u_gridLine"), 1, gridLine, 0);
+        GLES30.glUniform1i(GLES30.glGetUniformLocation(program, "u_label"), 0);
+
+        int[] ids = new int[2];
+        GLES30.glGenVertexArrays(1, ids, 0);
+        vertexArray = ids[0];
+        GLES30.glBindVertexArray(vertexArray);
+
+        GLES30.glGenBuffers(2, ids, 0);
+        quadBuffer = ids[0];
+        instanceBuffer = ids[1];
+        FloatBuffer quad = allocateFloats(QUAD.length);
+        quad.put(QUAD).flip();
+        GLES30.glBindBuffer(GLES30.GL_ARRAY_BUFFER, quadBuffer);
+        GLES30.glBufferData(GLES30.GL_ARRAY_BUFFER, QUAD.length * 4, quad, GLES30.GL_STATIC_DRAW);
+        GLES30.glEnableVertexAttribArray(0);
+        GLES30.glVertexAttribPointer(0, 2, GLES30.GL_FLOAT, false, 0, 0);
+
+        GLES30.glBindBuffer(GLES30.GL_ARRAY_BUFFER, instanceBuffer);
+        GLES30.glEnableVertexAttribArray(1);
+        GLES30.glVertexAttribPointer(1, 4, GLES30.GL_FLOAT, false, INSTANCE_STRIDE, 0);
+        GLES30.glVertexAttribDivisor(1, 1);
+        GLES30.glEnableVertexAttribArray(2);
+        GLES30.glVertexAttribPointer(2, 2, GLES30.GL_FLOAT, false, INSTANCE_STRIDE, 4 * 4);
+        GLES30.glVertexAttribDivisor(2, 1);
+
+        GLES30.glGenTextures(1, ids, 0);
+        labelTexture = ids[0];
+        GLES30.glActiveTexture(GLES30.GL_TEXTURE0);
+        GLES30.glBindTexture(GLES30.GL_TEXTURE_2D, labelTexture);
+        GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_MIN_FILTER, GLES30.GL_NEAREST);
+        GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_MAG_FILTER, GLES30.GL_NEAREST);
+        GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_WRAP_S, GLES30.GL_CLAMP_TO_EDGE);
+        GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_WRAP_T, GLES30.GL_CLAMP_TO_EDGE);
+        labelState = -1;
+
+        // 提示文字带透明度，其余样式用 discard 留出边缘
+        GLES30.glEnable(GLES30.GL_BLEND);
+        GLES30.glBlendFunc(GLES30.GL_SRC_ALPHA, GLES30.GL_ONE_MINUS_SRC_ALPHA);
+        GLES30.glClearColor(0, 0, 0, 1);
+
+        loop.start(System.nanoTime());
+    }
+
+    @Override
+    public void onSurfaceChanged(GL10 unused, int width, int height) {
+        GLES30.glViewport(0, 0, width, height);
+        surfaceWidth = width;
+        surfaceHeight = height;
+        blockSize = 0;
+    }
+
+    @Override
+    public void onDrawFrame(GL10 unused) {
+        long frameStart = System.nanoTime();
+        GLES30.glClear(GLES30.GL_COLOR_BUFFER_BIT);
+        if (failed) {
+            return;
+        }
+
+        int label;
+        synchronized (loop) {
+            float interpolation = loop.advance(frameStart);
+            TetrisGame game = loop.getGame();
+            if (game == null || surfaceWidth <= 0 || surfaceHeight <= 0) {
+                return;
+            }
+            layoutBoard(game.getGrid());
+            label = gatherInstances(game, interpolation);
+        }
+
+        if (label != 0 && label != labelState) {
+            uploadLabel(label);
+        }
+
+        GLES30.glUniform2f(viewportLocation, surfaceWidth, surfaceHeight);
+        GLES30.glUniform2f(originLocation, offsetX, offsetY);
+        GLES30.glUniform1f(cellLocation, blockSize);
+
+        // 每帧重新分配缓冲区存储，驱动可以直接丢弃上一帧仍在使用的数据
+        instances.position(0);
+        GLES30.glBindBuffer(GLES30.GL_ARRAY_BUFFER, instanceBuffer);
+        GLES30.glBufferData(GLES30.GL_ARRAY_BUFFER, instanceCount * INSTANCE_STRIDE, instances,
+                GLES30.GL_STREAM_DRAW);
+        GLES30.glBindVertexArray(vertexArray);
+        GLES30.glDrawArraysInstanced(GLES30.GL_TRIANGLE_STRIP, 0, 4, instanceCount);
+
+        long frameEnd = System.nanoTime();
+        frameTimeNanos = frameEnd - frameStart;
+        loop.frameRendered(frameEnd, frameTimeNanos);
+    }
+
+    // 与 GameView 相同的布局：能完整放下棋盘的最大整数方块尺寸，居中显示
+    private void layoutBoard(GameGrid grid) {
+        if (blockSize > 0 && grid.getWidth() == columns && grid.getHeight() == rows) {
+            return;
+        }
+        columns = grid.getWidth();
+        rows = grid.getHeight();
+        blockSize = Math.max(1, Math.min(surfaceWidth / columns, surfaceHeight / rows));
+        boardWidth = columns * blockSize;
+        boardHeight = rows * blockSize;
+        offsetX = (surfaceWidth - boardWidth) / 2;
+        offsetY = (surfaceHeight - boardHeight) / 2;
+
+        int capacity = (columns * rows + EXTRA_INSTANCES) * FLOATS_PER_INSTANCE;
+        if (instances == null || instances.capacity() < capacity) {
+            instances = allocateFloats(capacity);
+        }
+        pausedPaint.setTextSize(blockSize);
+        gameOverPaint.setTextSize(blockSize);
+        labelState = -1;
+    }
+
+    // 按绘制顺序写入实例：背景、已固定的单元格、影子方块、当前方块、提示文字；返回提示文字状态
+    private int gatherInstances(TetrisGame game, float interpolation) {
+        GameGrid grid = game.getGrid();
+        instances.clear();
+        instanceCount = 0;
+        putInstance(0, 0, columns, rows, 0, STYLE_BOARD);
+
+        // 只遍历堆叠顶部以下的行，按行掩码跳过空格
+        for (int y = grid.getStackTop(); y < rows; y++) {
+            long mask = grid.getRowMask(y);
+            while (mask != 0) {
+                int x = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                putInstance(x, y, 1, 1, grid.getCell(x, y), STYLE_BLOCK);
+            }
+        }
+
+        boolean paused = game.isPaused();
+        boolean gameOver = game.isGameOver();
+        Tetromino tetromino = game.getCurrentTetromino();
+        if (tetromino != null) {
+            Tetromino.Shape shape = tetromino.getShape();
+            int rotation = tetromino.getRotation();
+            int x = tetromino.getX();
+            int y = tetromino.getY();
+            int color = shape.ordinal() + 1;
+
+            if (ghostEnabled && !gameOver) {
+                int ghostY = y + grid.dropDistance(tetromino);
+                for (int i = 0; i < RotationTable.CELLS; i++) {
+                    putInstance(x + RotationTable.cellX(shape, rotation, i),
+                            ghostY + RotationTable.cellY(shape, rotation, i), 1, 1, color, STYLE_GHOST);
+                }
+            }
+
+            // 在两次重力下落之间按进度插值，取整到像素以与 Canvas 路径一致；落地后不再插值
+            float pieceY = y;
+            if (!paused && grid.isValidMove(tetromino, x, y + 1)) {
+                pieceY += (float) (int) (interpolation * blockSize) / blockSize;
+            }
+            for (int i = 0; i < RotationTable.CELLS; i++) {
+                putInstance(x + RotationTable.cellX(shape, rotation, i),
+                        pieceY + RotationTable.cellY(shape, rotation, i), 1, 1, color, STYLE_BLOCK);
+            }
+        }
+
+        int label = (paused ? LABEL_PAUSED : 0) | (gameOver ? LABEL_GAME_OVER : 0);
+        if (label != 0) {
+            // 文字基线位于棋盘中央，纹理覆盖其上下各一个单元格
+            putInstance(0, rows / 2f - 1, columns, 2, 0, STYLE_LABEL);
+        }
+        return label;
+    }
+
+    private void putInstance(float x, float y, float w, float h, int color, int style) {
+        instances.put(x).put(y).put(w).put(h).put(color).put(style);
+        instanceCount++;
+    }
+
+    // 提示文字用 Canvas 画到位图后上传为纹理，只在状态或布局变化时重建
+    private void uploadLabel(int label) {
+        Bitmap bitmap = Bitmap.createBitmap(boardWidth, blockSize * 2, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        float x = boardWidth / 2f;
+        if ((label & LABEL_PAUSED) != 0) {
+            canvas.drawText("暂停", x, blockSize, pausedPaint);
+        }
+        if ((label & LABEL_GAME_OVER) != 0) {
+            canvas.drawText("游戏结束", x, blockSize, gameOverPaint);
+        }
+        GLES30.glBindTexture(GLES30.GL_TEXTURE_2D, labelTexture);
+        GLUtils.texImage2D(GLES30.GL_TEXTURE_2D, 0, bitmap, 0);
+        bitmap.recycle();
+        labelState = label;
+    }
+
+    private static void putColor(float[] out, int offset, int color) {
+        out[offset] = Color.red(color) / 255f;
+        out[offset + 1] = Color.green(color) / 255f;
+        out[offset + 2] = Color.blue(color) / 255f;
+        out[offset + 3] = Color.alpha(color) / 255f;
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    // 编译或链接失败时记录日志并返回 0
+    private static int linkProgram(String vertexSource, String fragmentSource) {
+        int vertexShader = compileShader(GLES30.GL_VERTEX_SHADER, vertexSource);
+        int fragmentShader = compileShader(GLES30.GL_FRAGMENT_SHADER, fragmentSource);
+        if (vertexShader == 0 || fragmentShader == 0) {
+            return 0;
+        }
+        int program = GLES30.glCreateProgram();
+        GLES30.glAttachShader(program, vertexShader);
+        GLES30.glAttachShader(program, fragmentShader);
+        GLES30.glLinkProgram(program);
+        GLES30.glDeleteShader(vertexShader);
+        GLES30.glDeleteShader(fragmentShader);
+
+        int[] status = new int[1];
+        GLES30.glGetProgramiv(program, GLES30.GL_LINK_STATUS, status, 0);
+        if (status[0] == 0) {
+            Log.e(TAG, "Program link failed: " + GLES30.glGetProgramInfoLog(program));
+            GLES30.glDeleteProgram(program);
+            return 0;
+        }
+        return program;
+    }
+
+    private static int compileShader(int type, String source) {
+        int shader = GLES30.glCreateShader(type);
+        if (shader == 0) {
+            return 0;
+        }
+        GLES30.glShaderSource(shader, source);
+        GLES30.glCompileShader(shader);
+
+        int[] status = new int[1];
+        GLES30.glGetShaderiv(shader, GLES30.GL_COMPILE_STATUS, status, 0);
+        if (status[0] == 0) {
+            Log.e(TAG, "Shader compile failed: " + GLES30.glGetShaderInfoLog(shader));
+            GLES30.glDeleteShader(shader);
+            return 0;
+        }
+        return shader;
+    }
+}
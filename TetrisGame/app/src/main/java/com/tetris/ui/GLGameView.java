@@ -0,0 +1,148 @@
+package com.tetris.ui;
+
+import android.content.Context;
+import android.opengl.GLSurfaceView;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.tetris.game.GameSnapshot;
+import com.tetris.game.TetrisGame;
+import com.tetris.metrics.LatencyHistogram;
+import com.tetris.metrics.MetricsRegistry;
+import com.tetris.replay.ReplayRecorder;
+
+import java.io.IOException;
+
+// OpenGL ES 3.0 渲染的游戏画面。连续渲染模式下每个 vsync 画一帧，在高刷新率屏幕上
+// 方块下落按 90/120Hz 插值；输入和重力由与 GameView 相同的 GameLoop 在 GL 线程上推进
+public class GLGameView extends GLSurfaceView implements GameSurface {
+    private static final int GL_ES_VERSION = 3;
+
+    private final GameLoop loop = new GameLoop();
+    private GLBoardRenderer renderer;
+    private Runnable fallbackListener;
+
+    public GLGameView(Context context) {
+        super(context);
+        init();
+    }
+
+    public GLGameView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    private void init() {
+        setEGLContextClientVersion(GL_ES_VERSION);
+        renderer = new GLBoardRenderer(loop, new Runnable() {
+            @Override
+            public void run() {
+                // 在 GL 线程上发现着色器不可用，切到界面线程通知 Activity 改用 Canvas 渲染
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (fallbackListener != null) {
+                            fallbackListener.run();
+                        }
+                    }
+                });
+            }
+        });
+        setRenderer(renderer);
+        setRenderMode(RENDERMODE_CONTINUOUSLY);
+        setFocusable(true);
+    }
+
+    // GL 初始化失败时在界面线程上调用
+    public void setFallbackListener(Runnable listener) {
+        fallbackListener = listener;
+    }
+
+    @Override
+    public void setGame(TetrisGame game) {
+        synchronized (loop) {
+            loop.setGame(game);
+        }
+    }
+
+    @Override
+    public boolean sendCommand(int command) {
+        return loop.sendCommand(command);
+    }
+
+    // 与 GL 线程上的逻辑更新使用同一把锁
+    @Override
+    public void startGame() {
+        synchronized (loop) {
+            loop.startGame();
+        }
+    }
+
+    @Override
+    public void pauseGame() {
+        synchronized (loop) {
+            loop.pauseGame();
+        }
+    }
+
+    @Override
+    public void resumeGame() {
+        synchronized (loop) {
+            loop.resumeGame();
+        }
+    }
+
+    @Override
+    public void restartGame(ReplayRecorder recorder, long seed) {
+        synchronized (loop) {
+            loop.restartGame(recorder, seed);
+        }
+    }
+
+    @Override
+    public void saveSnapshot(GameSnapshot snapshot) {
+        synchronized (loop) {
+            loop.capture(snapshot);
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(GameSnapshot snapshot) throws IOException {
+        synchronized (loop) {
+            loop.restore(snapshot);
+        }
+    }
+
+    @Override
+    public void setGhostEnabled(boolean enabled) {
+        renderer.setGhostEnabled(enabled);
+    }
+
+    // GL 渲染只记录指标，性能浮层由 Canvas 渲染的 GameView 显示
+    @Override
+    public void setMetrics(MetricsRegistry metrics) {
+        synchronized (loop) {
+            loop.setMetrics(metrics);
+        }
+    }
+
+    @Override
+    public LatencyHistogram getInputLatency() {
+        return loop.getInputLatency();
+    }
+
+    @Override
+    public long getFrameTimeNanos() {
+        return renderer.getFrameTimeNanos();
+    }
+
+    @Override
+    public long getTickTimeNanos() {
+        return loop.getTickTimeNanos();
+    }
+
+    @Override
+    public View getView() {
+        return this;
+    }
+}
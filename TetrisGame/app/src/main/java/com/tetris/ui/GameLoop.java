@@ -0,0 +1,217 @@
+package com.tetris.ui;
+
+import android.os.Build;
+import android.os.Debug;
+
+import com.tetris.game.GameSnapshot;
+import com.tetris.game.InputQueue;
+import com.tetris.game.TetrisGame;
+import com.tetris.game.TimingEngine;
+import com.tetris.metrics.Counter;
+import com.tetris.metrics.LatencyHistogram;
+import com.tetris.metrics.MetricsRegistry;
+import com.tetris.replay.ReplayRecorder;
+
+import java.io.IOException;
+
+// Canvas 和 GL 两种渲染方式共用的游戏循环：在渲染线程上把排队的输入交给 TimingEngine，
+// 由它按 nanoTime 调度重力、自动重复移动和锁定延迟，并给出两次下落之间的插值进度。
+// setGame、setMetrics、advance、capture、restore 以及开局、暂停和继续都由调用方在同一把锁内调用，
+// 界面线程对游戏的修改因此不会与渲染线程上的逻辑更新交错
+final class GameLoop {
+    // 输入队列容量，远大于一帧内可能产生的手势数
+    private static final int INPUT_QUEUE_CAPACITY = 64;
+    // 采样进程累计分配字节数的间隔；读取运行时统计本身会分配一个字符串，因此不逐帧采样
+    private static final long ALLOCATION_SAMPLE_NANOS = 1_000_000_000L;
+
+    // 界面线程写入、渲染线程取出的输入指令，以及指令从入队到执行的延迟
+    private final InputQueue inputQueue = new InputQueue(INPUT_QUEUE_CAPACITY);
+    private final LatencyHistogram inputLatency = new LatencyHistogram();
+    private final TimingEngine engine = new TimingEngine();
+    private volatile TetrisGame game;
+    private long previous;
+    // 最近一次逻辑更新的耗时（纳秒）
+    private volatile long tickTimeNanos;
+    // 性能指标，为 null 时不记录；以下字段只由渲染线程使用
+    private volatile Recorders recorders;
+    private long pendingInputNanos;
+    private int lastPiecesSpawned;
+    private long allocationBaseline = -1;
+    private long lastAllocationSample;
+
+    void setGame(TetrisGame game) {
+        this.game = game;
+        engine.setGame(game);
+    }
+
+    // 由界面线程调用；传入 null 关闭记录
+    void setMetrics(MetricsRegistry metrics) {
+        if (metrics != null) {
+            metrics.register(MetricsRegistry.INPUT_QUEUE, inputLatency);
+        }
+        recorders = metrics != null ? new Recorders(metrics) : null;
+        engine.setTickRecorder(metrics != null ? recorders.tick : null);
+    }
+
+    MetricsRegistry getMetrics() {
+        Recorders recorders = this.recorders;
+        return recorders != null ? recorders.registry : null;
+    }
+
+    TetrisGame getGame() {
+        return game;
+    }
+
+    // 渲染线程开始工作时调用，之后的第一帧不会把线程暂停期间的时间计入重力
+    void start(long nowNanos) {
+        previous = nowNanos;
+        engine.start(nowNanos);
+    }
+
+    // 推进到 nowNanos，返回当前方块在两次重力下落之间的进度（0 到 1）
+    float advance(long nowNanos) {
+        Recorders recorders = this.recorders;
+        if (recorders != null) {
+            recorders.frame.record(nowNanos - previous);
+        }
+        previous = nowNanos;
+
+        TetrisGame game = this.game;
+        if (game == null) {
+            engine.advance(nowNanos);
+            return 0;
+        }
+
+        // 输入按入队时间插入重力和自动重复之间执行，输入与逻辑更新始终在同一线程上
+        if (inputQueue.drainTo(engine, inputLatency) > 0 && pendingInputNanos == 0) {
+            pendingInputNanos = inputQueue.getOldestDrainedNanos();
+        }
+        engine.advance(nowNanos);
+        tickTimeNanos = engine.getTickTimeNanos();
+
+        if (recorders != null) {
+            recordCounters(recorders, game, nowNanos);
+        }
+        return engine.getInterpolation();
+    }
+
+    // 渲染线程提交一帧后调用，drawNanos 为准备和绘制这一帧的耗时
+    void frameRendered(long nowNanos, long drawNanos) {
+        Recorders recorders = this.recorders;
+        if (recorders != null) {
+            recorders.draw.record(drawNanos);
+            if (pendingInputNanos != 0) {
+                recorders.inputToRender.record(nowNanos - pendingInputNanos);
+            }
+        }
+        pendingInputNanos = 0;
+    }
+
+    private void recordCounters(Recorders recorders, TetrisGame game, long nowNanos) {
+        // 重新开局后方块数从头计数，只累加增量
+        int pieces = game.getPiecesSpawned();
+        if (pieces > lastPiecesSpawned) {
+            recorders.pieces.add(pieces - lastPiecesSpawned);
+        }
+        lastPiecesSpawned = pieces;
+
+        if (nowNanos - lastAllocationSample >= ALLOCATION_SAMPLE_NANOS) {
+            lastAllocationSample = nowNanos;
+            long allocated = allocatedBytes();
+            if (allocated >= 0) {
+                if (allocationBaseline < 0) {
+                    allocationBaseline = allocated;
+                }
+                recorders.allocated.set(allocated - allocationBaseline);
+            }
+        }
+    }
+
+    // ART 从 Android 6.0 起提供进程累计分配字节数，更早的版本返回 -1
+    private static long allocatedBytes() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return -1;
+        }
+        String value = Debug.getRuntimeStat("art.gc.bytes-allocated");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    void startGame() {
+        if (game != null) {
+            game.start();
+        }
+    }
+
+    void pauseGame() {
+        if (game != null) {
+            game.pause();
+        }
+    }
+
+    void resumeGame() {
+        if (game != null) {
+            game.resume();
+        }
+    }
+
+    // 以新种子重置游戏、开始录制并开局；按住状态、锁定计时和重力相位一起清零，
+    // 重置与录制开始之间不会插入逻辑更新，录像与实际对局一致
+    void restartGame(ReplayRecorder recorder, long seed) {
+        if (game == null) {
+            return;
+        }
+        recorder.begin(game, seed);
+        engine.setGame(game);
+        engine.setTickPhaseNanos(0);
+        game.start();
+    }
+
+    // 由界面线程调用，指令会在渲染线程的下一帧开始时执行；队列满时丢弃并返回 false
+    boolean sendCommand(int command) {
+        return inputQueue.offer(command);
+    }
+
+    void capture(GameSnapshot snapshot) {
+        snapshot.capture(game, engine.getTickPhaseNanos());
+    }
+
+    void restore(GameSnapshot snapshot) throws IOException {
+        engine.setTickPhaseNanos(snapshot.restore(game));
+    }
+
+    LatencyHistogram getInputLatency() {
+        return inputLatency;
+    }
+
+    long getTickTimeNanos() {
+        return tickTimeNanos;
+    }
+
+    // 从注册表取出一次，之后记录时不再按名称查找
+    private static final class Recorders {
+        final MetricsRegistry registry;
+        final LatencyHistogram tick;
+        final LatencyHistogram draw;
+        final LatencyHistogram frame;
+        final LatencyHistogram inputToRender;
+        final Counter pieces;
+        final Counter allocated;
+
+        Recorders(MetricsRegistry registry) {
+            this.registry = registry;
+            tick = registry.histogram(MetricsRegistry.TICK);
+            draw = registry.histogram(MetricsRegistry.DRAW);
+            frame = registry.histogram(MetricsRegistry.FRAME);
+            inputToRender = registry.histogram(MetricsRegistry.INPUT_TO_RENDER);
+            pieces = registry.counter(MetricsRegistry.PIECES);
+            allocated = registry.counter(MetricsRegistry.ALLOCATED_BYTES);
+        }
+    }
+}
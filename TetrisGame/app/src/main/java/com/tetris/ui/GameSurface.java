@@ -0,0 +1,52 @@
+package com.tetris.ui;
+
+import android.view.View;
+
+import com.tetris.game.GameSnapshot;
+import com.tetris.game.TetrisGame;
+import com.tetris.metrics.LatencyHistogram;
+import com.tetris.metrics.MetricsRegistry;
+import com.tetris.replay.ReplayRecorder;
+
+import java.io.IOException;
+
+// 游戏画面的公共接口，由 Canvas 实现的 GameView 和 OpenGL ES 实现的 GLGameView 提供，
+// Activity 只通过它控制游戏，运行时可以在两种渲染方式之间切换
+public interface GameSurface {
+    void setGame(TetrisGame game);
+
+    // 由界面线程调用，指令会在渲染线程的下一帧开始时执行；队列满时丢弃并返回 false
+    boolean sendCommand(int command);
+
+    // 以下操作都在游戏循环的锁内修改游戏，不与渲染线程上的逻辑更新交错
+    void startGame();
+
+    void pauseGame();
+
+    void resumeGame();
+
+    // 以新种子重置游戏并用 recorder 从头录制，然后开局
+    void restartGame(ReplayRecorder recorder, long seed);
+
+    void saveSnapshot(GameSnapshot snapshot);
+
+    void restoreSnapshot(GameSnapshot snapshot) throws IOException;
+
+    void setGhostEnabled(boolean enabled);
+
+    // 设置后把帧、逻辑更新和输入延迟等指标记录到 metrics 中，传入 null 关闭记录
+    void setMetrics(MetricsRegistry metrics);
+
+    LatencyHistogram getInputLatency();
+
+    long getFrameTimeNanos();
+
+    long getTickTimeNanos();
+
+    // 随 Activity 的生命周期调用，GL 实现需要在这里释放和重建渲染线程
+    void onPause();
+
+    void onResume();
+
+    View getView();
+}
@@ -1,6 +1,7 @@
 package com.tetris.ui;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -8,21 +9,94 @@ import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
+import android.view.View;
 
 import com.tetris.game.GameGrid;
+import com.tetris.game.GameSnapshot;
+import com.tetris.game.RotationTable;
 import com.tetris.game.Tetromino;
 import com.tetris.game.TetrisGame;
-
-public class GameView extends SurfaceView implements SurfaceHolder.Callback {
-    private static final int BLOCK_SIZE = 30; // 方块大小（像素）
-    private static final int GRID_WIDTH = GameGrid.WIDTH * BLOCK_SIZE;
-    private static final int GRID_HEIGHT = GameGrid.HEIGHT * BLOCK_SIZE;
+import com.tetris.metrics.Counter;
+import com.tetris.metrics.LatencyHistogram;
+import com.tetris.metrics.MetricsRegistry;
+import com.tetris.replay.ReplayRecorder;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+public class GameView extends SurfaceView implements SurfaceHolder.Callback, GameSurface {
+    // 方块小于该尺寸时不再绘制网格线
+    private static final int MIN_GRID_LINE_BLOCK = 8;
+    // 没有任何变化时的空闲帧间隔，约等于 60Hz 的一帧
+    private static final long IDLE_FRAME_NANOS = 16_666_667L;
+    // 性能浮层的刷新间隔、行数和字号
+    private static final long HUD_INTERVAL_NANOS = 500_000_000L;
+    private static final int HUD_LINES = 5;
+    private static final int HUD_TEXT_SIZE_DP = 12;
 
     private TetrisGame game;
-    private Paint paint;
+    // 当前棋盘的行列数，以及按 Surface 实际像素尺寸算出的方块大小、棋盘尺寸和居中偏移
+    private int columns = GameGrid.DEFAULT_WIDTH;
+    private int rows = GameGrid.DEFAULT_HEIGHT;
+    private int surfaceWidth;
+    private int surfaceHeight;
+    private int blockSize;
+    private int boardWidth;
+    private int boardHeight;
+    private int offsetX;
+    private int offsetY;
+    // 按方块大小预先绘制的贴图，以及不随帧变化的画笔
+    private final BlockSprites sprites = new BlockSprites();
+    private Paint backgroundPaint;
     private Paint gridPaint;
-    private boolean isRunning;
+    private Paint pausedPaint;
+    private Paint gameOverPaint;
+    private Paint hudPaint;
+    private Paint hudBackgroundPaint;
+    private volatile boolean ghostEnabled = true;
+    private volatile boolean isRunning;
     private GameThread gameThread;
+    // 最近一帧的耗时（纳秒），供性能统计使用
+    private volatile long frameTimeNanos;
+    // 输入、重力和存档由与 GL 渲染共用的游戏循环处理
+    private final GameLoop loop = new GameLoop();
+
+    // 网格线和已固定方块的离屏缓存，只在方块固定或消行时按行重建
+    private Bitmap boardCache;
+    private Canvas boardCanvas;
+    private volatile boolean fullRedraw;
+    // 棋盘以外的边距需要清成背景色
+    private volatile boolean clearMargins;
+    // 本帧需要重绘的区域，以及上一帧当前方块的位置
+    private final Rect dirtyRect = new Rect();
+    private final Rect surfaceDirty = new Rect();
+    private final Rect pieceRect = new Rect();
+    private final Rect lastPieceRect = new Rect();
+    // 影子方块（落地预览）的位置
+    private final Rect ghostRect = new Rect();
+    private final Rect lastGhostRect = new Rect();
+    private int ghostY;
+    private Tetromino.Shape lastShape;
+    private int lastRotation;
+    private boolean lastPaused;
+    private boolean lastGameOver;
+
+    // 性能浮层：设置了性能指标时显示在棋盘左上角，每 HUD_INTERVAL_NANOS 重建一次文字，
+    // 文字写入复用的 StringBuilder，刷新时不分配内存
+    private final StringBuilder[] hudLines = new StringBuilder[HUD_LINES];
+    private final Rect hudRect = new Rect();
+    private float hudLineHeight;
+    private long lastHudNanos;
+    private long lastHudFrames;
+    private long lastHudPieces;
+    private long lastHudAllocated;
+    // 浮层读取的直方图和计数器，在 setMetrics 中解析一次，刷新时不再按名称查找
+    private LatencyHistogram hudFrame;
+    private LatencyHistogram hudTick;
+    private LatencyHistogram hudDraw;
+    private LatencyHistogram hudInput;
+    private Counter hudPieces;
+    private Counter hudAllocated;
 
     public GameView(Context context) {
         super(context);
@@ -41,19 +115,49 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
 
     private void init() {
         getHolder().addCallback(this);
-        paint = new Paint();
-        paint.setStyle(Paint.Style.FILL);
+        backgroundPaint = new Paint();
+        backgroundPaint.setStyle(Paint.Style.FILL);
+        backgroundPaint.setColor(Color.BLACK);
 
+        // 网格线用 1 像素宽的实心矩形画出，落在哪一列像素是确定的，与 GL 路径逐像素一致
         gridPaint = new Paint();
-        gridPaint.setStyle(Paint.Style.STROKE);
+        gridPaint.setStyle(Paint.Style.FILL);
         gridPaint.setColor(Color.GRAY);
-        gridPaint.setStrokeWidth(1);
+
+        pausedPaint = new Paint();
+        pausedPaint.setColor(Color.WHITE);
+        pausedPaint.setTextAlign(Paint.Align.CENTER);
+
+        gameOverPaint = new Paint();
+        gameOverPaint.setColor(Color.RED);
+        gameOverPaint.setTextAlign(Paint.Align.CENTER);
+
+        hudPaint = new Paint();
+        hudPaint.setColor(Color.WHITE);
+        hudPaint.setTextSize(HUD_TEXT_SIZE_DP * getResources().getDisplayMetrics().density);
+        hudLineHeight = HUD_TEXT_SIZE_DP * getResources().getDisplayMetrics().density * 1.25f;
+        hudBackgroundPaint = new Paint();
+        hudBackgroundPaint.setStyle(Paint.Style.FILL);
+        hudBackgroundPaint.setColor(Color.argb(160, 0, 0, 0));
+        for (int i = 0; i < HUD_LINES; i++) {
+            hudLines[i] = new StringBuilder(32);
+        }
 
         setFocusable(true);
     }
 
+    @Override
     public void setGame(TetrisGame game) {
         this.game = game;
+        synchronized (getHolder()) {
+            loop.setGame(game);
+        }
+        GameGrid grid = game.getGrid();
+        synchronized (getHolder()) {
+            columns = grid.getWidth();
+            rows = grid.getHeight();
+            layoutBoard();
+        }
     }
 
     @Override
@@ -65,8 +169,37 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
 
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
-        // 调整视图大小以适应游戏区域
-        getHolder().setFixedSize(GRID_WIDTH, GRID_HEIGHT);
+        // 直接按 Surface 的物理像素绘制，不再放大固定尺寸的画布，高分辨率屏幕上也保持清晰
+        synchronized (holder) {
+            surfaceWidth = width;
+            surfaceHeight = height;
+            layoutBoard();
+        }
+    }
+
+    // 取能完整放下棋盘的最大整数方块尺寸，并在尺寸变化时重建离屏缓存和贴图；调用方需持有 Surface 锁
+    private void layoutBoard() {
+        if (surfaceWidth <= 0 || surfaceHeight <= 0) {
+            return;
+        }
+        blockSize = Math.max(1, Math.min(surfaceWidth / columns, surfaceHeight / rows));
+        boardWidth = columns * blockSize;
+        boardHeight = rows * blockSize;
+        offsetX = (surfaceWidth - boardWidth) / 2;
+        offsetY = (surfaceHeight - boardHeight) / 2;
+
+        if (boardCache == null || boardCache.getWidth() != boardWidth || boardCache.getHeight() != boardHeight) {
+            if (boardCache != null) {
+                boardCache.recycle();
+            }
+            boardCache = Bitmap.createBitmap(boardWidth, boardHeight, Bitmap.Config.ARGB_8888);
+            boardCanvas = new Canvas(boardCache);
+        }
+        sprites.setCellSize(blockSize);
+        pausedPaint.setTextSize(blockSize);
+        gameOverPaint.setTextSize(blockSize);
+        fullRedraw = true;
+        clearMargins = true;
     }
 
     @Override
@@ -79,21 +212,226 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
         }
     }
 
-    private void draw(Canvas canvas) {
-        if (canvas == null || game == null) {
-            return;
+    // 计算本帧的脏区域并更新离屏缓存，没有需要重绘的内容时返回 false
+    private boolean prepareFrame(float interpolation) {
+        dirtyRect.setEmpty();
+        if (game == null || boardCanvas == null) {
+            return false;
+        }
+
+        GameGrid grid = game.getGrid();
+        if (fullRedraw) {
+            rebuildBoardRows(grid, 0, rows - 1);
+            dirtyRect.set(0, 0, boardWidth, boardHeight);
+        } else if (grid.hasDirtyRows()) {
+            int top = grid.getDirtyTop();
+            int bottom = grid.getDirtyBottom();
+            rebuildBoardRows(grid, top, bottom);
+            dirtyRect.union(0, top * blockSize, boardWidth, (bottom + 1) * blockSize);
+        }
+        grid.clearDirtyRows();
+
+        // 暂停或结束提示出现、消失时整屏重绘
+        boolean paused = game.isPaused();
+        boolean gameOver = game.isGameOver();
+        if (paused != lastPaused || gameOver != lastGameOver) {
+            dirtyRect.set(0, 0, boardWidth, boardHeight);
+            lastPaused = paused;
+            lastGameOver = gameOver;
         }
 
-        // 绘制背景
-        canvas.drawColor(Color.BLACK);
+        // 当前方块只需重绘旧位置和新位置
+        Tetromino tetromino = game.getCurrentTetromino();
+        if (tetromino == null) {
+            pieceRect.setEmpty();
+        } else {
+            computePieceRect(tetromino, interpolation, pieceRect);
+        }
+        boolean pieceChanged = tetromino == null
+                ? !lastPieceRect.isEmpty()
+                : tetromino.getShape() != lastShape || tetromino.getRotation() != lastRotation
+                        || pieceRect.left != lastPieceRect.left || pieceRect.top != lastPieceRect.top;
+        if (pieceChanged || fullRedraw) {
+            dirtyRect.union(lastPieceRect);
+            dirtyRect.union(pieceRect);
+            lastPieceRect.set(pieceRect);
+            lastShape = tetromino != null ? tetromino.getShape() : null;
+            lastRotation = tetromino != null ? tetromino.getRotation() : 0;
+        }
 
-        // 绘制网格线
-        drawGrid(canvas);
+        // 影子方块由列高缓存直接算出落点，每帧只需 O(方块宽度)
+        if (tetromino == null || !ghostEnabled || gameOver) {
+            ghostRect.setEmpty();
+        } else {
+            ghostY = tetromino.getY() + grid.dropDistance(tetromino);
+            computeCellsRect(tetromino, ghostY * blockSize, ghostRect);
+        }
+        if (pieceChanged || fullRedraw || !ghostRect.equals(lastGhostRect)) {
+            dirtyRect.union(lastGhostRect);
+            dirtyRect.union(ghostRect);
+            lastGhostRect.set(ghostRect);
+        }
 
-        // 绘制已固定的方块
-        drawGridBlocks(canvas);
+        // 性能浮层按固定间隔刷新
+        if (hudFrame != null) {
+            long now = System.nanoTime();
+            if (fullRedraw || now - lastHudNanos >= HUD_INTERVAL_NANOS) {
+                updateHud(now);
+                dirtyRect.union(hudRect);
+            }
+        }
+
+        fullRedraw = false;
+        return !dirtyRect.isEmpty();
+    }
+
+    private void updateHud(long now) {
+        long interval = lastHudNanos == 0 ? HUD_INTERVAL_NANOS : now - lastHudNanos;
+        lastHudNanos = now;
+        LatencyHistogram frame = hudFrame;
+        Counter pieces = hudPieces;
+        Counter allocated = hudAllocated;
+
+        StringBuilder line = hudLines[0];
+        line.setLength(0);
+        line.append("fps ");
+        appendRate(line, frame.getCount() - lastHudFrames, interval);
+        line.append("  frame p99 ");
+        appendMillis(line, frame.percentile(0.99));
+        lastHudFrames = frame.getCount();
+
+        appendPercentiles(hudLines[1], "tick", hudTick);
+        appendPercentiles(hudLines[2], "draw", hudDraw);
+        appendPercentiles(hudLines[3], "input", hudInput);
+
+        line = hudLines[4];
+        line.setLength(0);
+        line.append("pieces ");
+        appendRate(line, pieces.get() - lastHudPieces, interval);
+        line.append("/s  alloc ");
+        appendRate(line, (allocated.get() - lastHudAllocated) / 1024, interval);
+        line.append("KB/s");
+        lastHudPieces = pieces.get();
+        lastHudAllocated = allocated.get();
+
+        hudRect.set(0, 0, boardWidth, (int) Math.ceil(hudLineHeight * (HUD_LINES + 0.5f)));
+    }
+
+    // 格式为 "名称 p50 x p99 yms"
+    private static void appendPercentiles(StringBuilder line, String name, LatencyHistogram histogram) {
+        line.setLength(0);
+        line.append(name).append(" p50 ");
+        appendMillis(line, histogram.percentile(0.5));
+        line.append(" p99 ");
+        appendMillis(line, histogram.percentile(0.99));
+        line.append("ms");
+    }
 
-        // 绘制当前移动的方块
+    // 保留两位小数的毫秒数，只用整数运算，避免格式化时分配内存
+    private static void appendMillis(StringBuilder line, long nanos) {
+        long hundredths = nanos / 10_000;
+        line.append(hundredths / 100).append('.');
+        int fraction = (int) (hundredths % 100);
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    // 保留一位小数的每秒速率
+    private static void appendRate(StringBuilder line, long delta, long intervalNanos) {
+        long tenths = intervalNanos > 0 ? delta * 10 * 1_000_000L / (intervalNanos / 1000) : 0;
+        line.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    private void computePieceRect(Tetromino tetromino, float interpolation, Rect out) {
+        int x = tetromino.getX();
+        int y = tetromino.getY();
+        int fallOffset = 0;
+
+        // 在两次重力下落之间按进度插值，使方块平滑下落；落地后不再插值
+        if (!game.isPaused() && game.getGrid().isValidMove(tetromino, x, y + 1)) {
+            fallOffset = (int) (interpolation * blockSize);
+        }
+
+        computeCellsRect(tetromino, y * blockSize + fallOffset, out);
+    }
+
+    // 方块各单元格的外接矩形（像素），pixelY 为方块矩阵顶部所在的像素行
+    private void computeCellsRect(Tetromino tetromino, int pixelY, Rect out) {
+        Tetromino.Shape shape = tetromino.getShape();
+        int rotation = tetromino.getRotation();
+        int x = tetromino.getX();
+
+        out.set((x + RotationTable.minX(shape, rotation)) * blockSize,
+                pixelY + RotationTable.minY(shape, rotation) * blockSize,
+                (x + RotationTable.maxX(shape, rotation) + 1) * blockSize,
+                pixelY + (RotationTable.maxY(shape, rotation) + 1) * blockSize);
+    }
+
+    private void rebuildBoardRows(GameGrid grid, int top, int bottom) {
+        int pixelTop = top * blockSize;
+        int pixelBottom = (bottom + 1) * blockSize;
+
+        // 清空这些行并重画背景与网格线：每格左侧和上方各一列、一行像素，
+        // 棋盘最右一列和最下一行像素再画收口线，离屏缓存之外的像素不会被画到
+        boardCanvas.drawRect(0, pixelTop, boardWidth, pixelBottom, backgroundPaint);
+        if (blockSize >= MIN_GRID_LINE_BLOCK) {
+            for (int x = 0; x < boardWidth; x += blockSize) {
+                boardCanvas.drawRect(x, pixelTop, x + 1, pixelBottom, gridPaint);
+            }
+            boardCanvas.drawRect(boardWidth - 1, pixelTop, boardWidth, pixelBottom, gridPaint);
+            for (int y = pixelTop; y < pixelBottom; y += blockSize) {
+                boardCanvas.drawRect(0, y, boardWidth, y + 1, gridPaint);
+            }
+            if (pixelBottom == boardHeight) {
+                boardCanvas.drawRect(0, boardHeight - 1, boardWidth, boardHeight, gridPaint);
+            }
+        }
+
+        // 绘制这些行中已固定的方块
+        for (int y = top; y <= bottom; y++) {
+            if (grid.getRowMask(y) == 0) {
+                continue;
+            }
+            for (int x = 0; x < columns; x++) {
+                int cell = grid.getCell(x, y);
+                if (cell != 0) {
+                    sprites.drawCell(boardCanvas, cell, x * blockSize, y * blockSize);
+                }
+            }
+        }
+    }
+
+    // 按 width x height 的 Surface 尺寸把当前画面完整画到 canvas 上，不推进游戏也不插值，
+    // 用于与 GL 渲染结果逐像素比较
+    void drawFrame(Canvas canvas, int width, int height) {
+        synchronized (getHolder()) {
+            surfaceWidth = width;
+            surfaceHeight = height;
+            layoutBoard();
+            prepareFrame(0);
+            canvas.drawColor(Color.BLACK);
+            canvas.save();
+            canvas.translate(offsetX, offsetY);
+            dirtyRect.set(0, 0, boardWidth, boardHeight);
+            draw(canvas, dirtyRect);
+            canvas.restore();
+        }
+    }
+
+    private void draw(Canvas canvas, Rect clip) {
+        if (canvas == null || game == null) {
+            return;
+        }
+
+        // 从离屏缓存恢复背景、网格线和已固定的方块
+        if (clip.intersect(0, 0, boardWidth, boardHeight)) {
+            canvas.drawBitmap(boardCache, clip, clip, null);
+        }
+
+        // 绘制影子方块，再在其上绘制当前移动的方块
+        drawGhostTetromino(canvas);
         drawCurrentTetromino(canvas);
 
         // 如果游戏暂停，绘制暂停提示
@@ -105,119 +443,189 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
         if (game.isGameOver()) {
             drawGameOverText(canvas);
         }
-    }
 
-    private void drawGrid(Canvas canvas) {
-        // 绘制垂直线
-        for (int x = 0; x <= GRID_WIDTH; x += BLOCK_SIZE) {
-            canvas.drawLine(x, 0, x, GRID_HEIGHT, gridPaint);
-        }
-
-        // 绘制水平线
-        for (int y = 0; y <= GRID_HEIGHT; y += BLOCK_SIZE) {
-            canvas.drawLine(0, y, GRID_WIDTH, y, gridPaint);
+        if (hudFrame != null) {
+            drawHud(canvas);
         }
     }
 
-    private void drawGridBlocks(Canvas canvas) {
-        GameGrid grid = game.getGrid();
-        for (int y = 0; y < GameGrid.HEIGHT; y++) {
-            for (int x = 0; x < GameGrid.WIDTH; x++) {
-                int color = grid.getCellColor(x, y);
-                if (color != Color.BLACK) {
-                    drawBlock(canvas, x * BLOCK_SIZE, y * BLOCK_SIZE, color);
-                }
-            }
+    private void drawHud(Canvas canvas) {
+        canvas.drawRect(hudRect, hudBackgroundPaint);
+        float y = hudLineHeight;
+        for (int i = 0; i < HUD_LINES; i++) {
+            StringBuilder line = hudLines[i];
+            canvas.drawText(line, 0, line.length(), hudLineHeight / 4, y, hudPaint);
+            y += hudLineHeight;
         }
     }
 
     private void drawCurrentTetromino(Canvas canvas) {
         Tetromino tetromino = game.getCurrentTetromino();
-        if (tetromino == null) {
+        if (tetromino == null || pieceRect.isEmpty()) {
             return;
         }
 
-        int[][] matrix = tetromino.getMatrix();
-        int size = matrix.length;
-        int x = tetromino.getX() * BLOCK_SIZE;
-        int y = tetromino.getY() * BLOCK_SIZE;
-        int color = tetromino.getColor();
+        Tetromino.Shape shape = tetromino.getShape();
+        int rotation = tetromino.getRotation();
+        // pieceRect 已包含插值偏移，以外接框左上角为基准绘制各个单元格
+        int originX = pieceRect.left - RotationTable.minX(shape, rotation) * blockSize;
+        int originY = pieceRect.top - RotationTable.minY(shape, rotation) * blockSize;
 
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (matrix[i][j] != 0) {
-                    drawBlock(canvas, x + j * BLOCK_SIZE, y + i * BLOCK_SIZE, color);
-                }
-            }
+        for (int i = 0; i < RotationTable.CELLS; i++) {
+            sprites.drawBlock(canvas, shape,
+                    originX + RotationTable.cellX(shape, rotation, i) * blockSize,
+                    originY + RotationTable.cellY(shape, rotation, i) * blockSize);
         }
     }
 
-    private void drawBlock(Canvas canvas, int x, int y, int color) {
-        paint.setColor(color);
-        canvas.drawRect(x + 1, y + 1, x + BLOCK_SIZE - 1, y + BLOCK_SIZE - 1, paint);
+    private void drawGhostTetromino(Canvas canvas) {
+        Tetromino tetromino = game.getCurrentTetromino();
+        if (tetromino == null || ghostRect.isEmpty()) {
+            return;
+        }
+
+        Tetromino.Shape shape = tetromino.getShape();
+        int rotation = tetromino.getRotation();
+        int originX = tetromino.getX() * blockSize;
+        int originY = ghostY * blockSize;
 
-        // 绘制方块边框
-        paint.setColor(Color.WHITE);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(1);
-        canvas.drawRect(x + 1, y + 1, x + BLOCK_SIZE - 1, y + BLOCK_SIZE - 1, paint);
-        paint.setStyle(Paint.Style.FILL);
+        for (int i = 0; i < RotationTable.CELLS; i++) {
+            sprites.drawGhost(canvas, shape,
+                    originX + RotationTable.cellX(shape, rotation, i) * blockSize,
+                    originY + RotationTable.cellY(shape, rotation, i) * blockSize);
+        }
     }
 
     private void drawPausedText(Canvas canvas) {
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(30);
-        paint.setTextAlign(Paint.Align.CENTER);
-
         String text = "暂停";
-        float x = GRID_WIDTH / 2f;
-        float y = GRID_HEIGHT / 2f;
+        float x = boardWidth / 2f;
+        float y = boardHeight / 2f;
 
-        canvas.drawText(text, x, y, paint);
+        canvas.drawText(text, x, y, pausedPaint);
     }
 
     private void drawGameOverText(Canvas canvas) {
-        paint.setColor(Color.RED);
-        paint.setTextSize(30);
-        paint.setTextAlign(Paint.Align.CENTER);
-
         String text = "游戏结束";
-        float x = GRID_WIDTH / 2f;
-        float y = GRID_HEIGHT / 2f;
+        float x = boardWidth / 2f;
+        float y = boardHeight / 2f;
 
-        canvas.drawText(text, x, y, paint);
+        canvas.drawText(text, x, y, gameOverPaint);
     }
 
-    public void update() {
-        if (game != null && !game.isPaused() && !game.isGameOver()) {
-            game.update();
+    @Override
+    public boolean sendCommand(int command) {
+        return loop.sendCommand(command);
+    }
+
+    // 在游戏线程的锁内保存或恢复完整局面，避免与逻辑更新交错
+    @Override
+    public void saveSnapshot(GameSnapshot snapshot) {
+        synchronized (getHolder()) {
+            loop.capture(snapshot);
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(GameSnapshot snapshot) throws IOException {
+        synchronized (getHolder()) {
+            loop.restore(snapshot);
+            fullRedraw = true;
         }
     }
 
+    // 设置后记录帧、逻辑更新和输入延迟等指标并显示性能浮层，传入 null 关闭
+    @Override
+    public void setMetrics(MetricsRegistry metrics) {
+        synchronized (getHolder()) {
+            loop.setMetrics(metrics);
+            hudFrame = metrics != null ? metrics.histogram(MetricsRegistry.FRAME) : null;
+            hudTick = metrics != null ? metrics.histogram(MetricsRegistry.TICK) : null;
+            hudDraw = metrics != null ? metrics.histogram(MetricsRegistry.DRAW) : null;
+            hudInput = metrics != null ? metrics.histogram(MetricsRegistry.INPUT_TO_RENDER) : null;
+            hudPieces = metrics != null ? metrics.counter(MetricsRegistry.PIECES) : null;
+            hudAllocated = metrics != null ? metrics.counter(MetricsRegistry.ALLOCATED_BYTES) : null;
+            lastHudNanos = 0;
+            fullRedraw = true;
+        }
+    }
+
+    @Override
+    public LatencyHistogram getInputLatency() {
+        return loop.getInputLatency();
+    }
+
+    // Canvas 渲染线程随 Surface 创建和销毁，不需要额外处理 Activity 的生命周期
+    @Override
+    public void onPause() {
+    }
+
+    @Override
+    public void onResume() {
+    }
+
+    @Override
+    public View getView() {
+        return this;
+    }
+
+    @Override
     public void startGame() {
-        if (game != null) {
-            game.start();
+        synchronized (getHolder()) {
+            loop.startGame();
         }
     }
 
+    @Override
     public void pauseGame() {
-        if (game != null) {
-            game.pause();
+        synchronized (getHolder()) {
+            loop.pauseGame();
         }
     }
 
+    @Override
     public void resumeGame() {
-        if (game != null) {
-            game.resume();
+        synchronized (getHolder()) {
+            loop.resumeGame();
+        }
+    }
+
+    @Override
+    public void restartGame(ReplayRecorder recorder, long seed) {
+        synchronized (getHolder()) {
+            loop.restartGame(recorder, seed);
+            fullRedraw = true;
         }
     }
 
     public void resetGame() {
-        if (game != null) {
-            game.reset();
+        synchronized (getHolder()) {
+            if (game != null) {
+                game.reset();
+                fullRedraw = true;
+            }
         }
     }
 
+    @Override
+    public void setGhostEnabled(boolean enabled) {
+        ghostEnabled = enabled;
+        fullRedraw = true;
+    }
+
+    public boolean isGhostEnabled() {
+        return ghostEnabled;
+    }
+
+    @Override
+    public long getFrameTimeNanos() {
+        return frameTimeNanos;
+    }
+
+    @Override
+    public long getTickTimeNanos() {
+        return loop.getTickTimeNanos();
+    }
+
     private class GameThread extends Thread {
         private SurfaceHolder surfaceHolder;
 
@@ -227,26 +635,76 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
 
         @Override
         public void run() {
+            loop.start(System.nanoTime());
+
             while (isRunning) {
-                Canvas canvas = null;
-                try {
-                    canvas = surfaceHolder.lockCanvas();
-                    synchronized (surfaceHolder) {
-                        update();
-                        draw(canvas);
+                long frameStart = System.nanoTime();
+
+                boolean hasDirty;
+                boolean drawMargins;
+                long drawNanos;
+                synchronized (surfaceHolder) {
+                    hasDirty = prepareFrame(loop.advance(frameStart));
+                    drawNanos = System.nanoTime() - frameStart;
+
+                    // 脏区域换算到 Surface 坐标；布局变化后连同边距整屏重绘
+                    drawMargins = clearMargins && boardCanvas != null;
+                    if (drawMargins) {
+                        clearMargins = false;
+                        surfaceDirty.set(0, 0, surfaceWidth, surfaceHeight);
+                        hasDirty = true;
+                    } else {
+                        surfaceDirty.set(dirtyRect);
+                        surfaceDirty.offset(offsetX, offsetY);
+                    }
+                }
+
+                if (hasDirty) {
+                    Canvas canvas = null;
+                    try {
+                        // 只锁定脏区域；系统可能会扩大 surfaceDirty，绘制时以返回后的区域为准。
+                        // unlockCanvasAndPost 会按显示刷新节奏阻塞，因此绘制频率跟随 vsync
+                        canvas = surfaceHolder.lockCanvas(surfaceDirty);
+                        if (canvas == null) {
+                            // Surface 暂不可用，下次整屏重绘以免丢失本帧的变化
+                            fullRedraw = true;
+                            clearMargins = true;
+                        } else {
+                            long drawStart = System.nanoTime();
+                            synchronized (surfaceHolder) {
+                                // 新缓冲区无法沿用上一帧内容，lockCanvas 会把 surfaceDirty 扩大到边距里；
+                                // draw() 只填充棋盘区域，超出的部分要先清成黑色，否则露出缓冲区的旧内容
+                                if (drawMargins || surfaceDirty.left < offsetX || surfaceDirty.top < offsetY
+                                        || surfaceDirty.right > offsetX + boardWidth
+                                        || surfaceDirty.bottom > offsetY + boardHeight) {
+                                    canvas.drawColor(Color.BLACK);
+                                }
+                                canvas.save();
+                                canvas.translate(offsetX, offsetY);
+                                dirtyRect.set(surfaceDirty);
+                                dirtyRect.offset(-offsetX, -offsetY);
+                                draw(canvas, dirtyRect);
+                                canvas.restore();
+                            }
+                            drawNanos += System.nanoTime() - drawStart;
+                        }
+                    } finally {
+                        if (canvas != null) {
+                            surfaceHolder.unlockCanvasAndPost(canvas);
+                        }
                     }
-                } finally {
                     if (canvas != null) {
-                        surfaceHolder.unlockCanvasAndPost(canvas);
+                        loop.frameRendered(System.nanoTime(), drawNanos);
+                    }
+                } else {
+                    // 画面没有变化，等待到下一帧再检查
+                    long remaining = IDLE_FRAME_NANOS - (System.nanoTime() - frameStart);
+                    if (remaining > 0) {
+                        LockSupport.parkNanos(remaining);
                     }
                 }
 
-                // 控制游戏速度
-                try {
-                    Thread.sleep(game != null ? game.getDropSpeed() : 1000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+                frameTimeNanos = System.nanoTime() - frameStart;
             }
         }
     }
@@ -7,13 +7,19 @@ import android.graphics.Paint;
 import android.util.AttributeSet;
 import android.view.View;
 
+import com.tetris.game.RotationTable;
 import com.tetris.game.Tetromino;
 
 public class NextBlockView extends View {
-    private static final int BLOCK_SIZE = 20; // 预览方块大小（像素）
-    private Tetromino nextTetromino;
-    private Paint paint;
+    private static final int BLOCK_SIZE_DP = 20; // 预览方块的期望大小（dp）
+    // 预览区域至少要能放下 4x4 的方块矩阵
+    private static final int PREVIEW_CELLS = 4;
+    // 只保存形状，不持有游戏中可变的方块对象，按初始旋转状态从 RotationTable 取矩阵
+    private Tetromino.Shape nextShape;
     private Paint gridPaint;
+    // 按实际像素尺寸预先绘制的方块贴图
+    private final BlockSprites sprites = new BlockSprites();
+    private int blockSize;
 
     public NextBlockView(Context context) {
         super(context);
@@ -31,20 +37,26 @@ public class NextBlockView extends View {
     }
 
     private void init() {
-        paint = new Paint();
-        paint.setStyle(Paint.Style.FILL);
-
         gridPaint = new Paint();
         gridPaint.setStyle(Paint.Style.STROKE);
         gridPaint.setColor(Color.GRAY);
         gridPaint.setStrokeWidth(1);
     }
 
-    public void setNextTetromino(Tetromino tetromino) {
-        this.nextTetromino = tetromino;
+    public void setNextShape(Tetromino.Shape shape) {
+        this.nextShape = shape;
         invalidate();
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // 按屏幕密度换算成像素，视图太小时缩小到能放下整个方块
+        int preferred = Math.round(BLOCK_SIZE_DP * getResources().getDisplayMetrics().density);
+        blockSize = Math.max(1, Math.min(preferred, Math.min(w, h) / PREVIEW_CELLS));
+        sprites.setCellSize(blockSize);
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
@@ -55,40 +67,26 @@ public class NextBlockView extends View {
         // 绘制边框
         canvas.drawRect(0, 0, getWidth() - 1, getHeight() - 1, gridPaint);
 
-        if (nextTetromino == null) {
+        if (nextShape == null || blockSize == 0) {
             return;
         }
 
         // 计算方块在预览区域的居中位置
-        int[][] matrix = nextTetromino.getMatrix();
+        int[][] matrix = RotationTable.matrix(nextShape, 0);
         int size = matrix.length;
-        int blockWidth = size * BLOCK_SIZE;
-        int blockHeight = size * BLOCK_SIZE;
+        int blockWidth = size * blockSize;
+        int blockHeight = size * blockSize;
 
         int offsetX = (getWidth() - blockWidth) / 2;
         int offsetY = (getHeight() - blockHeight) / 2;
 
-        // 绘制方块
+        // 绘制方块，每个单元格一次 drawBitmap
         for (int i = 0; i < size; i++) {
             for (int j = 0; j < size; j++) {
                 if (matrix[i][j] != 0) {
-                    int x = offsetX + j * BLOCK_SIZE;
-                    int y = offsetY + i * BLOCK_SIZE;
-                    drawBlock(canvas, x, y, nextTetromino.getColor());
+                    sprites.drawBlock(canvas, nextShape, offsetX + j * blockSize, offsetY + i * blockSize);
                 }
             }
         }
     }
-
-    private void drawBlock(Canvas canvas, int x, int y, int color) {
-        paint.setColor(color);
-        canvas.drawRect(x + 1, y + 1, x + BLOCK_SIZE - 1, y + BLOCK_SIZE - 1, paint);
-
-        // 绘制方块边框
-        paint.setColor(Color.WHITE);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(1);
-        canvas.drawRect(x + 1, y + 1, x + BLOCK_SIZE - 1, y + BLOCK_SIZE - 1, paint);
-        paint.setStyle(Paint.Style.FILL);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package com.tetris.ai;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.RotationTable;
+import com.tetris.game.TetrisGame;
+import com.tetris.game.Tetromino;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 自动玩家：对当前方块和下一个方块的所有 (旋转, 列) 组合做两层搜索，选出评估分最高的放置
+public class AutoPlayer {
+    // 根放置数量不超过该值时不再拆分任务
+    private static final int SEQUENTIAL_THRESHOLD = 4;
+    private static final int MAX_ROOTS = RotationTable.STATES * GameGrid.MAX_WIDTH;
+    // 下一个方块无处可放时的惩罚分
+    private static final double DEAD_END_SCORE = -1e9;
+
+    private static final ThreadLocal<SearchBoard> WORKER_BOARD = new ThreadLocal<SearchBoard>() {
+        @Override
+        protected SearchBoard initialValue() {
+            return new SearchBoard();
+        }
+    };
+
+    private final PlacementHeuristic heuristic;
+    private final ForkJoinPool pool;
+    private final AtomicLong evaluatedPlacements = new AtomicLong();
+
+    // 根放置候选，findBest() 每次调用时原地重填
+    private final SearchBoard rootBoard = new SearchBoard();
+    private final int[] rootRotation = new int[MAX_ROOTS];
+    private final int[] rootX = new int[MAX_ROOTS];
+    private final int[] rootY = new int[MAX_ROOTS];
+    private final double[] rootScore = new double[MAX_ROOTS];
+    private int rootCount;
+    private Tetromino.Shape currentShape;
+    private Tetromino.Shape nextShape;
+    private int nextSpawnY;
+    private boolean wallKicks;
+
+    // 单线程搜索，适合已经按对局并行的批量模拟
+    public AutoPlayer(PlacementHeuristic heuristic) {
+        this(heuristic, null);
+    }
+
+    // pool 不为空时，根放置在 fork-join 池中并行评估
+    public AutoPlayer(PlacementHeuristic heuristic, ForkJoinPool pool) {
+        this.heuristic = heuristic;
+        this.pool = pool;
+    }
+
+    public Placement findBest(TetrisGame game) {
+        Tetromino current = game.getCurrentTetromino();
+        Tetromino next = game.getNextTetromino();
+        if (current == null || game.isGameOver()) {
+            return null;
+        }
+
+        rootBoard.load(game.getGrid());
+        currentShape = current.getShape();
+        wallKicks = game.isWallKicksEnabled();
+        nextShape = next != null ? next.getShape() : null;
+        if (next != null) {
+            nextSpawnY = next.getY();
+        }
+        collectRoots(current.getRotation(), current.getX(), current.getY());
+        if (rootCount == 0) {
+            return null;
+        }
+
+        if (pool != null && rootCount > SEQUENTIAL_THRESHOLD) {
+            pool.invoke(new RootSearch(0, rootCount));
+        } else {
+            searchRoots(0, rootCount);
+        }
+
+        int best = 0;
+        for (int i = 1; i < rootCount; i++) {
+            if (rootScore[i] > rootScore[best]) {
+                best = i;
+            }
+        }
+        return new Placement(rootRotation[best], rootX[best], rootY[best], rootScore[best]);
+    }
+
+    // 按 findBest() 的结果操作游戏：旋转、平移，然后直接落下
+    public boolean play(TetrisGame game) {
+        Placement placement = findBest(game);
+        if (placement == null) {
+            game.dropDown();
+            return false;
+        }
+
+        Tetromino piece = game.getCurrentTetromino();
+        int width = game.getGrid().getWidth();
+        for (int i = 0; i < RotationTable.STATES && piece.getRotation() != placement.rotation; i++) {
+            game.rotate();
+        }
+        for (int i = 0; i < width && piece.getX() > placement.x; i++) {
+            game.moveLeft();
+        }
+        for (int i = 0; i < width && piece.getX() < placement.x; i++) {
+            game.moveRight();
+        }
+        game.dropDown();
+        return true;
+    }
+
+    // 只收录通过连续旋转（与游戏相同的踢墙规则）、再水平平移就能到达的放置，
+    // 与 play() 的操作顺序一致
+    private void collectRoots(int rotation, int x, int y) {
+        rootCount = 0;
+        for (int step = 0; step < RotationTable.STATES; step++) {
+            if (step > 0) {
+                int test = findKick(rotation, x, y);
+                if (test < 0) {
+                    break;
+                }
+                x += RotationTable.kickX(currentShape, rotation, test);
+                y += RotationTable.kickY(currentShape, rotation, test);
+                rotation = RotationTable.next(rotation);
+            }
+            addRoot(rotation, x, y);
+            for (int left = x - 1; rootBoard.fits(currentShape, rotation, left, y); left--) {
+                addRoot(rotation, left, y);
+            }
+            for (int right = x + 1; rootBoard.fits(currentShape, rotation, right, y); right++) {
+                addRoot(rotation, right, y);
+            }
+        }
+    }
+
+    // 与 GameGrid.findKick 相同的尝试顺序；关闭踢墙时只尝试原地旋转
+    private int findKick(int rotation, int x, int y) {
+        int next = RotationTable.next(rotation);
+        int kicks = wallKicks ? RotationTable.kickCount(currentShape, rotation) : 1;
+        for (int test = 0; test < kicks; test++) {
+            if (rootBoard.fits(currentShape, next, x + RotationTable.kickX(currentShape, rotation, test),
+                    y + RotationTable.kickY(currentShape, rotation, test))) {
+                return test;
+            }
+        }
+        return -1;
+    }
+
+    private void addRoot(int rotation, int x, int y) {
+        int landing = rootBoard.dropRow(currentShape, rotation, x, y);
+        if (landing < 0) {
+            return;
+        }
+        rootRotation[rootCount] = rotation;
+        rootX[rootCount] = x;
+        rootY[rootCount] = landing;
+        rootCount++;
+    }
+
+    private void searchRoots(int from, int to) {
+        SearchBoard board = WORKER_BOARD.get();
+        board.copyFrom(rootBoard);
+        int width = board.getWidth();
+        long evaluated = 0;
+
+        for (int i = from; i < to; i++) {
+            int lines = board.place(currentShape, rootRotation[i], rootX[i], rootY[i]);
+            if (nextShape == null) {
+                rootScore[i] = heuristic.evaluate(board, lines);
+                evaluated++;
+            } else {
+                double best = DEAD_END_SCORE;
+                for (int rotation = 0; rotation < RotationTable.STATES; rotation++) {
+                    for (int x = -RotationTable.minX(nextShape, rotation);
+                            x + RotationTable.maxX(nextShape, rotation) < width; x++) {
+                        int landing = board.dropRow(nextShape, rotation, x, nextSpawnY);
+                        if (landing < 0) {
+                            continue;
+                        }
+                        int nextLines = board.place(nextShape, rotation, x, landing);
+                        double score = heuristic.evaluate(board, lines + nextLines);
+                        board.undo();
+                        evaluated++;
+                        if (score > best) {
+                            best = score;
+                        }
+                    }
+                }
+                rootScore[i] = best;
+            }
+            board.undo();
+        }
+
+        evaluatedPlacements.addAndGet(evaluated);
+    }
+
+    public long getEvaluatedPlacements() {
+        return evaluatedPlacements.get();
+    }
+
+    private class RootSearch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        RootSearch(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                searchRoots(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RootSearch(from, mid), new RootSearch(mid, to));
+        }
+    }
+
+    public static class Placement {
+        public final int rotation;
+        public final int x;
+        public final int y;
+        public final double score;
+
+        Placement(int rotation, int x, int y, double score) {
+            this.rotation = rotation;
+            this.x = x;
+            this.y = y;
+            this.score = score;
+        }
+    }
+}
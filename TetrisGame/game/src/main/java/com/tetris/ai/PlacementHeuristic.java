@@ -0,0 +1,6 @@
+package com.tetris.ai;
+
+// 对放置后的棋盘打分，分数越高越好；实现必须是无状态或线程安全的，搜索会在多个线程上并发调用
+public interface PlacementHeuristic {
+    double evaluate(SearchBoard board, int linesCleared);
+}
@@ -0,0 +1,219 @@
+package com.tetris.ai;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.RotationTable;
+import com.tetris.game.Tetromino;
+
+// 搜索专用的可撤销棋盘：只保存每行占用掩码，放置与消行都可以原地撤销，搜索过程中不分配内存
+public final class SearchBoard {
+    public static final int MAX_DEPTH = 4;
+    private static final int MAX_CLEARED = 4;
+
+    // 尺寸随 load() 的棋盘而定，数组按最大尺寸分配一次
+    private int width = GameGrid.DEFAULT_WIDTH;
+    private int height = GameGrid.DEFAULT_HEIGHT;
+    private long fullRow = (1L << GameGrid.DEFAULT_WIDTH) - 1;
+    private final long[] rows = new long[GameGrid.MAX_HEIGHT];
+
+    // 撤销记录，按深度保存放置的方块和被消除的行号（升序）
+    private final Tetromino.Shape[] undoShape = new Tetromino.Shape[MAX_DEPTH];
+    private final int[] undoRotation = new int[MAX_DEPTH];
+    private final int[] undoX = new int[MAX_DEPTH];
+    private final int[] undoY = new int[MAX_DEPTH];
+    private final int[] undoClearedCount = new int[MAX_DEPTH];
+    private final int[][] undoCleared = new int[MAX_DEPTH][MAX_CLEARED];
+    private int depth;
+
+    // analyze() 的结果
+    private final int[] columnHeights = new int[GameGrid.MAX_WIDTH];
+    private int aggregateHeight;
+    private int maxHeight;
+    private int holes;
+    private int bumpiness;
+
+    public void load(GameGrid grid) {
+        width = grid.getWidth();
+        height = grid.getHeight();
+        fullRow = grid.getFullRowMask();
+        for (int y = 0; y < height; y++) {
+            rows[y] = grid.getRowMask(y);
+        }
+        depth = 0;
+    }
+
+    public void copyFrom(SearchBoard other) {
+        width = other.width;
+        height = other.height;
+        fullRow = other.fullRow;
+        System.arraycopy(other.rows, 0, rows, 0, height);
+        depth = 0;
+    }
+
+    public boolean fits(Tetromino.Shape shape, int rotation, int x, int y) {
+        if (x + RotationTable.minX(shape, rotation) < 0
+                || x + RotationTable.maxX(shape, rotation) >= width) {
+            return false;
+        }
+        int minY = RotationTable.minY(shape, rotation);
+        int maxY = RotationTable.maxY(shape, rotation);
+        if (y + minY < 0 || y + maxY >= height) {
+            return false;
+        }
+        for (int i = minY; i <= maxY; i++) {
+            if ((rows[y + i] & shift(RotationTable.rowMask(shape, rotation, i), x)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 从 y 开始竖直下落，返回落地时的行坐标；起始位置就放不下时返回 -1
+    public int dropRow(Tetromino.Shape shape, int rotation, int x, int y) {
+        if (!fits(shape, rotation, x, y)) {
+            return -1;
+        }
+        while (fits(shape, rotation, x, y + 1)) {
+            y++;
+        }
+        return y;
+    }
+
+    // 放置方块并消除满行，返回消除的行数；调用方必须保证位置合法
+    public int place(Tetromino.Shape shape, int rotation, int x, int y) {
+        int minY = RotationTable.minY(shape, rotation);
+        int maxY = RotationTable.maxY(shape, rotation);
+        for (int i = minY; i <= maxY; i++) {
+            rows[y + i] |= shift(RotationTable.rowMask(shape, rotation, i), x);
+        }
+
+        int d = depth++;
+        undoShape[d] = shape;
+        undoRotation[d] = rotation;
+        undoX[d] = x;
+        undoY[d] = y;
+
+        // 满行只可能出现在方块覆盖的行内
+        int[] cleared = undoCleared[d];
+        int count = 0;
+        for (int i = minY; i <= maxY; i++) {
+            if (rows[y + i] == fullRow) {
+                cleared[count++] = y + i;
+            }
+        }
+        undoClearedCount[d] = count;
+
+        if (count > 0) {
+            int write = y + maxY;
+            for (int read = y + maxY; read >= 0; read--) {
+                if (rows[read] != fullRow) {
+                    rows[write--] = rows[read];
+                }
+            }
+            for (; write >= 0; write--) {
+                rows[write] = 0;
+            }
+        }
+        return count;
+    }
+
+    public void undo() {
+        int d = --depth;
+        int count = undoClearedCount[d];
+
+        if (count > 0) {
+            // 自上而下把被消除的满行插回原位置：原第 o 行来自当前第 o + (o 下方被消除行数) 行
+            int[] cleared = undoCleared[d];
+            int below = count;
+            int next = 0;
+            for (int o = 0; o < height; o++) {
+                if (next < count && cleared[next] == o) {
+                    rows[o] = fullRow;
+                    next++;
+                    below--;
+                } else {
+                    rows[o] = rows[o + below];
+                }
+                if (below == 0) {
+                    break; // 其余行没有移动
+                }
+            }
+        }
+
+        Tetromino.Shape shape = undoShape[d];
+        int rotation = undoRotation[d];
+        int x = undoX[d];
+        int y = undoY[d];
+        int minY = RotationTable.minY(shape, rotation);
+        int maxY = RotationTable.maxY(shape, rotation);
+        for (int i = minY; i <= maxY; i++) {
+            rows[y + i] &= ~shift(RotationTable.rowMask(shape, rotation, i), x);
+        }
+    }
+
+    // 一次自上而下的扫描统计列高、空洞和凹凸度
+    public void analyze() {
+        long covered = 0;
+        holes = 0;
+        for (int y = 0; y < height; y++) {
+            long row = rows[y];
+            long newColumns = row & ~covered;
+            while (newColumns != 0) {
+                int x = Long.numberOfTrailingZeros(newColumns);
+                columnHeights[x] = height - y;
+                newColumns &= newColumns - 1;
+            }
+            holes += Long.bitCount(covered & ~row);
+            covered |= row;
+        }
+
+        aggregateHeight = 0;
+        maxHeight = 0;
+        bumpiness = 0;
+        for (int x = 0; x < width; x++) {
+            if ((covered & (1L << x)) == 0) {
+                columnHeights[x] = 0;
+            }
+            aggregateHeight += columnHeights[x];
+            maxHeight = Math.max(maxHeight, columnHeights[x]);
+            if (x > 0) {
+                bumpiness += Math.abs(columnHeights[x] - columnHeights[x - 1]);
+            }
+        }
+    }
+
+    private static long shift(long mask, int x) {
+        return x >= 0 ? mask << x : mask >>> -x;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getRowMask(int y) {
+        return rows[y];
+    }
+
+    public int getColumnHeight(int x) {
+        return columnHeights[x];
+    }
+
+    public int getAggregateHeight() {
+        return aggregateHeight;
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    public int getHoles() {
+        return holes;
+    }
+
+    public int getBumpiness() {
+        return bumpiness;
+    }
+}
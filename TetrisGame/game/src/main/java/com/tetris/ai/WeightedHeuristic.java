@@ -0,0 +1,27 @@
+package com.tetris.ai;
+
+// 按总高度、空洞、凹凸度和消行数线性加权的经典评估函数
+public class WeightedHeuristic implements PlacementHeuristic {
+    public static final WeightedHeuristic DEFAULT = new WeightedHeuristic(-0.51, -0.36, -0.18, 0.76);
+
+    private final double heightWeight;
+    private final double holesWeight;
+    private final double bumpinessWeight;
+    private final double linesWeight;
+
+    public WeightedHeuristic(double heightWeight, double holesWeight, double bumpinessWeight, double linesWeight) {
+        this.heightWeight = heightWeight;
+        this.holesWeight = holesWeight;
+        this.bumpinessWeight = bumpinessWeight;
+        this.linesWeight = linesWeight;
+    }
+
+    @Override
+    public double evaluate(SearchBoard board, int linesCleared) {
+        board.analyze();
+        return heightWeight * board.getAggregateHeight()
+                + holesWeight * board.getHoles()
+                + bumpinessWeight * board.getBumpiness()
+                + linesWeight * linesCleared;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tetris.game;
+
+import java.nio.ByteBuffer;
+
+// 7-bag 随机：每七个方块为一袋，袋内七种形状各出现一次，顺序随机
+public class BagGenerator implements PieceGenerator {
+    private static final Tetromino.Shape[] SHAPES = Tetromino.Shape.values();
+
+    private final Tetromino.Shape[] bag = Tetromino.Shape.values();
+    private final SplitMix64 random;
+    private long seed;
+    private int index;
+
+    public BagGenerator(long seed) {
+        random = new SplitMix64(seed);
+        setSeed(seed);
+    }
+
+    @Override
+    public Tetromino.Shape next() {
+        if (index == bag.length) {
+            shuffle();
+        }
+        return bag[index++];
+    }
+
+    private void shuffle() {
+        // 原地 Fisher-Yates 洗牌
+        for (int i = bag.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Tetromino.Shape tmp = bag[i];
+            bag[i] = bag[j];
+            bag[j] = tmp;
+        }
+        index = 0;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+        random.setState(seed);
+        Tetromino.Shape[] ordered = Tetromino.Shape.values();
+        System.arraycopy(ordered, 0, bag, 0, bag.length);
+        index = bag.length;
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public PieceGenerator copy() {
+        BagGenerator copy = new BagGenerator(seed);
+        copy.random.setState(random.getState());
+        System.arraycopy(bag, 0, copy.bag, 0, bag.length);
+        copy.index = index;
+        return copy;
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putLong(seed);
+        out.putLong(random.getState());
+        out.put((byte) index);
+        for (Tetromino.Shape shape : bag) {
+            out.put((byte) shape.ordinal());
+        }
+    }
+
+    @Override
+    public int stateSize() {
+        return 16 + 1 + bag.length;
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        seed = in.getLong();
+        random.setState(in.getLong());
+        int restoredIndex = in.get();
+        if (restoredIndex < 0 || restoredIndex > bag.length) {
+            throw new IllegalArgumentException("Bad bag index: " + restoredIndex);
+        }
+        index = restoredIndex;
+        for (int i = 0; i < bag.length; i++) {
+            bag[i] = SHAPES[in.get()];
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.tetris.game;
+
+// 玩家输入指令，供回放录制和输入队列使用
+public final class GameCommand {
+    public static final int MOVE_LEFT = 0;
+    public static final int MOVE_RIGHT = 1;
+    public static final int ROTATE = 2;
+    public static final int DROP = 3;
+    // 锁定延迟到期，由 TimingEngine 发出并录入回放
+    public static final int LOCK = 4;
+
+    // 按住状态的变化：HOLD | 当前按住的键位。只在输入队列中传递给 TimingEngine，
+    // 由它转换成自动重复的移动和软降重力，不直接作用于游戏，也不录入回放
+    public static final int HOLD = 1 << 8;
+    public static final int HOLD_LEFT = 1;
+    public static final int HOLD_RIGHT = 1 << 1;
+    public static final int HOLD_SOFT_DROP = 1 << 2;
+    public static final int HOLD_MASK = HOLD_LEFT | HOLD_RIGHT | HOLD_SOFT_DROP;
+
+    private GameCommand() {
+    }
+}
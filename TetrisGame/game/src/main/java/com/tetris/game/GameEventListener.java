@@ -0,0 +1,12 @@
+package com.tetris.game;
+
+// 游戏状态变化回调，均在调用 TetrisGame 方法的线程上同步触发，每次变化只触发一次
+public interface GameEventListener {
+    void onScoreChanged(int score, int level, int linesCleared);
+
+    void onPieceSpawned(Tetromino current, Tetromino next);
+
+    void onLinesCleared(int lines);
+
+    void onGameOver(int score, int level, int linesCleared);
+}
@@ -0,0 +1,463 @@
+package com.tetris.game;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class GameGrid {
+    // 标准棋盘尺寸
+    public static final int DEFAULT_WIDTH = 10;
+    public static final int DEFAULT_HEIGHT = 20;
+    // 每行占用掩码是一个 long，因此最多 64 列；解谜模式的大棋盘最多 200 行
+    public static final int MAX_WIDTH = 64;
+    public static final int MAX_HEIGHT = 200;
+    // 对战模式中对手送来的垃圾行单元格取值，紧接在 7 种方块之后
+    public static final int GARBAGE_CELL = Tetromino.Shape.values().length + 1;
+
+    private final int width;
+    private final int height;
+    // 满行掩码：width 个低位全为 1
+    private final long fullRow;
+
+    // 每行一个占用掩码，第 x 位表示第 x 列是否有方块
+    private final long[] rowMasks;
+    // 按行连续存放的颜色平面，cells[y * width + x] 保存方块类型（0 表示空）
+    private final byte[] cells;
+    // 供旧调用方使用的二维数组视图，按需从位图刷新
+    private int[][] gridView;
+    // 每列的堆叠高度（最高方块到底部的格数，空列为 0），随放置和消行增量维护
+    private final int[] columnHeights;
+    // 最高的非空行，height 表示棋盘为空；该行以上全部为空，消行和重建只需处理它以下的行
+    private int stackTop;
+    // 自上次 clearDirtyRows() 以来发生变化的行范围（闭区间），dirtyTop > dirtyBottom 表示没有变化
+    private int dirtyTop;
+    private int dirtyBottom;
+
+    public GameGrid() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    public GameGrid(int width, int height) {
+        // 方块生成在顶部两行，宽度至少要能容纳横放的 I 方块
+        if (width < 4 || width > MAX_WIDTH || height < 4 || height > MAX_HEIGHT) {
+            throw new IllegalArgumentException("Unsupported board size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.fullRow = width == 64 ? -1L : (1L << width) - 1;
+        rowMasks = new long[height];
+        cells = new byte[width * height];
+        columnHeights = new int[width];
+        stackTop = height;
+        clearDirtyRows();
+        clear();
+    }
+
+    public void clear() {
+        // 堆叠以上的行本来就是空的
+        for (int i = stackTop; i < height; i++) {
+            rowMasks[i] = 0; // 0 表示空行
+        }
+        Arrays.fill(cells, stackTop * width, cells.length, (byte) 0);
+        for (int j = 0; j < width; j++) {
+            columnHeights[j] = 0;
+        }
+        stackTop = height;
+        markDirty(0, height - 1);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getFullRowMask() {
+        return fullRow;
+    }
+
+    // 新方块生成时的列坐标，标准棋盘上为第 4 列
+    public int getSpawnX() {
+        return width / 2 - 1;
+    }
+
+    public boolean isEmpty(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return false; // 边界外视为非空
+        }
+        return (rowMasks[y] & (1L << x)) == 0;
+    }
+
+    public boolean isValidMove(Tetromino tetromino, int newX, int newY) {
+        return isValidMove(tetromino.getShape(), tetromino.getRotation(), newX, newY);
+    }
+
+    public boolean isValidMove(Tetromino.Shape shape, int rotation, int newX, int newY) {
+        // 先用外接框判断是否越界，再逐行与占用掩码求交
+        if (newX + RotationTable.minX(shape, rotation) < 0
+                || newX + RotationTable.maxX(shape, rotation) >= width) {
+            return false;
+        }
+        int minY = RotationTable.minY(shape, rotation);
+        int maxY = RotationTable.maxY(shape, rotation);
+        if (newY + minY < 0 || newY + maxY >= height) {
+            return false;
+        }
+        // 整个方块都在堆叠以上时不可能相交
+        if (newY + maxY < stackTop) {
+            return true;
+        }
+
+        for (int i = minY; i <= maxY; i++) {
+            long mask = RotationTable.rowMask(shape, rotation, i);
+            long shifted = newX >= 0 ? mask << newX : mask >>> -newX;
+            if ((rowMasks[newY + i] & shifted) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // 从 rotation 顺时针旋转到下一状态时依次尝试 SRS 踢墙偏移，
+    // 返回第一个不冲突的尝试序号（见 RotationTable.kickX/kickY），全部冲突时返回 -1。
+    // 每次尝试都只调用 isValidMove 做掩码求交，不分配内存
+    public int findKick(Tetromino.Shape shape, int rotation, int x, int y) {
+        int next = RotationTable.next(rotation);
+        int kicks = RotationTable.kickCount(shape, rotation);
+        for (int test = 0; test < kicks; test++) {
+            if (isValidMove(shape, next, x + RotationTable.kickX(shape, rotation, test),
+                    y + RotationTable.kickY(shape, rotation, test))) {
+                return test;
+            }
+        }
+        return -1;
+    }
+
+    public void placeTetromino(Tetromino tetromino) {
+        Tetromino.Shape shape = tetromino.getShape();
+        int rotation = tetromino.getRotation();
+        int x = tetromino.getX();
+        int y = tetromino.getY();
+        int value = shape.ordinal() + 1;
+
+        for (int i = 0; i < RotationTable.CELLS; i++) {
+            int gridX = x + RotationTable.cellX(shape, rotation, i);
+            int gridY = y + RotationTable.cellY(shape, rotation, i);
+
+            if (gridX >= 0 && gridX < width && gridY >= 0 && gridY < height) {
+                setCell(gridX, gridY, value);
+            }
+        }
+    }
+
+    public void setCell(int x, int y, int value) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return;
+        }
+        cells[y * width + x] = (byte) value;
+        if (value != 0) {
+            rowMasks[y] |= 1L << x;
+            columnHeights[x] = Math.max(columnHeights[x], height - y);
+            stackTop = Math.min(stackTop, y);
+        } else {
+            rowMasks[y] &= ~(1L << x);
+            if (columnHeights[x] == height - y) {
+                // 移除的是该列最高的方块，向下找到新的顶部
+                int top = y + 1;
+                while (top < height && (rowMasks[top] & (1L << x)) == 0) {
+                    top++;
+                }
+                columnHeights[x] = height - top;
+            }
+            while (stackTop < height && rowMasks[stackTop] == 0) {
+                stackTop++;
+            }
+        }
+        markDirty(y, y);
+    }
+
+    public int clearCompletedLines() {
+        // 一次遍历压缩：从底部开始，把未满的行依次写到 write 指向的位置。
+        // 只遍历到堆叠顶部，行数据按行整体搬移，开销与有方块的行数成正比
+        int write = height - 1;
+        int lowestCleared = -1;
+        for (int read = height - 1; read >= stackTop; read--) {
+            if (rowMasks[read] == fullRow) {
+                if (lowestCleared < 0) {
+                    lowestCleared = read;
+                }
+                continue;
+            }
+            if (write != read) {
+                rowMasks[write] = rowMasks[read];
+                System.arraycopy(cells, read * width, cells, write * width, width);
+            }
+            write--;
+        }
+
+        int linesCleared = write + 1 - stackTop;
+        if (linesCleared == 0) {
+            return 0;
+        }
+
+        // 原堆叠顶部腾出的行清空
+        for (int y = stackTop; y <= write; y++) {
+            rowMasks[y] = 0;
+        }
+        Arrays.fill(cells, stackTop * width, (write + 1) * width, (byte) 0);
+        // 最低的被消除行及其上方直到原堆叠顶部的行都发生了移动
+        markDirty(stackTop, lowestCleared);
+        stackTop = write + 1;
+        while (stackTop < height && rowMasks[stackTop] == 0) {
+            stackTop++;
+        }
+        recomputeColumnHeights();
+
+        return linesCleared;
+    }
+
+    // 对战模式：在底部插入 count 行垃圾行（holeColumn 列留空），原有的行整体上移 count 行。
+    // 行数据按块搬移，开销与堆叠高度成正比；返回是否有方块被顶出棋盘顶部
+    public boolean addGarbageLines(int count, int holeColumn) {
+        if (holeColumn < 0 || holeColumn >= width) {
+            throw new IllegalArgumentException("Bad hole column: " + holeColumn);
+        }
+        if (count <= 0) {
+            return false;
+        }
+        count = Math.min(count, height);
+
+        // 顶部 count 行以内的方块会被顶出，只搬移留在棋盘内的行
+        boolean overflow = stackTop < count;
+        int top = Math.max(stackTop, count);
+        System.arraycopy(rowMasks, top, rowMasks, top - count, height - top);
+        System.arraycopy(cells, top * width, cells, (top - count) * width, (height - top) * width);
+
+        long garbage = fullRow & ~(1L << holeColumn);
+        for (int y = height - count; y < height; y++) {
+            rowMasks[y] = garbage;
+            Arrays.fill(cells, y * width, (y + 1) * width, (byte) GARBAGE_CELL);
+            cells[y * width + holeColumn] = 0;
+        }
+
+        // 搬移的起点及其下方的行都发生了变化。有方块被顶出时，搬上来的行可能是空行，
+        // 与消行一样向下找到第一个非空行作为新的堆叠顶部
+        markDirty(top - count, height - 1);
+        stackTop = top - count;
+        while (stackTop < height && rowMasks[stackTop] == 0) {
+            stackTop++;
+        }
+        recomputeColumnHeights();
+        return overflow;
+    }
+
+    // 自堆叠顶部向下扫描到所有列都找到顶部为止
+    private void recomputeColumnHeights() {
+        long covered = 0;
+        for (int y = stackTop; y < height && covered != fullRow; y++) {
+            long newColumns = rowMasks[y] & ~covered;
+            while (newColumns != 0) {
+                int x = Long.numberOfTrailingZeros(newColumns);
+                columnHeights[x] = height - y;
+                newColumns &= newColumns - 1;
+            }
+            covered |= rowMasks[y];
+        }
+        for (int x = 0; x < width; x++) {
+            if ((covered & (1L << x)) == 0) {
+                columnHeights[x] = 0;
+            }
+        }
+    }
+
+    // 方块从当前位置竖直下落的格数。方块位于所在列的堆叠顶部之上时，
+    // 只需比较每列最低单元格与该列顶部，复杂度与方块宽度成正比；
+    // 方块已经钻到悬空结构下方时退回逐行检测
+    public int dropDistance(Tetromino tetromino) {
+        Tetromino.Shape shape = tetromino.getShape();
+        int rotation = tetromino.getRotation();
+        int x = tetromino.getX();
+        int y = tetromino.getY();
+
+        if (!isValidMove(shape, rotation, x, y)) {
+            return 0;
+        }
+
+        int distance = height;
+        int minX = RotationTable.minX(shape, rotation);
+        int maxX = RotationTable.maxX(shape, rotation);
+        for (int column = minX; column <= maxX; column++) {
+            int bottom = RotationTable.columnBottom(shape, rotation, column);
+            if (bottom < 0) {
+                continue;
+            }
+            int pieceBottom = y + bottom;
+            int surface = height - columnHeights[x + column];
+            if (pieceBottom >= surface) {
+                return scanDropDistance(shape, rotation, x, y);
+            }
+            distance = Math.min(distance, surface - pieceBottom - 1);
+        }
+        return distance;
+    }
+
+    private int scanDropDistance(Tetromino.Shape shape, int rotation, int x, int y) {
+        int distance = 0;
+        while (isValidMove(shape, rotation, x, y + distance + 1)) {
+            distance++;
+        }
+        return distance;
+    }
+
+    public int getColumnHeight(int x) {
+        return columnHeights[x];
+    }
+
+    public int getStackTop() {
+        return stackTop;
+    }
+
+    public boolean isGameOver() {
+        // 检查顶部两行是否有方块
+        return stackTop < 2;
+    }
+
+    public int getCell(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return 0;
+        }
+        return cells[y * width + x];
+    }
+
+    public long getRowMask(int y) {
+        return rowMasks[y];
+    }
+
+    public void copyFrom(GameGrid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Board size mismatch: " + other.width + "x" + other.height
+                    + " vs " + width + "x" + height);
+        }
+        // 只复制两者堆叠范围的并集，其余行在双方都是空的
+        int top = Math.min(stackTop, other.stackTop);
+        System.arraycopy(other.rowMasks, top, rowMasks, top, height - top);
+        System.arraycopy(other.cells, top * width, cells, top * width, (height - top) * width);
+        System.arraycopy(other.columnHeights, 0, columnHeights, 0, width);
+        stackTop = other.stackTop;
+        markDirty(top, height - 1);
+    }
+
+    // 存档：只写堆叠顶部以下的行，每个单元格 4 位，两格一个字节；占用掩码和列高在恢复时重建
+    void saveState(ByteBuffer out) {
+        out.putShort((short) stackTop);
+        for (int y = stackTop; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x += 2) {
+                int high = x + 1 < width ? cells[row + x + 1] : 0;
+                out.put((byte) (cells[row + x] | high << 4));
+            }
+        }
+    }
+
+    // 先校验全部单元格再写入：取值超出方块和垃圾行范围时抛出异常，棋盘保持原样
+    void restoreState(ByteBuffer in) {
+        int top = in.getShort();
+        if (top < 0 || top > height) {
+            throw new IllegalArgumentException("Bad stack top: " + top);
+        }
+        int rowBytes = (width + 1) / 2;
+        int start = in.position();
+        for (int i = 0, end = (height - top) * rowBytes; i < end; i++) {
+            int packed = in.get(start + i);
+            int low = packed & 0x0F;
+            int high = (packed >>> 4) & 0x0F;
+            // 宽度为奇数时每行最后一个字节的高 4 位没有对应的单元格，存档时写 0
+            if (low > GARBAGE_CELL || high > GARBAGE_CELL
+                    || high != 0 && width % 2 != 0 && i % rowBytes == rowBytes - 1) {
+                throw new IllegalArgumentException("Bad cell value: " + (packed & 0xFF));
+            }
+        }
+        // 新堆叠顶部以上、原来有方块的行需要清空
+        for (int y = Math.min(stackTop, top); y < top; y++) {
+            rowMasks[y] = 0;
+        }
+        if (stackTop < top) {
+            Arrays.fill(cells, stackTop * width, top * width, (byte) 0);
+        }
+
+        for (int y = top; y < height; y++) {
+            int row = y * width;
+            long mask = 0;
+            for (int x = 0; x < width; x += 2) {
+                int packed = in.get();
+                int low = packed & 0x0F;
+                cells[row + x] = (byte) low;
+                if (low != 0) {
+                    mask |= 1L << x;
+                }
+                if (x + 1 < width) {
+                    int high = (packed >>> 4) & 0x0F;
+                    cells[row + x + 1] = (byte) high;
+                    if (high != 0) {
+                        mask |= 1L << (x + 1);
+                    }
+                }
+            }
+            rowMasks[y] = mask;
+        }
+
+        stackTop = top;
+        while (stackTop < height && rowMasks[stackTop] == 0) {
+            stackTop++;
+        }
+        recomputeColumnHeights();
+        markDirty(0, height - 1);
+    }
+
+    // 存档中网格部分的最大字节数
+    static int maxStateSize(int width, int height) {
+        return 2 + height * ((width + 1) / 2);
+    }
+
+    private void markDirty(int top, int bottom) {
+        if (dirtyTop > dirtyBottom) {
+            dirtyTop = top;
+            dirtyBottom = bottom;
+        } else {
+            dirtyTop = Math.min(dirtyTop, top);
+            dirtyBottom = Math.max(dirtyBottom, bottom);
+        }
+    }
+
+    public boolean hasDirtyRows() {
+        return dirtyTop <= dirtyBottom;
+    }
+
+    public int getDirtyTop() {
+        return dirtyTop;
+    }
+
+    public int getDirtyBottom() {
+        return dirtyBottom;
+    }
+
+    public void clearDirtyRows() {
+        dirtyTop = height;
+        dirtyBottom = -1;
+    }
+
+    public int[][] getGrid() {
+        // 兼容旧接口：从位图展开成二维数组
+        if (gridView == null) {
+            gridView = new int[height][width];
+        }
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                gridView[i][j] = cells[i * width + j];
+            }
+        }
+        return gridView;
+    }
+}
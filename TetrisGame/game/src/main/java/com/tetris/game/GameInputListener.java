@@ -0,0 +1,8 @@
+package com.tetris.game;
+
+// 观察被游戏实际处理的输入指令和重力 tick（暂停或结束时的调用不会通知），用于录制回放
+public interface GameInputListener {
+    void onCommand(int command);
+
+    void onTick();
+}
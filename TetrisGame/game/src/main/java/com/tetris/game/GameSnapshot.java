@@ -0,0 +1,133 @@
+package com.tetris.game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// 整局游戏的二进制存档，用于进程被杀后恢复，也可以在搜索中快速保存和还原局面。
+// 格式：
+//   int 魔数 'TSNP' | byte 版本 | long 重力 tick 相位（纳秒）
+//   byte 宽 | byte 高 | byte 生成器类型 | 生成器状态
+//   当前方块 byte 形状 | byte 旋转 | short x | short y | 下一个方块 byte 形状
+//   int 分数 | int 等级 | int 消行数 | int 方块数 | long tick 数
+//   byte 标志（暂停、结束、踢墙、锁定延迟）| byte 锁定重置次数 | short 当前方块到达过的最低行
+//   short 堆叠顶部 | 堆叠顶部以下每行 (宽 + 1) / 2 字节，每格 4 位
+// 数据放在可重复使用的直接缓冲区中，写文件时由 FileChannel 直接写出，不经过中间数组
+public final class GameSnapshot {
+    private static final int MAGIC = 0x54534E50; // "TSNP"
+    // 版本 2 起保存踢墙和锁定延迟状态，版本 1 的存档不再恢复
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 1 + 8;
+    // 标准棋盘的存档不到 200 字节，更大的棋盘在 capture 时扩容
+    private static final int INITIAL_CAPACITY = 256;
+
+    private ByteBuffer buffer;
+
+    public GameSnapshot() {
+        this(ByteBuffer.allocateDirect(INITIAL_CAPACITY));
+        buffer.limit(0);
+    }
+
+    private GameSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    // 保存局面；tickPhaseNanos 是距离下一次重力下落已经累积的时间，恢复后游戏循环从这里继续
+    public void capture(TetrisGame game, long tickPhaseNanos) {
+        int required = HEADER_SIZE + game.maxStateSize();
+        if (buffer.capacity() < required) {
+            buffer = ByteBuffer.allocateDirect(required);
+        }
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.putLong(tickPhaseNanos);
+        game.saveState(buffer);
+        buffer.flip();
+    }
+
+    // 恢复到已有的游戏对象上（棋盘尺寸必须一致），返回保存时的重力 tick 相位
+    public long restore(TetrisGame game) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        try {
+            long tickPhaseNanos = readHeader(in);
+            game.restoreState(in);
+            return tickPhaseNanos;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt game snapshot", e);
+        }
+    }
+
+    // 按存档中的尺寸和生成器类型创建一局新游戏
+    public TetrisGame restore() throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        TetrisGame game;
+        try {
+            readHeader(in);
+            int width = in.get() & 0xFF;
+            int height = in.get() & 0xFF;
+            int generatorType = in.get();
+            game = new TetrisGame(PieceGenerators.create(generatorType, 0), width, height);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt game snapshot", e);
+        }
+        restore(game);
+        return game;
+    }
+
+    public long getTickPhaseNanos() throws IOException {
+        return readHeader(buffer.duplicate());
+    }
+
+    private static long readHeader(ByteBuffer in) throws IOException {
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IOException("Not a game snapshot");
+        }
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        return in.getLong();
+    }
+
+    public int size() {
+        return buffer.remaining();
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    public static GameSnapshot fromByteArray(byte[] bytes) {
+        GameSnapshot snapshot = new GameSnapshot(ByteBuffer.allocateDirect(bytes.length));
+        snapshot.buffer.put(bytes);
+        snapshot.buffer.flip();
+        return snapshot;
+    }
+
+    public void writeTo(FileChannel channel) throws IOException {
+        ByteBuffer out = buffer.duplicate();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    // 从通道当前位置读到末尾
+    public static GameSnapshot readFrom(FileChannel channel) throws IOException {
+        long remaining = channel.size() - channel.position();
+        if (remaining > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large: " + remaining);
+        }
+        GameSnapshot snapshot = new GameSnapshot(ByteBuffer.allocateDirect((int) remaining));
+        while (snapshot.buffer.hasRemaining()) {
+            if (channel.read(snapshot.buffer) < 0) {
+                throw new IOException("Truncated game snapshot");
+            }
+        }
+        snapshot.buffer.flip();
+        return snapshot;
+    }
+}
@@ -0,0 +1,97 @@
+package com.tetris.game;
+
+import java.util.Random;
+
+public class HeadlessRunner {
+    private static final int DEFAULT_GAMES = 1000;
+    // 单局方块数上限，防止策略过于理想时一局永不结束
+    private static final int MAX_PIECES_PER_GAME = 100000;
+
+    private final TetrisGame game;
+    private final Random random;
+
+    public HeadlessRunner(long seed) {
+        game = new TetrisGame(new UniformGenerator(seed));
+        random = new Random(seed);
+    }
+
+    public Result run(int games) {
+        long totalPieces = 0;
+        long totalLines = 0;
+        long start = System.nanoTime();
+
+        for (int i = 0; i < games; i++) {
+            game.reset();
+            game.start();
+            playOneGame();
+            totalPieces += game.getPiecesSpawned();
+            totalLines += game.getLinesCleared();
+        }
+
+        return new Result(games, totalPieces, totalLines, System.nanoTime() - start);
+    }
+
+    private void playOneGame() {
+        // 简单的随机策略：随机旋转、随机平移后直接落下，不做任何等待
+        while (!game.isGameOver() && game.getPiecesSpawned() < MAX_PIECES_PER_GAME) {
+            int rotations = random.nextInt(RotationTable.STATES);
+            for (int r = 0; r < rotations; r++) {
+                game.rotate();
+            }
+
+            int width = game.getGrid().getWidth();
+            int shift = random.nextInt(width) - width / 2;
+            for (int s = 0; s < Math.abs(shift); s++) {
+                if (shift < 0) {
+                    game.moveLeft();
+                } else {
+                    game.moveRight();
+                }
+            }
+
+            game.dropDown();
+        }
+    }
+
+    public static class Result {
+        public final int games;
+        public final long pieces;
+        public final long lines;
+        public final long elapsedNanos;
+
+        Result(int games, long pieces, long lines, long elapsedNanos) {
+            this.games = games;
+            this.pieces = pieces;
+            this.lines = lines;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double gamesPerSecond() {
+            return games / seconds();
+        }
+
+        public double piecesPerSecond() {
+            return pieces / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(elapsedNanos, 1) / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("games=%d pieces=%d lines=%d time=%.3fs games/s=%.1f pieces/s=%.1f",
+                    games, pieces, lines, seconds(), gamesPerSecond(), piecesPerSecond());
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+
+        HeadlessRunner runner = new HeadlessRunner(seed);
+        // 先跑一轮预热，让 JIT 完成编译
+        runner.run(Math.max(1, games / 10));
+        System.out.println(runner.run(games));
+    }
+}
@@ -0,0 +1,104 @@
+package com.tetris.game;
+
+import java.nio.ByteBuffer;
+
+// 基于历史的随机：记住最近几个方块，抽到重复形状时重新抽取，最多重抽若干次
+public class HistoryGenerator implements PieceGenerator {
+    public static final int DEFAULT_HISTORY = 4;
+    public static final int DEFAULT_ROLLS = 6;
+    private static final Tetromino.Shape[] SHAPES = Tetromino.Shape.values();
+
+    private final SplitMix64 random;
+    private final Tetromino.Shape[] history;
+    private final int rolls;
+    private long seed;
+    private int head;
+
+    public HistoryGenerator(long seed) {
+        this(seed, DEFAULT_HISTORY, DEFAULT_ROLLS);
+    }
+
+    public HistoryGenerator(long seed, int historySize, int rolls) {
+        this.random = new SplitMix64(seed);
+        this.history = new Tetromino.Shape[historySize];
+        this.rolls = rolls;
+        setSeed(seed);
+    }
+
+    @Override
+    public Tetromino.Shape next() {
+        Tetromino.Shape shape = SHAPES[random.nextInt(SHAPES.length)];
+        for (int i = 1; i < rolls && inHistory(shape); i++) {
+            shape = SHAPES[random.nextInt(SHAPES.length)];
+        }
+
+        history[head] = shape;
+        head = (head + 1) % history.length;
+        return shape;
+    }
+
+    private boolean inHistory(Tetromino.Shape shape) {
+        for (Tetromino.Shape recent : history) {
+            if (recent == shape) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+        random.setState(seed);
+        // 初始历史填入 S、Z，避免开局出现难以处理的方块
+        for (int i = 0; i < history.length; i++) {
+            history[i] = (i & 1) == 0 ? Tetromino.Shape.S : Tetromino.Shape.Z;
+        }
+        head = 0;
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public PieceGenerator copy() {
+        HistoryGenerator copy = new HistoryGenerator(seed, history.length, rolls);
+        copy.random.setState(random.getState());
+        System.arraycopy(history, 0, copy.history, 0, history.length);
+        copy.head = head;
+        return copy;
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putLong(seed);
+        out.putLong(random.getState());
+        out.put((byte) history.length);
+        out.put((byte) head);
+        for (Tetromino.Shape shape : history) {
+            out.put((byte) shape.ordinal());
+        }
+    }
+
+    @Override
+    public int stateSize() {
+        return 16 + 2 + history.length;
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        seed = in.getLong();
+        random.setState(in.getLong());
+        int length = in.get();
+        int restoredHead = in.get();
+        if (length != history.length || restoredHead < 0 || restoredHead >= length) {
+            throw new IllegalArgumentException("History size mismatch: " + length);
+        }
+        head = restoredHead;
+        for (int i = 0; i < history.length; i++) {
+            history[i] = SHAPES[in.get()];
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.tetris.game;
+
+import com.tetris.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// 单生产者/单消费者的无锁环形队列：界面线程写入输入指令，游戏线程在每次逻辑更新前取出，
+// 连同入队时间戳交给 TimingEngine 按时间顺序执行，并把排队延迟记入直方图。
+// 只允许一个线程调用 offer，一个线程调用 drainTo
+public final class InputQueue {
+    private final int[] commands;
+    private final long[] timestamps;
+    private final int mask;
+
+    // head 只由消费者写，tail 只由生产者写；用 lazySet 发布，读对方的下标时才需要 volatile 读
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // 各自缓存的对方下标，减少跨核读取
+    private long cachedHead;
+    private long cachedTail;
+    // 最近一次非空 drainTo 中第一条指令的入队时间，只由消费者读写
+    private long oldestDrainedNanos;
+
+    public InputQueue(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        commands = new int[capacity];
+        timestamps = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    // 生产者调用；队列已满时丢弃指令并返回 false
+    public boolean offer(int command) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                return false;
+            }
+        }
+
+        int index = (int) t & mask;
+        commands[index] = command;
+        timestamps[index] = System.nanoTime();
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // 消费者调用；按入队顺序把所有指令交给调度器，返回处理的条数
+    public int drainTo(TimingEngine engine, LatencyHistogram latency) {
+        long h = head.get();
+        if (h == cachedTail) {
+            cachedTail = tail.get();
+            if (h == cachedTail) {
+                return 0;
+            }
+        }
+
+        long now = System.nanoTime();
+        oldestDrainedNanos = timestamps[(int) h & mask];
+        int drained = 0;
+        while (h < cachedTail) {
+            int index = (int) h & mask;
+            engine.accept(commands[index], timestamps[index]);
+            if (latency != null) {
+                latency.record(now - timestamps[index]);
+            }
+            h++;
+            drained++;
+        }
+        head.lazySet(h);
+        return drained;
+    }
+
+    // 消费者调用，用于统计指令从入队到画面提交的延迟
+    public long getOldestDrainedNanos() {
+        return oldestDrainedNanos;
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
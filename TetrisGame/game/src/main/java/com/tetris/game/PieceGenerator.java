@@ -0,0 +1,24 @@
+package com.tetris.game;
+
+import java.nio.ByteBuffer;
+
+// 方块序列生成器。相同种子必须产生相同序列，以保证基准测试和回放可以复现
+public interface PieceGenerator {
+    Tetromino.Shape next();
+
+    // 重新设定种子并清空内部状态（如当前袋子、历史记录）
+    void setSeed(long seed);
+
+    long getSeed();
+
+    // 返回状态完全相同、互不影响的副本
+    PieceGenerator copy();
+
+    // 存档：写入种子和全部内部状态，restoreState 读回后产生的序列与存档时完全相同
+    void saveState(ByteBuffer out);
+
+    void restoreState(ByteBuffer in);
+
+    // saveState 写入的字节数
+    int stateSize();
+}
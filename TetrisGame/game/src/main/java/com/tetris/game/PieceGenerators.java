@@ -0,0 +1,37 @@
+package com.tetris.game;
+
+// 生成器类型编号与实例之间的转换，供回放和存档记录使用哪种生成器
+public final class PieceGenerators {
+    public static final int UNIFORM = 0;
+    public static final int BAG = 1;
+    public static final int HISTORY = 2;
+
+    private PieceGenerators() {
+    }
+
+    public static int typeOf(PieceGenerator generator) {
+        if (generator instanceof BagGenerator) {
+            return BAG;
+        }
+        if (generator instanceof HistoryGenerator) {
+            return HISTORY;
+        }
+        if (generator instanceof UniformGenerator) {
+            return UNIFORM;
+        }
+        throw new IllegalArgumentException("Unsupported generator: " + generator.getClass().getName());
+    }
+
+    public static PieceGenerator create(int type, long seed) {
+        switch (type) {
+            case UNIFORM:
+                return new UniformGenerator(seed);
+            case BAG:
+                return new BagGenerator(seed);
+            case HISTORY:
+                return new HistoryGenerator(seed);
+            default:
+                throw new IllegalArgumentException("Unknown generator type: " + type);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.tetris.game;
+
+import java.util.Arrays;
+
+public final class RotationTable {
+    public static final int STATES = 4;
+    public static final int CELLS = 4;
+    // 每次旋转最多尝试的踢墙偏移数（含原地旋转）
+    public static final int MAX_KICKS = 5;
+
+    // 以下数组均按 [形状][旋转状态] 索引，类加载时一次性计算，之后只读
+    private static final int[][][][] MATRICES;
+    private static final int[][][] CELL_X;
+    private static final int[][][] CELL_Y;
+    // 每个旋转状态下方块每一行的占用掩码，第 j 位表示矩阵第 j 列
+    private static final int[][][] ROW_MASKS;
+    private static final int[][] MIN_X;
+    private static final int[][] MAX_X;
+    private static final int[][] MIN_Y;
+    private static final int[][] MAX_Y;
+    // 每一列最低单元格所在的行，空列为 -1，用于快速计算下落距离
+    private static final int[][][] COLUMN_BOTTOM;
+    // 顺时针旋转的 SRS 踢墙偏移，按 [形状][旋转前状态][第几次尝试] 索引，y 向下为正
+    private static final int[][][] KICK_X;
+    private static final int[][][] KICK_Y;
+
+    // SRS 标准踢墙表，按旋转前状态 0、R、2、L 排列，每项为 {x, y}，y 向上为正（与 SRS 文献一致）
+    private static final int[][][] JLSTZ_KICKS = {
+        {{0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2}},
+        {{0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2}},
+        {{0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2}},
+        {{0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2}}
+    };
+    private static final int[][][] I_KICKS = {
+        {{0, 0}, {-2, 0}, {1, 0}, {-2, -1}, {1, 2}},
+        {{0, 0}, {-1, 0}, {2, 0}, {-1, 2}, {2, -1}},
+        {{0, 0}, {2, 0}, {-1, 0}, {2, 1}, {-1, -2}},
+        {{0, 0}, {1, 0}, {-2, 0}, {1, -2}, {-2, 1}}
+    };
+    // O 方块旋转后形状不变，只尝试原地旋转
+    private static final int[][][] O_KICKS = {
+        {{0, 0}}, {{0, 0}}, {{0, 0}}, {{0, 0}}
+    };
+
+    static {
+        Tetromino.Shape[] shapes = Tetromino.Shape.values();
+        int count = shapes.length;
+        MATRICES = new int[count][STATES][][];
+        CELL_X = new int[count][STATES][CELLS];
+        CELL_Y = new int[count][STATES][CELLS];
+        ROW_MASKS = new int[count][STATES][];
+        MIN_X = new int[count][STATES];
+        MAX_X = new int[count][STATES];
+        MIN_Y = new int[count][STATES];
+        MAX_Y = new int[count][STATES];
+        COLUMN_BOTTOM = new int[count][STATES][];
+        KICK_X = new int[count][STATES][];
+        KICK_Y = new int[count][STATES][];
+
+        for (Tetromino.Shape shape : shapes) {
+            int s = shape.ordinal();
+            int[][] matrix = spawnMatrix(shape);
+            for (int r = 0; r < STATES; r++) {
+                MATRICES[s][r] = matrix;
+                fillCells(s, r, matrix);
+                matrix = rotateClockwise(matrix);
+            }
+            fillKicks(s, shape == Tetromino.Shape.I ? I_KICKS
+                    : shape == Tetromino.Shape.O ? O_KICKS : JLSTZ_KICKS);
+        }
+    }
+
+    // 换算成棋盘坐标（y 向下）后按形状展开，旋转时直接按下标取用
+    private static void fillKicks(int s, int[][][] kicks) {
+        for (int r = 0; r < STATES; r++) {
+            int tests = kicks[r].length;
+            KICK_X[s][r] = new int[tests];
+            KICK_Y[s][r] = new int[tests];
+            for (int i = 0; i < tests; i++) {
+                KICK_X[s][r][i] = kicks[r][i][0];
+                KICK_Y[s][r][i] = -kicks[r][i][1];
+            }
+        }
+    }
+
+    private RotationTable() {
+    }
+
+    private static int[][] spawnMatrix(Tetromino.Shape shape) {
+        switch (shape) {
+            case I:
+                return new int[][] {
+                    {0, 0, 0, 0},
+                    {1, 1, 1, 1},
+                    {0, 0, 0, 0},
+                    {0, 0, 0, 0}
+                };
+            case J:
+                return new int[][] {
+                    {2, 0, 0},
+                    {2, 2, 2},
+                    {0, 0, 0}
+                };
+            case L:
+                return new int[][] {
+                    {0, 0, 3},
+                    {3, 3, 3},
+                    {0, 0, 0}
+                };
+            case O:
+                return new int[][] {
+                    {4, 4},
+                    {4, 4}
+                };
+            case S:
+                return new int[][] {
+                    {0, 5, 5},
+                    {5, 5, 0},
+                    {0, 0, 0}
+                };
+            case T:
+                return new int[][] {
+                    {0, 6, 0},
+                    {6, 6, 6},
+                    {0, 0, 0}
+                };
+            case Z:
+            default:
+                return new int[][] {
+                    {7, 7, 0},
+                    {0, 7, 7},
+                    {0, 0, 0}
+                };
+        }
+    }
+
+    private static int[][] rotateClockwise(int[][] matrix) {
+        int size = matrix.length;
+        int[][] rotated = new int[size][size];
+
+        // 顺时针旋转矩阵
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                rotated[j][size - 1 - i] = matrix[i][j];
+            }
+        }
+
+        return rotated;
+    }
+
+    private static void fillCells(int s, int r, int[][] matrix) {
+        int size = matrix.length;
+        int[] masks = new int[size];
+        int[] bottoms = new int[size];
+        Arrays.fill(bottoms, -1);
+        int minX = size, maxX = -1, minY = size, maxY = -1;
+        int cell = 0;
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (matrix[i][j] != 0) {
+                    CELL_X[s][r][cell] = j;
+                    CELL_Y[s][r][cell] = i;
+                    cell++;
+                    masks[i] |= 1 << j;
+                    bottoms[j] = i;
+                    minX = Math.min(minX, j);
+                    maxX = Math.max(maxX, j);
+                    minY = Math.min(minY, i);
+                    maxY = Math.max(maxY, i);
+                }
+            }
+        }
+
+        ROW_MASKS[s][r] = masks;
+        COLUMN_BOTTOM[s][r] = bottoms;
+        MIN_X[s][r] = minX;
+        MAX_X[s][r] = maxX;
+        MIN_Y[s][r] = minY;
+        MAX_Y[s][r] = maxY;
+    }
+
+    public static int next(int rotation) {
+        return (rotation + 1) & (STATES - 1);
+    }
+
+    // 返回共享的只读矩阵，调用方不得修改
+    public static int[][] matrix(Tetromino.Shape shape, int rotation) {
+        return MATRICES[shape.ordinal()][rotation];
+    }
+
+    public static int size(Tetromino.Shape shape) {
+        return MATRICES[shape.ordinal()][0].length;
+    }
+
+    public static int cellX(Tetromino.Shape shape, int rotation, int cell) {
+        return CELL_X[shape.ordinal()][rotation][cell];
+    }
+
+    public static int cellY(Tetromino.Shape shape, int rotation, int cell) {
+        return CELL_Y[shape.ordinal()][rotation][cell];
+    }
+
+    public static int rowMask(Tetromino.Shape shape, int rotation, int row) {
+        return ROW_MASKS[shape.ordinal()][rotation][row];
+    }
+
+    public static int columnBottom(Tetromino.Shape shape, int rotation, int column) {
+        return COLUMN_BOTTOM[shape.ordinal()][rotation][column];
+    }
+
+    public static int minX(Tetromino.Shape shape, int rotation) {
+        return MIN_X[shape.ordinal()][rotation];
+    }
+
+    public static int maxX(Tetromino.Shape shape, int rotation) {
+        return MAX_X[shape.ordinal()][rotation];
+    }
+
+    public static int minY(Tetromino.Shape shape, int rotation) {
+        return MIN_Y[shape.ordinal()][rotation];
+    }
+
+    public static int maxY(Tetromino.Shape shape, int rotation) {
+        return MAX_Y[shape.ordinal()][rotation];
+    }
+
+    // 从 rotation 顺时针旋转时需要依次尝试的偏移个数
+    public static int kickCount(Tetromino.Shape shape, int rotation) {
+        return KICK_X[shape.ordinal()][rotation].length;
+    }
+
+    public static int kickX(Tetromino.Shape shape, int rotation, int test) {
+        return KICK_X[shape.ordinal()][rotation][test];
+    }
+
+    public static int kickY(Tetromino.Shape shape, int rotation, int test) {
+        return KICK_Y[shape.ordinal()][rotation][test];
+    }
+}
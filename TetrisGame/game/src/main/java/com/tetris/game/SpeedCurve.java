@@ -0,0 +1,68 @@
+package com.tetris.game;
+
+import java.util.Arrays;
+
+// 按等级预先计算好的下落间隔表（毫秒），超过表长的等级沿用最后一项
+public final class SpeedCurve {
+    public static final int MAX_LEVEL = 30;
+
+    // 原有的线性曲线：每级减少 100ms，最快 100ms
+    public static final SpeedCurve CLASSIC = linear(1000, 100, 100);
+    // 以下预设参考 DifficultyTuner 的扫描结果（与界面一样开启锁定延迟，每组 12 局、上限 10 分钟）：
+    // EASY 下休闲玩家能玩满上限，NORMAL 下休闲玩家中位约 8 分钟，HARD 下普通玩家中位约 5 分钟
+    public static final SpeedCurve EASY = linear(1200, 60, 200);
+    public static final SpeedCurve NORMAL = CLASSIC;
+    public static final SpeedCurve HARD = geometric(800, 0.8, 50);
+
+    private final int[] dropSpeeds;
+
+    private SpeedCurve(int[] dropSpeeds) {
+        this.dropSpeeds = dropSpeeds;
+    }
+
+    public static SpeedCurve linear(int startMillis, int stepMillis, int minMillis) {
+        int[] table = new int[MAX_LEVEL];
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            table[i] = Math.max(minMillis, startMillis - i * stepMillis);
+        }
+        return new SpeedCurve(table);
+    }
+
+    public static SpeedCurve geometric(int startMillis, double ratio, int minMillis) {
+        int[] table = new int[MAX_LEVEL];
+        double speed = startMillis;
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            table[i] = Math.max(minMillis, (int) Math.round(speed));
+            speed *= ratio;
+        }
+        return new SpeedCurve(table);
+    }
+
+    // 解析 toString() 的输出，用于加载调参工具选出的曲线；
+    // 间隔为 0 或负数时 TimingEngine 每帧会跑上百万次重力，直接拒绝
+    public static SpeedCurve parse(String text) {
+        if (text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Empty speed curve");
+        }
+        String[] parts = text.split(",");
+        int[] table = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            table[i] = Integer.parseInt(parts[i].trim());
+            if (table[i] <= 0) {
+                throw new IllegalArgumentException("Drop speed must be positive: " + table[i]);
+            }
+        }
+        return new SpeedCurve(table);
+    }
+
+    public int dropSpeed(int level) {
+        int index = Math.min(Math.max(level, 1), dropSpeeds.length) - 1;
+        return dropSpeeds[index];
+    }
+
+    @Override
+    public String toString() {
+        String text = Arrays.toString(dropSpeeds);
+        return text.substring(1, text.length() - 1).replace(" ", "");
+    }
+}
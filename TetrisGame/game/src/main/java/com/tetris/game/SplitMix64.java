@@ -0,0 +1,47 @@
+package com.tetris.game;
+
+// 非线程安全的 SplitMix64 伪随机数生成器，与 java.util.SplittableRandom 同一算法，
+// 但可以在 Android 低版本上使用，并允许读写内部状态以便回放和存档。
+// 每个线程或每局游戏应持有各自的实例，需要独立的流时用 split() 派生。
+public final class SplitMix64 {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // 返回 [0, bound) 内的均匀整数，拒绝采样避免取模偏差
+    public int nextInt(int bound) {
+        int r = (int) (nextLong() >>> 33);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+            // 落在不完整的区间内，重新取值
+        }
+        return r;
+    }
+
+    // 派生一个与当前流统计独立的新生成器
+    public SplitMix64 split() {
+        return new SplitMix64(nextLong());
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,540 @@
+package com.tetris.game;
+
+import java.nio.ByteBuffer;
+
+public class TetrisGame {
+    private static final Tetromino.Shape[] SHAPES = Tetromino.Shape.values();
+    // 开启锁定延迟时，方块着地后最多可以通过移动或旋转重置锁定计时的次数
+    public static final int MAX_LOCK_RESETS = 15;
+
+    private GameGrid grid;
+    private Tetromino currentTetromino;
+    private Tetromino nextTetromino;
+    private int score;
+    private int level;
+    private int linesCleared;
+    private int piecesSpawned;
+    private boolean isPaused;
+    private boolean isGameOver;
+    private PieceGenerator generator;
+    private int dropSpeed;
+    private SpeedCurve speedCurve = SpeedCurve.CLASSIC;
+    private GameEventListener listener;
+    private GameInputListener inputListener;
+    private long ticks;
+    // 旋转时是否尝试 SRS 踢墙；旧版本录像按无踢墙规则重放
+    private boolean wallKicks = true;
+    // 开启后方块着地不会在重力 tick 中立即固定，而是等待 lock()（由 TimingEngine 按实时计时发出）。
+    // lockResets 为着地期间成功移动或旋转的次数，方块到达新的最低行时清零
+    private boolean lockDelay;
+    private int lockResets;
+    private int lowestY;
+
+    public TetrisGame() {
+        this(new UniformGenerator(System.nanoTime()));
+    }
+
+    public TetrisGame(PieceGenerator generator) {
+        this(generator, GameGrid.DEFAULT_WIDTH, GameGrid.DEFAULT_HEIGHT);
+    }
+
+    // 自定义棋盘尺寸，用于解谜模式的大棋盘
+    public TetrisGame(PieceGenerator generator, int width, int height) {
+        grid = new GameGrid(width, height);
+        this.generator = generator;
+        reset();
+    }
+
+    public void reset() {
+        grid.clear();
+        score = 0;
+        level = 1;
+        linesCleared = 0;
+        piecesSpawned = 1;
+        ticks = 0;
+        isPaused = false;
+        isGameOver = false;
+        dropSpeed = speedCurve.dropSpeed(level); // 初始下落速度（毫秒）
+
+        // 当前方块和下一个方块各自只创建一次，之后在每次生成时复用
+        if (currentTetromino == null) {
+            currentTetromino = new Tetromino(generator.next());
+            nextTetromino = new Tetromino(generator.next());
+        } else {
+            currentTetromino.set(generator.next());
+            nextTetromino.set(generator.next());
+        }
+        currentTetromino.setPosition(grid.getSpawnX(), 0);
+        lockResets = 0;
+        lowestY = 0;
+
+        if (listener != null) {
+            listener.onScoreChanged(score, level, linesCleared);
+            listener.onPieceSpawned(currentTetromino, nextTetromino);
+        }
+    }
+
+    public void setGameEventListener(GameEventListener listener) {
+        this.listener = listener;
+    }
+
+    // 速度曲线只影响实时下落间隔，不影响按 tick 计的游戏逻辑，因此不会破坏回放
+    public void setSpeedCurve(SpeedCurve speedCurve) {
+        this.speedCurve = speedCurve;
+        dropSpeed = speedCurve.dropSpeed(level);
+    }
+
+    public SpeedCurve getSpeedCurve() {
+        return speedCurve;
+    }
+
+    public void setWallKicksEnabled(boolean wallKicks) {
+        this.wallKicks = wallKicks;
+    }
+
+    public boolean isWallKicksEnabled() {
+        return wallKicks;
+    }
+
+    public void setLockDelayEnabled(boolean lockDelay) {
+        this.lockDelay = lockDelay;
+    }
+
+    public boolean isLockDelayEnabled() {
+        return lockDelay;
+    }
+
+    public void setGameInputListener(GameInputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    // 复制另一局游戏的完整状态（生成器会被复制一份），用于回放关键帧
+    public void copyFrom(TetrisGame other) {
+        grid.copyFrom(other.grid);
+        currentTetromino.copyFrom(other.currentTetromino);
+        nextTetromino.copyFrom(other.nextTetromino);
+        score = other.score;
+        level = other.level;
+        linesCleared = other.linesCleared;
+        piecesSpawned = other.piecesSpawned;
+        ticks = other.ticks;
+        isPaused = other.isPaused;
+        isGameOver = other.isGameOver;
+        dropSpeed = other.dropSpeed;
+        speedCurve = other.speedCurve;
+        wallKicks = other.wallKicks;
+        lockDelay = other.lockDelay;
+        lockResets = other.lockResets;
+        lowestY = other.lowestY;
+        generator = other.generator.copy();
+    }
+
+    // 写入除监听器和速度曲线以外的全部状态，格式见 GameSnapshot
+    public void saveState(ByteBuffer out) {
+        out.put((byte) grid.getWidth());
+        out.put((byte) grid.getHeight());
+        out.put((byte) PieceGenerators.typeOf(generator));
+        generator.saveState(out);
+        out.put((byte) currentTetromino.getShape().ordinal());
+        out.put((byte) currentTetromino.getRotation());
+        out.putShort((short) currentTetromino.getX());
+        out.putShort((short) currentTetromino.getY());
+        out.put((byte) nextTetromino.getShape().ordinal());
+        out.putInt(score);
+        out.putInt(level);
+        out.putInt(linesCleared);
+        out.putInt(piecesSpawned);
+        out.putLong(ticks);
+        out.put((byte) ((isPaused ? 1 : 0) | (isGameOver ? 2 : 0)
+                | (wallKicks ? 4 : 0) | (lockDelay ? 8 : 0)));
+        out.put((byte) lockResets);
+        out.putShort((short) lowestY);
+        grid.saveState(out);
+    }
+
+    // 恢复 saveState 写入的状态，棋盘尺寸必须相同。先读到一局临时游戏里，全部读取和校验通过后
+    // 才复制到本局；存档损坏时抛出异常，本局保持原样，不会留下恢复了一半的状态
+    public void restoreState(ByteBuffer in) {
+        TetrisGame restored = new TetrisGame(generator.copy(), grid.getWidth(), grid.getHeight());
+        restored.speedCurve = speedCurve;
+        restored.readState(in);
+        copyFrom(restored);
+
+        if (listener != null) {
+            listener.onScoreChanged(score, level, linesCleared);
+            listener.onPieceSpawned(currentTetromino, nextTetromino);
+        }
+    }
+
+    private void readState(ByteBuffer in) {
+        int width = in.get() & 0xFF;
+        int height = in.get() & 0xFF;
+        if (width != grid.getWidth() || height != grid.getHeight()) {
+            throw new IllegalArgumentException("Board size mismatch: " + width + "x" + height);
+        }
+        int generatorType = in.get();
+        if (generatorType != PieceGenerators.typeOf(generator)) {
+            generator = PieceGenerators.create(generatorType, 0);
+        }
+        generator.restoreState(in);
+
+        Tetromino.Shape shape = SHAPES[in.get()];
+        int rotation = in.get();
+        int x = in.getShort();
+        int y = in.getShort();
+        currentTetromino.set(shape, rotation, x, y);
+        nextTetromino.set(SHAPES[in.get()]);
+        score = in.getInt();
+        level = in.getInt();
+        linesCleared = in.getInt();
+        piecesSpawned = in.getInt();
+        ticks = in.getLong();
+        int flags = in.get();
+        isPaused = (flags & 1) != 0;
+        isGameOver = (flags & 2) != 0;
+        wallKicks = (flags & 4) != 0;
+        lockDelay = (flags & 8) != 0;
+        lockResets = in.get();
+        if (lockResets < 0 || lockResets > MAX_LOCK_RESETS) {
+            throw new IllegalArgumentException("Bad lock resets: " + lockResets);
+        }
+        lowestY = in.getShort();
+        dropSpeed = speedCurve.dropSpeed(level);
+        grid.restoreState(in);
+    }
+
+    // saveState 最多写入的字节数
+    public int maxStateSize() {
+        // 尺寸和生成器类型 3 字节，方块 7 字节，计分 16 字节，tick 8 字节，标志 1 字节，锁定状态 3 字节
+        return 3 + generator.stateSize() + 7 + 16 + 8 + 1 + 3
+                + GameGrid.maxStateSize(grid.getWidth(), grid.getHeight());
+    }
+
+    public void start() {
+        isPaused = false;
+        isGameOver = false;
+    }
+
+    public void pause() {
+        isPaused = true;
+    }
+
+    public void resume() {
+        isPaused = false;
+    }
+
+    public void update() {
+        if (isPaused || isGameOver) {
+            return;
+        }
+
+        ticks++;
+        if (inputListener != null) {
+            inputListener.onTick();
+        }
+        step();
+    }
+
+    public void apply(int command) {
+        switch (command) {
+            case GameCommand.MOVE_LEFT:
+                moveLeft();
+                break;
+            case GameCommand.MOVE_RIGHT:
+                moveRight();
+                break;
+            case GameCommand.ROTATE:
+                rotate();
+                break;
+            case GameCommand.DROP:
+                dropDown();
+                break;
+            case GameCommand.LOCK:
+                lock();
+                break;
+        }
+    }
+
+    private void step() {
+        // 尝试下移方块
+        if (grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY() + 1)) {
+            currentTetromino.moveDown();
+            updateLowestRow();
+        } else if (!lockDelay || lockResets >= MAX_LOCK_RESETS) {
+            // 方块无法下移，固定到网格上；开启锁定延迟时由 lock() 固定
+            lockPiece();
+        }
+    }
+
+    private void lockPiece() {
+        grid.placeTetromino(currentTetromino);
+
+        // 检查并清除已完成的行
+        int lines = grid.clearCompletedLines();
+        if (lines > 0) {
+            linesCleared += lines;
+            updateScore(lines);
+            updateLevel();
+            if (listener != null) {
+                listener.onLinesCleared(lines);
+                listener.onScoreChanged(score, level, linesCleared);
+            }
+        }
+
+        // 生成新方块
+        spawnNextTetromino();
+    }
+
+    // 方块到达新的最低行时，锁定重置次数清零
+    private void updateLowestRow() {
+        if (currentTetromino.getY() > lowestY) {
+            lowestY = currentTetromino.getY();
+            lockResets = 0;
+        }
+    }
+
+    // 着地期间的一次成功移动或旋转：重置锁定计时，用完次数后仍着地则立即固定
+    private void onGroundedMove() {
+        updateLowestRow();
+        if (lockResets < MAX_LOCK_RESETS) {
+            lockResets++;
+        }
+        if (lockResets >= MAX_LOCK_RESETS && isGrounded()) {
+            lockPiece();
+        }
+    }
+
+    // 当前方块无法再下落
+    public boolean isGrounded() {
+        return currentTetromino != null && !isGameOver
+                && !grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY() + 1);
+    }
+
+    public int getLockResets() {
+        return lockResets;
+    }
+
+    // 锁定延迟到期：方块仍着地时立即固定
+    public void lock() {
+        if (isPaused || isGameOver || currentTetromino == null) {
+            return;
+        }
+
+        if (inputListener != null) {
+            inputListener.onCommand(GameCommand.LOCK);
+        }
+
+        if (isGrounded()) {
+            lockPiece();
+        }
+    }
+
+    private void spawnNextTetromino() {
+        currentTetromino.set(nextTetromino.getShape());
+        currentTetromino.setPosition(grid.getSpawnX(), 0);
+        lockResets = 0;
+        lowestY = 0;
+        nextTetromino.set(generator.next());
+        piecesSpawned++;
+
+        if (listener != null) {
+            listener.onPieceSpawned(currentTetromino, nextTetromino);
+        }
+
+        // 检查游戏是否结束
+        if (!grid.isValidMove(currentTetromino, currentTetromino.getX(), currentTetromino.getY())) {
+            endGame();
+        }
+    }
+
+    private void endGame() {
+        isGameOver = true;
+        if (listener != null) {
+            listener.onGameOver(score, level, linesCleared);
+        }
+    }
+
+    // 对战模式：在底部插入对手送来的垃圾行。当前方块与上移后的堆叠重叠时随之上推，
+    // 推不出空位或有方块被顶出棋盘时游戏结束。垃圾行来自对手而不是本局输入，不录入回放
+    public void addGarbage(int lines, int holeColumn) {
+        if (isGameOver || lines <= 0 || currentTetromino == null) {
+            return;
+        }
+
+        boolean overflow = grid.addGarbageLines(lines, holeColumn);
+        int x = currentTetromino.getX();
+        int y = currentTetromino.getY();
+        int pushed = 0;
+        while (pushed <= lines && !grid.isValidMove(currentTetromino, x, y - pushed)) {
+            pushed++;
+        }
+        if (overflow || pushed > lines) {
+            endGame();
+            return;
+        }
+        currentTetromino.setPosition(x, y - pushed);
+        // 方块被推上去几行，到达过的最低行也随之上移几行，不因垃圾行多出锁定重置次数
+        lowestY -= pushed;
+    }
+
+    private void updateScore(int lines) {
+        // 根据消除的行数计算分数
+        switch (lines) {
+            case 1:
+                score += 100 * level;
+                break;
+            case 2:
+                score += 300 * level;
+                break;
+            case 3:
+                score += 500 * level;
+                break;
+            case 4: // 俄罗斯方块（Tetris）
+                score += 800 * level;
+                break;
+        }
+    }
+
+    private void updateLevel() {
+        // 每消除10行提升一个等级
+        int newLevel = (linesCleared / 10) + 1;
+        if (newLevel > level) {
+            level = newLevel;
+            // 随着等级提升，按速度曲线查表加快下落
+            dropSpeed = speedCurve.dropSpeed(level);
+        }
+    }
+
+    public void moveLeft() {
+        if (isPaused || isGameOver || currentTetromino == null) {
+            return;
+        }
+
+        if (inputListener != null) {
+            inputListener.onCommand(GameCommand.MOVE_LEFT);
+        }
+
+        boolean grounded = lockDelay && isGrounded();
+        if (grid.isValidMove(currentTetromino, currentTetromino.getX() - 1, currentTetromino.getY())) {
+            currentTetromino.moveLeft();
+            if (grounded) {
+                onGroundedMove();
+            }
+        }
+    }
+
+    public void moveRight() {
+        if (isPaused || isGameOver || currentTetromino == null) {
+            return;
+        }
+
+        if (inputListener != null) {
+            inputListener.onCommand(GameCommand.MOVE_RIGHT);
+        }
+
+        boolean grounded = lockDelay && isGrounded();
+        if (grid.isValidMove(currentTetromino, currentTetromino.getX() + 1, currentTetromino.getY())) {
+            currentTetromino.moveRight();
+            if (grounded) {
+                onGroundedMove();
+            }
+        }
+    }
+
+    public void rotate() {
+        if (isPaused || isGameOver || currentTetromino == null) {
+            return;
+        }
+
+        if (inputListener != null) {
+            inputListener.onCommand(GameCommand.ROTATE);
+        }
+
+        // 直接用旋转表检查下一个旋转状态，无需创建临时方块；原地冲突时按 SRS 表尝试踢墙
+        Tetromino.Shape shape = currentTetromino.getShape();
+        int rotation = currentTetromino.getRotation();
+        int x = currentTetromino.getX();
+        int y = currentTetromino.getY();
+        boolean grounded = lockDelay && isGrounded();
+        int test;
+        if (wallKicks) {
+            test = grid.findKick(shape, rotation, x, y);
+        } else {
+            test = grid.isValidMove(shape, RotationTable.next(rotation), x, y) ? 0 : -1;
+        }
+        if (test >= 0) {
+            currentTetromino.rotate();
+            currentTetromino.setPosition(x + RotationTable.kickX(shape, rotation, test),
+                    y + RotationTable.kickY(shape, rotation, test));
+            if (grounded) {
+                onGroundedMove();
+            }
+        }
+    }
+
+    public void dropDown() {
+        if (isPaused || isGameOver || currentTetromino == null) {
+            return;
+        }
+
+        if (inputListener != null) {
+            inputListener.onCommand(GameCommand.DROP);
+        }
+
+        // 利用列高缓存直接算出落地位置
+        int distance = grid.dropDistance(currentTetromino);
+        currentTetromino.setPosition(currentTetromino.getX(), currentTetromino.getY() + distance);
+
+        // 硬降立即固定，不等待锁定延迟（不计入重力 tick）
+        lockPiece();
+    }
+
+    // Getters
+    public PieceGenerator getPieceGenerator() {
+        return generator;
+    }
+
+    public GameGrid getGrid() {
+        return grid;
+    }
+
+    public Tetromino getCurrentTetromino() {
+        return currentTetromino;
+    }
+
+    public Tetromino getNextTetromino() {
+        return nextTetromino;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    public int getPiecesSpawned() {
+        return piecesSpawned;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public boolean isPaused() {
+        return isPaused;
+    }
+
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+
+    public int getDropSpeed() {
+        return dropSpeed;
+    }
+}
\ No newline at end of file
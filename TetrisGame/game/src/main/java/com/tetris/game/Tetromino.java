@@ -0,0 +1,96 @@
+package com.tetris.game;
+
+public class Tetromino {
+    public enum Shape {
+        I, J, L, O, S, T, Z
+    }
+
+    private Shape shape;
+    private int rotation;
+    private int x, y;
+
+    public Tetromino(Shape shape) {
+        set(shape);
+    }
+
+    // 形状数据都在 RotationTable 中共享，方块本身只是 (形状, 旋转, x, y) 游标，可反复复用
+    public void set(Shape shape) {
+        this.shape = shape;
+        this.rotation = 0;
+        resetPosition();
+    }
+
+    // 恢复存档时直接设置完整状态
+    public void set(Shape shape, int rotation, int x, int y) {
+        if (rotation < 0 || rotation >= RotationTable.STATES) {
+            throw new IllegalArgumentException("Bad rotation: " + rotation);
+        }
+        this.shape = shape;
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+    }
+
+    public void copyFrom(Tetromino other) {
+        this.shape = other.shape;
+        this.rotation = other.rotation;
+        this.x = other.x;
+        this.y = other.y;
+    }
+
+    public void resetPosition() {
+        this.x = 4; // 初始位置在游戏区域中间
+        this.y = 0;
+    }
+
+    public void rotate() {
+        // 旋转状态已预先计算，这里只需切换索引
+        rotation = RotationTable.next(rotation);
+    }
+
+    public void moveLeft() {
+        x--;
+    }
+
+    public void moveRight() {
+        x++;
+    }
+
+    public void moveDown() {
+        y++;
+    }
+
+    public void moveUp() {
+        y--;
+    }
+
+    // Getters
+    public Shape getShape() {
+        return shape;
+    }
+
+    public int[][] getMatrix() {
+        return RotationTable.matrix(shape, rotation);
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getSize() {
+        return RotationTable.size(shape);
+    }
+
+    public void setPosition(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,237 @@
+package com.tetris.game;
+
+import com.tetris.metrics.LatencyHistogram;
+
+// 实时输入与重力的调度器：按调用方提供的单调时钟（System.nanoTime）推进游戏。
+// 重力下落、按住方向键的自动重复（DAS 延迟后按 ARR 间隔移动）、软降重力和锁定延迟
+// 都是带绝对时间的事件，advance 时按时间先后依次执行；输入指令按入队时间插入其中，
+// 因此同一帧内的输入与重力之间也保持真实的先后顺序，与帧率和线程休眠无关。
+// 只允许一个线程调用（渲染线程）；游戏状态的变化仍全部经过 TetrisGame 的公开操作，
+// 发出的移动和 LOCK 指令都会被录入回放
+public final class TimingEngine {
+    // 按 60Hz 计约 10 帧的 DAS 和 2 帧的 ARR，以及常见的 0.5 秒锁定延迟
+    public static final long DEFAULT_DAS_NANOS = 167_000_000L;
+    public static final long DEFAULT_ARR_NANOS = 33_000_000L;
+    public static final long DEFAULT_LOCK_DELAY_NANOS = 500_000_000L;
+    // 软降时重力加快的倍数
+    public static final int DEFAULT_SOFT_DROP_FACTOR = 20;
+    // ARR 的下限，10 列棋盘从一侧移到另一侧不到一帧
+    private static final long MIN_ARR_NANOS = 1_000_000L;
+    // 单次 advance 允许推进的最长时间，避免从后台恢复后一次性补跑大量逻辑更新
+    private static final long MAX_STEP_NANOS = 250_000_000L;
+    private static final long NEVER = Long.MAX_VALUE;
+    private static final int NO_SHIFT = -1;
+
+    private TetrisGame game;
+    private long dasNanos = DEFAULT_DAS_NANOS;
+    private long arrNanos = DEFAULT_ARR_NANOS;
+    private long lockDelayNanos = DEFAULT_LOCK_DELAY_NANOS;
+    private int softDropFactor = DEFAULT_SOFT_DROP_FACTOR;
+
+    // 引擎时钟：已经推进到的时间点
+    private long time;
+    // 距离上一次重力下落已经过去的时间
+    private long tickPhaseNanos;
+    private int held;
+    // 正在自动重复的方向（GameCommand.MOVE_LEFT/MOVE_RIGHT）和下一次重复的时间
+    private int shiftCommand = NO_SHIFT;
+    private long nextShiftAt = NEVER;
+    // 锁定计时的起点，以及开始计时时的方块序号和重置次数，任一变化都重新计时
+    private long lockStartedAt = NEVER;
+    private int lockPiece;
+    private int lockResets;
+
+    private LatencyHistogram tickRecorder;
+    private long tickTimeNanos;
+
+    public void setGame(TetrisGame game) {
+        this.game = game;
+        held = 0;
+        shiftCommand = NO_SHIFT;
+        nextShiftAt = NEVER;
+        lockStartedAt = NEVER;
+    }
+
+    public TetrisGame getGame() {
+        return game;
+    }
+
+    public void setDasNanos(long dasNanos) {
+        this.dasNanos = dasNanos;
+    }
+
+    public void setArrNanos(long arrNanos) {
+        this.arrNanos = Math.max(arrNanos, MIN_ARR_NANOS);
+    }
+
+    public void setLockDelayNanos(long lockDelayNanos) {
+        this.lockDelayNanos = lockDelayNanos;
+    }
+
+    public void setSoftDropFactor(int softDropFactor) {
+        this.softDropFactor = Math.max(1, softDropFactor);
+    }
+
+    // 记录每次 TetrisGame.update() 的耗时，传入 null 关闭
+    public void setTickRecorder(LatencyHistogram tickRecorder) {
+        this.tickRecorder = tickRecorder;
+    }
+
+    public long getTickTimeNanos() {
+        return tickTimeNanos;
+    }
+
+    public long getTickPhaseNanos() {
+        return tickPhaseNanos;
+    }
+
+    // 恢复存档时设置重力相位
+    public void setTickPhaseNanos(long tickPhaseNanos) {
+        this.tickPhaseNanos = tickPhaseNanos;
+    }
+
+    // 开始计时，之后的第一次 advance 不会把此前经过的时间计入重力
+    public void start(long nowNanos) {
+        time = nowNanos;
+    }
+
+    // 由输入队列按入队顺序调用：先把时钟推进到指令的入队时间，再执行指令
+    public void accept(int command, long enqueuedNanos) {
+        if (game == null) {
+            return;
+        }
+        if (enqueuedNanos > time) {
+            runUntil(enqueuedNanos);
+        }
+        if ((command & GameCommand.HOLD) != 0) {
+            setHeld(command & GameCommand.HOLD_MASK);
+        } else {
+            game.apply(command);
+        }
+        updateLockTimer();
+    }
+
+    // 把时钟推进到 nowNanos，执行期间到期的所有事件
+    public void advance(long nowNanos) {
+        if (game == null) {
+            time = nowNanos;
+            tickPhaseNanos = 0;
+            return;
+        }
+        if (nowNanos - time > MAX_STEP_NANOS) {
+            skip(nowNanos - MAX_STEP_NANOS - time);
+        }
+        runUntil(nowNanos);
+    }
+
+    // 两次重力下落之间的进度（0 到 1），用于绘制时插值
+    public float getInterpolation() {
+        return game == null ? 0 : (float) Math.min(tickPhaseNanos, tickNanos()) / tickNanos();
+    }
+
+    private void runUntil(long target) {
+        while (true) {
+            if (game.isPaused() || game.isGameOver()) {
+                // 暂停时所有计时一起顺延，恢复后从同一相位继续；结束后相位归零
+                if (game.isGameOver()) {
+                    tickPhaseNanos = 0;
+                }
+                skip(target - time);
+                return;
+            }
+
+            long tickAt = time + Math.max(0, tickNanos() - tickPhaseNanos);
+            long lockAt = lockStartedAt == NEVER ? NEVER : lockStartedAt + lockDelayNanos;
+            long next = Math.min(tickAt, Math.min(nextShiftAt, lockAt));
+            if (next > target) {
+                break;
+            }
+
+            tickPhaseNanos += next - time;
+            time = next;
+            if (next == lockAt) {
+                lockStartedAt = NEVER;
+                game.apply(GameCommand.LOCK);
+            } else if (next == nextShiftAt) {
+                nextShiftAt += arrNanos;
+                game.apply(shiftCommand);
+            } else {
+                long tickStart = System.nanoTime();
+                game.update();
+                tickTimeNanos = System.nanoTime() - tickStart;
+                if (tickRecorder != null) {
+                    tickRecorder.record(tickTimeNanos);
+                }
+                tickPhaseNanos = 0;
+            }
+            updateLockTimer();
+        }
+        tickPhaseNanos += target - time;
+        time = target;
+    }
+
+    // 让时钟前进 nanos 而不产生任何事件，其余计时一起顺延
+    private void skip(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        time += nanos;
+        if (nextShiftAt != NEVER) {
+            nextShiftAt += nanos;
+        }
+        if (lockStartedAt != NEVER) {
+            lockStartedAt += nanos;
+        }
+    }
+
+    // 软降时按倍数缩短重力间隔
+    private long tickNanos() {
+        long nanos = game.getDropSpeed() * 1_000_000L;
+        if ((held & GameCommand.HOLD_SOFT_DROP) != 0) {
+            nanos /= softDropFactor;
+        }
+        return Math.max(nanos, 1);
+    }
+
+    // 新按下的方向立即移动一格，DAS 后开始自动重复；松开时若另一方向仍按住则改为重复另一方向
+    private void setHeld(int newHeld) {
+        int pressed = newHeld & ~held;
+        held = newHeld;
+        if ((pressed & GameCommand.HOLD_LEFT) != 0) {
+            startShift(GameCommand.MOVE_LEFT);
+        } else if ((pressed & GameCommand.HOLD_RIGHT) != 0) {
+            startShift(GameCommand.MOVE_RIGHT);
+        } else if (shiftCommand == GameCommand.MOVE_LEFT && (held & GameCommand.HOLD_LEFT) == 0
+                || shiftCommand == GameCommand.MOVE_RIGHT && (held & GameCommand.HOLD_RIGHT) == 0) {
+            if ((held & GameCommand.HOLD_LEFT) != 0) {
+                startShift(GameCommand.MOVE_LEFT);
+            } else if ((held & GameCommand.HOLD_RIGHT) != 0) {
+                startShift(GameCommand.MOVE_RIGHT);
+            } else {
+                shiftCommand = NO_SHIFT;
+                nextShiftAt = NEVER;
+            }
+        }
+    }
+
+    private void startShift(int command) {
+        shiftCommand = command;
+        nextShiftAt = time + dasNanos;
+        game.apply(command);
+    }
+
+    // 方块着地时开始计时；离开地面、换了新方块或移动重置后重新计时
+    private void updateLockTimer() {
+        if (!game.isLockDelayEnabled() || !game.isGrounded()) {
+            lockStartedAt = NEVER;
+            return;
+        }
+        int piece = game.getPiecesSpawned();
+        int resets = game.getLockResets();
+        if (lockStartedAt == NEVER || piece != lockPiece || resets != lockResets) {
+            lockStartedAt = time;
+            lockPiece = piece;
+            lockResets = resets;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.tetris.game;
+
+import java.nio.ByteBuffer;
+
+// 每个方块独立、等概率地从七种形状中选取
+public class UniformGenerator implements PieceGenerator {
+    private static final Tetromino.Shape[] SHAPES = Tetromino.Shape.values();
+
+    private final SplitMix64 random;
+    private long seed;
+
+    public UniformGenerator(long seed) {
+        random = new SplitMix64(seed);
+        setSeed(seed);
+    }
+
+    @Override
+    public Tetromino.Shape next() {
+        return SHAPES[random.nextInt(SHAPES.length)];
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+        random.setState(seed);
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public PieceGenerator copy() {
+        UniformGenerator copy = new UniformGenerator(seed);
+        copy.random.setState(random.getState());
+        return copy;
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putLong(seed);
+        out.putLong(random.getState());
+    }
+
+    @Override
+    public int stateSize() {
+        return 16;
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        seed = in.getLong();
+        random.setState(in.getLong());
+    }
+}
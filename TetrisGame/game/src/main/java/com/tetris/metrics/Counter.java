@@ -0,0 +1,28 @@
+package com.tetris.metrics;
+
+// 单写者计数器：记录线程直接累加或设置，其他线程随时读取最新值
+public final class Counter {
+    private volatile long value;
+
+    public void add(long delta) {
+        value += delta;
+    }
+
+    public void increment() {
+        value++;
+    }
+
+    // 用于累计值由外部采样得到的计数，例如运行时报告的已分配字节数
+    public void set(long value) {
+        this.value = value;
+    }
+
+    public long get() {
+        return value;
+    }
+
+    // 只应由记录线程调用
+    public void reset() {
+        value = 0;
+    }
+}
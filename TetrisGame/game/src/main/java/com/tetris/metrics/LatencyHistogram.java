@@ -0,0 +1,116 @@
+package com.tetris.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 固定内存的对数分桶延迟直方图（纳秒）：按 2 的幂分段，每段再线性细分 16 个子桶，
+// 相对误差不超过约 6%。只允许一个线程记录，其他线程可以随时读取近似结果
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 覆盖 0 到 2^40 纳秒（约 18 分钟），更大的值计入最后一个桶
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private volatile long totalCount;
+    private volatile long totalNanos;
+    private volatile long maxNanos;
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int index = bucketIndex(nanos);
+        // 单写者，无需 CAS；lazySet 保证其他线程最终能看到
+        counts.lazySet(index, counts.get(index) + 1);
+        totalCount++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    // 桶内最大值，作为百分位的保守估计
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = SUB_BUCKETS + (index & (SUB_BUCKETS - 1));
+        return ((sub + 1) << shift) - 1;
+    }
+
+    // p 取 0 到 1，例如 0.99 表示第 99 百分位
+    public long percentile(double p) {
+        long total = totalCount;
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanNanos() {
+        long total = totalCount;
+        return total == 0 ? 0 : (double) totalNanos / total;
+    }
+
+    // 把另一个直方图的计数累加进来，用于汇总多个线程各自记录的结果
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.lazySet(i, counts.get(i) + count);
+            }
+        }
+        totalCount += other.totalCount;
+        totalNanos += other.totalNanos;
+        if (other.maxNanos > maxNanos) {
+            maxNanos = other.maxNanos;
+        }
+    }
+
+    // 只应由记录线程调用
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.lazySet(i, 0);
+        }
+        totalCount = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.2fms p99=%.2fms max=%.2fms",
+                getCount(), percentile(0.5) / 1e6, percentile(0.99) / 1e6, getMaxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,103 @@
+package com.tetris.metrics;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 性能指标注册表：按名称登记延迟直方图和计数器，用于现场诊断。
+// 登记在初始化时完成，记录方保存返回的对象直接写入，热路径上没有查找和内存分配。
+// 每个直方图和计数器只允许一个线程记录，读取和导出可以在任意线程进行
+public final class MetricsRegistry {
+    // 一次逻辑更新（TetrisGame.update）的耗时
+    public static final String TICK = "tick";
+    // 渲染线程准备并绘制一帧的耗时，不含等待 vsync
+    public static final String DRAW = "draw";
+    // 相邻两帧开始之间的间隔
+    public static final String FRAME = "frame";
+    // 指令从入队到执行的延迟
+    public static final String INPUT_QUEUE = "input_queue";
+    // 指令从入队到包含它的一帧提交的延迟，每帧按最早的一条指令记录
+    public static final String INPUT_TO_RENDER = "input_to_render";
+    // 界面线程刷新分数、预览等控件的耗时
+    public static final String UI_UPDATE = "ui_update";
+    // 已生成的方块数
+    public static final String PIECES = "pieces";
+    // 进程累计分配的字节数，由渲染线程定期采样
+    public static final String ALLOCATED_BYTES = "allocated_bytes";
+
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final Map<String, Counter> counters = new LinkedHashMap<>();
+    private volatile long startNanos = System.nanoTime();
+
+    // 同名重复登记时返回同一个对象
+    public synchronized LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            histograms.put(name, histogram);
+        }
+        return histogram;
+    }
+
+    // 登记外部已有的直方图，例如游戏循环中输入队列自带的延迟统计
+    public synchronized void register(String name, LatencyHistogram histogram) {
+        histograms.put(name, histogram);
+    }
+
+    public synchronized Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            counter = new Counter();
+            counters.put(name, counter);
+        }
+        return counter;
+    }
+
+    // 从登记或上次 reset 起经过的时间，用于计算每秒速率
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    // 清零全部指标；需要在记录线程都停止时调用
+    public synchronized void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    // 以文本形式导出：每个直方图一行百分位（毫秒），每个计数器一行总数和每秒速率
+    public synchronized void writeTo(Writer writer) throws IOException {
+        PrintWriter out = new PrintWriter(writer);
+        double seconds = getElapsedNanos() / 1e9;
+        out.printf("elapsed %.1fs%n", seconds);
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            out.printf("%s n=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms%n",
+                    entry.getKey(), h.getCount(), h.getMeanNanos() / 1e6,
+                    h.percentile(0.5) / 1e6, h.percentile(0.9) / 1e6, h.percentile(0.99) / 1e6,
+                    h.percentile(0.999) / 1e6, h.getMaxNanos() / 1e6);
+        }
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            long value = entry.getValue().get();
+            out.printf("%s total=%d rate=%.2f/s%n", entry.getKey(), value, seconds > 0 ? value / seconds : 0);
+        }
+        out.flush();
+        if (out.checkError()) {
+            throw new IOException("Failed to write metrics");
+        }
+    }
+
+    public void dump(File file) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writeTo(writer);
+        }
+    }
+}
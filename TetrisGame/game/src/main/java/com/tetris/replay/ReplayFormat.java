@@ -0,0 +1,58 @@
+package com.tetris.replay;
+
+import java.io.IOException;
+
+// 回放二进制格式：
+//   头部   int 魔数 'TRPL' | byte 版本 | byte 生成器类型 | long 种子 | byte 宽 | byte 高
+//          （版本 1 没有宽高字段，固定为标准棋盘）
+//          | byte 规则标志（版本 4 起，FLAG_LOCK_DELAY 表示启用锁定延迟）
+//          版本 3 起旋转带 SRS 踢墙，更早的录像按无踢墙规则重放；版本 3 的头部与版本 2 相同
+//   事件流 每个事件一个无符号 varint：(距上一事件的 tick 数 << 3) | 指令
+//          指令 0-4 对应 GameCommand（LOCK 为锁定延迟到期），END 表示录制结束
+//   尾部   varint 分数 | varint 消行数 | varint 方块数 | varint 总 tick 数
+final class ReplayFormat {
+    static final int MAGIC = 0x5452504C; // "TRPL"
+    static final int VERSION = 4;
+    static final int VERSION_3 = 3;
+    static final int VERSION_2 = 2;
+    static final int VERSION_1 = 1;
+    static final int VERSION_1_HEADER_SIZE = 4 + 1 + 1 + 8;
+    static final int VERSION_2_HEADER_SIZE = VERSION_1_HEADER_SIZE + 1 + 1;
+    static final int HEADER_SIZE = VERSION_2_HEADER_SIZE + 1;
+    static final int FLAG_LOCK_DELAY = 1;
+    static final int COMMAND_BITS = 3;
+    static final int COMMAND_MASK = (1 << COMMAND_BITS) - 1;
+    static final int END = COMMAND_MASK;
+
+    private ReplayFormat() {
+    }
+
+    static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+                | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    }
+
+    static long readLong(byte[] data, int offset) {
+        return ((long) readInt(data, offset) << 32) | (readInt(data, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    // 读取 data[cursor[0]] 开始的 varint，并把 cursor[0] 移到其后
+    static long readVarLong(byte[] data, int[] cursor) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int offset = cursor[0];
+        while (true) {
+            if (offset >= data.length || shift > 63) {
+                throw new IOException("Truncated or malformed replay");
+            }
+            byte b = data[offset++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+            shift += 7;
+        }
+        cursor[0] = offset;
+        return value;
+    }
+}
@@ -0,0 +1,212 @@
+package com.tetris.replay;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.PieceGenerators;
+import com.tetris.game.TetrisGame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// 无界面地以最高速度重放录像；首次播放时每隔一定 tick 保存关键帧，之后可以快速跳转
+public class ReplayPlayer {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 600;
+    private static final int NO_COMMAND = -1;
+
+    private final byte[] data;
+    private final int generatorType;
+    private final long seed;
+    private final int width;
+    private final int height;
+    private final boolean wallKicks;
+    private final boolean lockDelay;
+    private final int keyframeInterval;
+    private final TetrisGame game;
+    private final List<Keyframe> keyframes = new ArrayList<>();
+
+    // 播放位置
+    private final int[] cursor = new int[1];
+    private long tick;
+    private long pendingTicks;
+    private int pendingCommand = NO_COMMAND;
+    private boolean ended;
+
+    // 录像尾部记录的最终结果
+    private long recordedScore;
+    private long recordedLines;
+    private long recordedPieces;
+    private long recordedTicks;
+
+    public ReplayPlayer(byte[] data) throws IOException {
+        this(data, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public ReplayPlayer(byte[] data, int keyframeInterval) throws IOException {
+        if (data.length < ReplayFormat.VERSION_1_HEADER_SIZE
+                || ReplayFormat.readInt(data, 0) != ReplayFormat.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int headerSize;
+        int flags = 0;
+        int version = data[4];
+        if (version == ReplayFormat.VERSION && data.length >= ReplayFormat.HEADER_SIZE) {
+            headerSize = ReplayFormat.HEADER_SIZE;
+            width = data[14] & 0xFF;
+            height = data[15] & 0xFF;
+            flags = data[16];
+        } else if ((version == ReplayFormat.VERSION_3 || version == ReplayFormat.VERSION_2)
+                && data.length >= ReplayFormat.VERSION_2_HEADER_SIZE) {
+            headerSize = ReplayFormat.VERSION_2_HEADER_SIZE;
+            width = data[14] & 0xFF;
+            height = data[15] & 0xFF;
+        } else if (version == ReplayFormat.VERSION_1) {
+            headerSize = ReplayFormat.VERSION_1_HEADER_SIZE;
+            width = GameGrid.DEFAULT_WIDTH;
+            height = GameGrid.DEFAULT_HEIGHT;
+        } else {
+            throw new IOException("Unsupported replay version: " + version);
+        }
+        this.wallKicks = version >= ReplayFormat.VERSION_3;
+        this.lockDelay = (flags & ReplayFormat.FLAG_LOCK_DELAY) != 0;
+        this.data = data;
+        this.generatorType = data[5];
+        this.seed = ReplayFormat.readLong(data, 6);
+        this.keyframeInterval = keyframeInterval;
+
+        try {
+            game = newGame();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unsupported board size in replay", e);
+        }
+        game.start();
+        cursor[0] = headerSize;
+        addKeyframe();
+    }
+
+    public void playToEnd() throws IOException {
+        advanceTo(Long.MAX_VALUE);
+    }
+
+    // 跳转到第 targetTick 个 tick 之后、下一个 tick 之前的状态
+    public void seek(long targetTick) throws IOException {
+        Keyframe keyframe = keyframes.get(0);
+        for (Keyframe candidate : keyframes) {
+            if (candidate.tick > targetTick) {
+                break;
+            }
+            keyframe = candidate;
+        }
+
+        // 目标在当前位置之前，或者关键帧比当前位置更近时，从关键帧恢复
+        if (targetTick < tick || keyframe.tick > tick) {
+            game.copyFrom(keyframe.state);
+            tick = keyframe.tick;
+            cursor[0] = keyframe.offset;
+            pendingTicks = 0;
+            pendingCommand = NO_COMMAND;
+            ended = false;
+        }
+        advanceTo(targetTick);
+    }
+
+    // 重放整局并与录像尾部记录的结果比对
+    public boolean verify() throws IOException {
+        playToEnd();
+        return game.getScore() == recordedScore
+                && game.getLinesCleared() == recordedLines
+                && game.getPiecesSpawned() == recordedPieces
+                && game.getTicks() == recordedTicks;
+    }
+
+    private void advanceTo(long targetTick) throws IOException {
+        while (!ended) {
+            if (pendingCommand == NO_COMMAND) {
+                long event = ReplayFormat.readVarLong(data, cursor);
+                pendingTicks = event >>> ReplayFormat.COMMAND_BITS;
+                pendingCommand = (int) (event & ReplayFormat.COMMAND_MASK);
+            }
+
+            while (pendingTicks > 0) {
+                if (tick >= targetTick) {
+                    return;
+                }
+                game.update();
+                tick++;
+                pendingTicks--;
+            }
+
+            if (pendingCommand == ReplayFormat.END) {
+                readTrailer();
+                return;
+            }
+            game.apply(pendingCommand);
+            pendingCommand = NO_COMMAND;
+
+            if (tick >= keyframes.get(keyframes.size() - 1).tick + keyframeInterval
+                    && cursor[0] > keyframes.get(keyframes.size() - 1).offset) {
+                addKeyframe();
+            }
+        }
+    }
+
+    private void readTrailer() throws IOException {
+        recordedScore = ReplayFormat.readVarLong(data, cursor);
+        recordedLines = ReplayFormat.readVarLong(data, cursor);
+        recordedPieces = ReplayFormat.readVarLong(data, cursor);
+        recordedTicks = ReplayFormat.readVarLong(data, cursor);
+        ended = true;
+    }
+
+    private void addKeyframe() {
+        TetrisGame state = newGame();
+        state.copyFrom(game);
+        keyframes.add(new Keyframe(tick, cursor[0], state));
+    }
+
+    private TetrisGame newGame() {
+        TetrisGame game = new TetrisGame(PieceGenerators.create(generatorType, seed), width, height);
+        game.setWallKicksEnabled(wallKicks);
+        game.setLockDelayEnabled(lockDelay);
+        return game;
+    }
+
+    public TetrisGame getGame() {
+        return game;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getRecordedScore() {
+        return recordedScore;
+    }
+
+    public long getRecordedLines() {
+        return recordedLines;
+    }
+
+    public long getRecordedTicks() {
+        return recordedTicks;
+    }
+
+    private static class Keyframe {
+        final long tick;
+        final int offset;
+        final TetrisGame state;
+
+        Keyframe(long tick, int offset, TetrisGame state) {
+            this.tick = tick;
+            this.offset = offset;
+            this.state = state;
+        }
+    }
+}
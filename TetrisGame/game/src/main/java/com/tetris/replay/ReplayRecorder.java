@@ -0,0 +1,112 @@
+package com.tetris.replay;
+
+import com.tetris.game.GameInputListener;
+import com.tetris.game.PieceGenerators;
+import com.tetris.game.TetrisGame;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// 录制一局游戏的输入与重力 tick，编码见 ReplayFormat。
+// 输入和 tick 可能来自不同线程，所有写入都加锁
+public class ReplayRecorder implements GameInputListener {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int size;
+    private long ticksSinceEvent;
+    private TetrisGame game;
+    private boolean finished;
+
+    // 用给定种子重置游戏并开始录制，之前的录制内容被丢弃
+    public synchronized void begin(TetrisGame game, long seed) {
+        if (this.game != null) {
+            this.game.setGameInputListener(null);
+        }
+        this.game = game;
+        size = 0;
+        ticksSinceEvent = 0;
+        finished = false;
+
+        writeInt(ReplayFormat.MAGIC);
+        writeByte(ReplayFormat.VERSION);
+        writeByte(PieceGenerators.typeOf(game.getPieceGenerator()));
+        writeInt((int) (seed >>> 32));
+        writeInt((int) seed);
+        writeByte(game.getGrid().getWidth());
+        writeByte(game.getGrid().getHeight());
+        writeByte(game.isLockDelayEnabled() ? ReplayFormat.FLAG_LOCK_DELAY : 0);
+
+        game.getPieceGenerator().setSeed(seed);
+        game.reset();
+        game.setGameInputListener(this);
+    }
+
+    // 结束录制并写入尾部；之后的输入不再记录
+    public synchronized void end() {
+        if (game == null || finished) {
+            return;
+        }
+        game.setGameInputListener(null);
+        writeEvent(ReplayFormat.END);
+        writeVarLong(game.getScore());
+        writeVarLong(game.getLinesCleared());
+        writeVarLong(game.getPiecesSpawned());
+        writeVarLong(game.getTicks());
+        finished = true;
+    }
+
+    @Override
+    public synchronized void onCommand(int command) {
+        writeEvent(command);
+    }
+
+    @Override
+    public synchronized void onTick() {
+        ticksSinceEvent++;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public synchronized byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    private void writeEvent(int command) {
+        writeVarLong(ticksSinceEvent << ReplayFormat.COMMAND_BITS | command);
+        ticksSinceEvent = 0;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeInt(int value) {
+        writeByte(value >>> 24);
+        writeByte(value >>> 16);
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    private void writeByte(int value) {
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, size * 2);
+        }
+        buffer[size++] = (byte) value;
+    }
+}
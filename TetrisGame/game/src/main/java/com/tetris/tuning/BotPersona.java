@@ -0,0 +1,18 @@
+package com.tetris.tuning;
+
+// 模拟玩家的操作能力：每个新方块出现后的反应时间，以及两次输入之间的最短间隔
+public class BotPersona {
+    public static final BotPersona CASUAL = new BotPersona("casual", 600, 180);
+    public static final BotPersona REGULAR = new BotPersona("regular", 350, 120);
+    public static final BotPersona EXPERT = new BotPersona("expert", 150, 60);
+
+    public final String name;
+    public final int reactionMillis;
+    public final int inputIntervalMillis;
+
+    public BotPersona(String name, int reactionMillis, int inputIntervalMillis) {
+        this.name = name;
+        this.reactionMillis = reactionMillis;
+        this.inputIntervalMillis = inputIntervalMillis;
+    }
+}
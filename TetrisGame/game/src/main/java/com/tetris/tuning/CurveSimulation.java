@@ -0,0 +1,93 @@
+package com.tetris.tuning;
+
+import com.tetris.ai.AutoPlayer;
+import com.tetris.ai.WeightedHeuristic;
+import com.tetris.game.BagGenerator;
+import com.tetris.game.GameCommand;
+import com.tetris.game.SpeedCurve;
+import com.tetris.game.TetrisGame;
+import com.tetris.game.Tetromino;
+import com.tetris.game.TimingEngine;
+
+// 在模拟时钟上跑一局游戏：与界面相同，开启锁定延迟，由 TimingEngine 按速度曲线推进重力和锁定计时，
+// 机器人按反应时间和输入间隔逐步操作。不做任何真实等待，返回存活的模拟时长与得分
+class CurveSimulation {
+    private static final long MS = 1_000_000L;
+    // 按 60Hz 的渲染帧推进引擎，与界面上每帧调用 advance 一致
+    private static final long FRAME_NANOS = 16_666_667L;
+
+    private final TetrisGame game = new TetrisGame(new BagGenerator(0));
+    private final TimingEngine engine = new TimingEngine();
+    private final AutoPlayer bot = new AutoPlayer(WeightedHeuristic.DEFAULT);
+
+    CurveSimulation() {
+        game.setLockDelayEnabled(true);
+    }
+
+    GameResult play(SpeedCurve curve, BotPersona persona, long seed, long maxMillis) {
+        game.setSpeedCurve(curve);
+        game.getPieceGenerator().setSeed(seed);
+        game.reset();
+        game.start();
+        engine.setGame(game);
+        engine.setTickPhaseNanos(0);
+        engine.start(0);
+
+        long now = 0;
+        long maxNanos = maxMillis * MS;
+        while (!game.isGameOver() && now < maxNanos) {
+            int piece = game.getPiecesSpawned();
+            AutoPlayer.Placement target = bot.findBest(game);
+            long nextInput = now + persona.reactionMillis * MS;
+
+            while (!game.isGameOver() && game.getPiecesSpawned() == piece) {
+                now = Math.min(now + FRAME_NANOS, nextInput);
+                engine.advance(now);
+                if (now == nextInput && !game.isGameOver() && game.getPiecesSpawned() == piece) {
+                    stepToward(target, now);
+                    nextInput += persona.inputIntervalMillis * MS;
+                }
+            }
+        }
+
+        return new GameResult(Math.min(now / MS, maxMillis), game.getScore(), game.getLinesCleared(),
+                game.getLevel());
+    }
+
+    // 每次只做一个操作：先旋转，再平移，到位或操作失败时直接落下。
+    // 操作经过引擎，着地时的移动和旋转会像界面上一样重新开始锁定计时；
+    // 重置次数用完时这次操作本身就会固定方块，此时不再对新方块补一次落下
+    private void stepToward(AutoPlayer.Placement target, long now) {
+        Tetromino piece = game.getCurrentTetromino();
+        if (target == null) {
+            engine.accept(GameCommand.DROP, now);
+            return;
+        }
+
+        int spawned = game.getPiecesSpawned();
+        int rotation = piece.getRotation();
+        int x = piece.getX();
+        if (rotation != target.rotation) {
+            engine.accept(GameCommand.ROTATE, now);
+        } else if (x != target.x) {
+            engine.accept(x < target.x ? GameCommand.MOVE_RIGHT : GameCommand.MOVE_LEFT, now);
+        }
+        if (game.getPiecesSpawned() == spawned && piece.getRotation() == rotation && piece.getX() == x) {
+            engine.accept(GameCommand.DROP, now);
+        }
+    }
+
+    static class GameResult {
+        final long survivalMillis;
+        final int score;
+        final int lines;
+        final int level;
+
+        GameResult(long survivalMillis, int score, int lines, int level) {
+            this.survivalMillis = survivalMillis;
+            this.score = score;
+            this.lines = lines;
+            this.level = level;
+        }
+    }
+}
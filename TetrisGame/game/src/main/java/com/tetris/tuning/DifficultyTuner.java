@@ -0,0 +1,137 @@
+package com.tetris.tuning;
+
+import com.tetris.game.SpeedCurve;
+import com.tetris.game.SplitMix64;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// 蒙特卡洛难度调参：在所有 CPU 核上并行模拟大量对局，
+// 对每条候选速度曲线和每种玩家能力输出存活时长与得分分布。
+// 用法：./gradlew :game:runTuner -Pgames=200 -PmaxMinutes=30
+public class DifficultyTuner {
+    private static final int DEFAULT_GAMES = 200;
+    // 单局模拟时长上限默认 30 分钟，超过即视为"能一直玩下去"
+    private static final int DEFAULT_MAX_MINUTES = 30;
+
+    private static final ThreadLocal<CurveSimulation> SIMULATION = new ThreadLocal<CurveSimulation>() {
+        @Override
+        protected CurveSimulation initialValue() {
+            return new CurveSimulation();
+        }
+    };
+
+    private final ExecutorService executor;
+    private final long maxGameMillis;
+
+    public DifficultyTuner(int threads, long maxGameMillis) {
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.maxGameMillis = maxGameMillis;
+    }
+
+    public Summary evaluate(final SpeedCurve curve, final BotPersona persona, int games, long seed)
+            throws Exception {
+        // 每局使用从同一父种子派生的独立种子，保证结果可复现
+        SplitMix64 seeds = new SplitMix64(seed);
+        List<Future<CurveSimulation.GameResult>> futures = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            final long gameSeed = seeds.nextLong();
+            futures.add(executor.submit(new Callable<CurveSimulation.GameResult>() {
+                @Override
+                public CurveSimulation.GameResult call() {
+                    return SIMULATION.get().play(curve, persona, gameSeed, maxGameMillis);
+                }
+            }));
+        }
+
+        long[] survival = new long[games];
+        long[] scores = new long[games];
+        for (int i = 0; i < games; i++) {
+            CurveSimulation.GameResult result = futures.get(i).get();
+            survival[i] = result.survivalMillis;
+            scores[i] = result.score;
+        }
+        return new Summary(survival, scores);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public static class Summary {
+        private final long[] survivalMillis;
+        private final long[] scores;
+
+        Summary(long[] survivalMillis, long[] scores) {
+            this.survivalMillis = survivalMillis;
+            this.scores = scores;
+            Arrays.sort(this.survivalMillis);
+            Arrays.sort(this.scores);
+        }
+
+        public long survivalPercentile(double p) {
+            return percentile(survivalMillis, p);
+        }
+
+        public long scorePercentile(double p) {
+            return percentile(scores, p);
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+            return sorted[index];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("survival p10/p50/p90 = %6.1f/%6.1f/%6.1f s  score p10/p50/p90 = %d/%d/%d",
+                    survivalPercentile(0.1) / 1000.0, survivalPercentile(0.5) / 1000.0,
+                    survivalPercentile(0.9) / 1000.0,
+                    scorePercentile(0.1), scorePercentile(0.5), scorePercentile(0.9));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        int maxMinutes = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_MINUTES;
+
+        // 候选曲线：现有预设加上一组线性和指数曲线
+        Map<String, SpeedCurve> curves = new LinkedHashMap<>();
+        curves.put("classic", SpeedCurve.CLASSIC);
+        curves.put("easy", SpeedCurve.EASY);
+        curves.put("hard", SpeedCurve.HARD);
+        for (int step = 40; step <= 120; step += 40) {
+            curves.put("linear(1000," + step + ",100)", SpeedCurve.linear(1000, step, 100));
+        }
+        for (double ratio = 0.75; ratio <= 0.91; ratio += 0.05) {
+            curves.put(String.format("geometric(1000,%.2f,50)", ratio), SpeedCurve.geometric(1000, ratio, 50));
+        }
+        BotPersona[] personas = {BotPersona.CASUAL, BotPersona.REGULAR, BotPersona.EXPERT};
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        DifficultyTuner tuner = new DifficultyTuner(threads, maxMinutes * 60 * 1000L);
+        System.out.printf("%d games per curve/persona on %d threads, capped at %d min%n",
+                games, threads, maxMinutes);
+        long start = System.nanoTime();
+        try {
+            for (Map.Entry<String, SpeedCurve> entry : curves.entrySet()) {
+                System.out.println(entry.getKey() + "  [" + entry.getValue() + "]");
+                for (BotPersona persona : personas) {
+                    Summary summary = tuner.evaluate(entry.getValue(), persona, games, seed);
+                    System.out.printf("  %-8s %s%n", persona.name, summary);
+                }
+            }
+        } finally {
+            tuner.shutdown();
+        }
+        System.out.printf("done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,217 @@
+package com.tetris.versus;
+
+import com.tetris.ai.AutoPlayer;
+import com.tetris.ai.WeightedHeuristic;
+import com.tetris.game.BagGenerator;
+import com.tetris.game.TetrisGame;
+import com.tetris.game.Tetromino;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+// 127.0.0.1 上的无界面对战：两个自动玩家按给定 APM 逐个按键操作，各自的会话通过真实的
+// 非阻塞 TCP 连接互相同步棋盘和发送垃圾行，单线程用一个 Selector 驱动两端。
+// 游戏时间按固定帧长模拟，与墙上时间无关，带宽按模拟的游戏时间折算成每秒字节数。
+// 结束后等待双方的镜像棋盘追上，检查差量同步是否与真实棋盘逐行一致
+public class LoopbackMatch {
+    private static final long FRAME_NANOS = 16_666_667L;
+    private static final int DEFAULT_APM = 300;
+    private static final int DEFAULT_SECONDS = 120;
+    // 结束后等待最后几帧到达的墙上时间
+    private static final long DRAIN_TIMEOUT_NANOS = 2_000_000_000L;
+
+    private final int apm;
+    private final long durationNanos;
+    private final long seed;
+
+    public LoopbackMatch(int apm, int seconds, long seed) {
+        this.apm = apm;
+        this.durationNanos = seconds * 1_000_000_000L;
+        this.seed = seed;
+    }
+
+    public Result run() throws IOException {
+        Selector selector = Selector.open();
+        ServerSocketChannel server = ServerSocketChannel.open();
+        SocketChannel hostSocket = null;
+        SocketChannel guestSocket = null;
+        try {
+            server.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            guestSocket = SocketChannel.open(server.socket().getLocalSocketAddress());
+            hostSocket = server.accept();
+
+            // 两名玩家的方块序列相同，只有空洞列和操作节奏不同
+            Player host = new Player(new VersusChannel(hostSocket), seed, seed * 31 + 1);
+            Player guest = new Player(new VersusChannel(guestSocket), seed, seed * 31 + 2);
+            host.session.getChannel().register(selector, host.session);
+            guest.session.getChannel().register(selector, guest.session);
+            host.start();
+            guest.start();
+
+            long now = 0;
+            while (now < durationNanos && !host.game.isGameOver() && !guest.game.isGameOver()) {
+                now += FRAME_NANOS;
+                host.step(now);
+                guest.step(now);
+                pump(selector, 0);
+            }
+
+            // 发出最终状态，等待对方的镜像追上
+            host.session.syncNow();
+            guest.session.syncNow();
+            long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+            while (!(host.mirrored(guest) && guest.mirrored(host)) && System.nanoTime() < deadline) {
+                pump(selector, 10);
+            }
+
+            return new Result(now, host, guest, host.mirrored(guest) && guest.mirrored(host));
+        } finally {
+            if (hostSocket != null) {
+                hostSocket.close();
+            }
+            if (guestSocket != null) {
+                guestSocket.close();
+            }
+            server.close();
+            selector.close();
+        }
+    }
+
+    private static void pump(Selector selector, long timeoutMillis) throws IOException {
+        int ready = timeoutMillis > 0 ? selector.select(timeoutMillis) : selector.selectNow();
+        if (ready == 0) {
+            return;
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            VersusSession session = (VersusSession) key.attachment();
+            if (key.isValid() && key.isReadable()) {
+                session.receive();
+            }
+            if (key.isValid() && key.isWritable()) {
+                session.flush();
+            }
+        }
+    }
+
+    private final class Player {
+        final TetrisGame game;
+        final VersusSession session;
+        final AutoPlayer bot = new AutoPlayer(WeightedHeuristic.DEFAULT);
+        final long actionNanos = 60_000_000_000L / apm;
+
+        // 当前方块的目标放置，以及已经为它按下的键数
+        AutoPlayer.Placement target;
+        int targetPiece;
+        int keys;
+        long nextActionAt;
+        long nextTickAt;
+        long actions;
+
+        Player(VersusChannel channel, long pieceSeed, long holeSeed) {
+            game = new TetrisGame(new BagGenerator(pieceSeed));
+            session = new VersusSession(game, channel, holeSeed);
+        }
+
+        void start() throws IOException {
+            game.start();
+            session.start(0);
+            nextActionAt = actionNanos;
+            nextTickAt = game.getDropSpeed() * 1_000_000L;
+        }
+
+        void step(long now) throws IOException {
+            while (now >= nextTickAt && !game.isGameOver()) {
+                game.update();
+                session.afterAction();
+                nextTickAt += game.getDropSpeed() * 1_000_000L;
+            }
+            while (now >= nextActionAt && !game.isGameOver()) {
+                press();
+                session.afterAction();
+                actions++;
+                nextActionAt += actionNanos;
+            }
+            session.sync(now);
+        }
+
+        // 每次只按一个键：先旋转到目标状态，再逐格平移，最后硬降；
+        // 目标被重力或垃圾行打乱、按键次数超出棋盘宽度时直接硬降
+        private void press() {
+            Tetromino piece = game.getCurrentTetromino();
+            if (target == null || targetPiece != game.getPiecesSpawned()) {
+                target = bot.findBest(game);
+                targetPiece = game.getPiecesSpawned();
+                keys = 0;
+            }
+            keys++;
+            if (target == null || keys > game.getGrid().getWidth()) {
+                game.dropDown();
+            } else if (piece.getRotation() != target.rotation) {
+                game.rotate();
+            } else if (piece.getX() > target.x) {
+                game.moveLeft();
+            } else if (piece.getX() < target.x) {
+                game.moveRight();
+            } else {
+                game.dropDown();
+            }
+        }
+
+        // 对手会话中的镜像是否与本方真实棋盘一致
+        boolean mirrored(Player opponent) {
+            return opponent.session.getOpponent().matches(game.getGrid());
+        }
+    }
+
+    public static class Result {
+        public final long gameNanos;
+        public final boolean mirrorsMatch;
+        private final Player host;
+        private final Player guest;
+
+        Result(long gameNanos, Player host, Player guest, boolean mirrorsMatch) {
+            this.gameNanos = gameNanos;
+            this.host = host;
+            this.guest = guest;
+            this.mirrorsMatch = mirrorsMatch;
+        }
+
+        private double seconds() {
+            return Math.max(gameNanos, 1) / 1e9;
+        }
+
+        private String describe(String name, Player player) {
+            VersusChannel channel = player.session.getChannel();
+            return String.format("%s: pieces=%d lines=%d apm=%.0f attack=%d garbage=%d%s"
+                            + " sent=%dB (%.1f B/s, %.1f frames/s, %.1f writes/s)",
+                    name, player.game.getPiecesSpawned(), player.game.getLinesCleared(),
+                    player.actions * 60 / seconds(), player.session.getAttackLinesSent(),
+                    player.session.getGarbageLinesReceived(), player.game.isGameOver() ? " topped-out" : "",
+                    channel.getBytesSent(), channel.getBytesSent() / seconds(),
+                    channel.getFramesSent() / seconds(), channel.getWrites() / seconds());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("time=%.1fs mirrors=%s%n  %s%n  %s", seconds(),
+                    mirrorsMatch ? "match" : "MISMATCH", describe("host", host), describe("guest", guest));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int apm = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_APM;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        System.out.println(new LoopbackMatch(apm, seconds, seed).run());
+    }
+}
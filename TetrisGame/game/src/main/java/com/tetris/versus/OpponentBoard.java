@@ -0,0 +1,122 @@
+package com.tetris.versus;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.RotationTable;
+import com.tetris.game.Tetromino;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// 由 SYNC 帧重建的对手棋盘：只有每行的占用掩码（不含颜色）和当前方块位置，足够绘制缩略图
+public final class OpponentBoard {
+    private static final Tetromino.Shape[] SHAPES = Tetromino.Shape.values();
+
+    private final int width;
+    private final int height;
+    private final long[] rowMasks;
+    private Tetromino.Shape pieceShape;
+    private int pieceRotation;
+    private int pieceX;
+    private int pieceY;
+    private boolean gameOver;
+    private int score;
+    private int linesCleared;
+    private long syncs;
+
+    OpponentBoard(int width, int height) {
+        this.width = width;
+        this.height = height;
+        rowMasks = new long[height];
+    }
+
+    void applySync(ByteBuffer in) throws IOException {
+        int flags = in.get();
+        if ((flags & VersusProtocol.SYNC_ROWS) != 0) {
+            int count = in.get() & 0xFF;
+            for (int i = 0; i < count; i++) {
+                int y = in.get() & 0xFF;
+                long mask = VersusProtocol.getVarLong(in);
+                if (y >= height) {
+                    throw new IOException("Bad row in sync: " + y);
+                }
+                rowMasks[y] = mask;
+            }
+        }
+        if ((flags & VersusProtocol.SYNC_PIECE) != 0) {
+            int shape = in.get();
+            int rotation = in.get();
+            if (shape < 0 || shape >= SHAPES.length || rotation < 0 || rotation >= RotationTable.STATES) {
+                throw new IOException("Bad piece in sync: " + shape + "/" + rotation);
+            }
+            pieceShape = SHAPES[shape];
+            pieceRotation = rotation;
+            pieceX = in.get();
+            pieceY = in.getShort();
+        }
+        syncs++;
+    }
+
+    void setGameOver(int score, int linesCleared) {
+        gameOver = true;
+        this.score = score;
+        this.linesCleared = linesCleared;
+    }
+
+    // 与对手的真实棋盘逐行比较，用于回环测试
+    public boolean matches(GameGrid grid) {
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            return false;
+        }
+        for (int y = 0; y < height; y++) {
+            if (grid.getRowMask(y) != rowMasks[y]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getRowMask(int y) {
+        return rowMasks[y];
+    }
+
+    // 尚未收到方块位置时为 null
+    public Tetromino.Shape getPieceShape() {
+        return pieceShape;
+    }
+
+    public int getPieceRotation() {
+        return pieceRotation;
+    }
+
+    public int getPieceX() {
+        return pieceX;
+    }
+
+    public int getPieceY() {
+        return pieceY;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    public long getSyncs() {
+        return syncs;
+    }
+}
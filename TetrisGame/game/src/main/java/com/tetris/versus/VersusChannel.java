@@ -0,0 +1,151 @@
+package com.tetris.versus;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+// 非阻塞 SocketChannel 上的分帧读写（帧格式见 VersusProtocol）。
+// 发送的帧先写入缓冲区，flush() 尽量写出，写不完时关注 OP_WRITE 等下次可写；
+// 读取时把已到达的完整帧逐个交给 FrameHandler，不完整的尾部留到下次。
+// 只允许一个线程使用（选择器线程）
+public final class VersusChannel {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    // 写模式：position 之前是待发送的数据
+    private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+    private int frameStart;
+    private SelectionKey key;
+
+    private long bytesSent;
+    private long bytesReceived;
+    private long framesSent;
+    private long writes;
+
+    public VersusChannel(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(false);
+        // 帧都很小且对延迟敏感，不等待 Nagle 合并
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    public SelectionKey register(Selector selector, Object attachment) throws ClosedChannelException {
+        key = channel.register(selector, SelectionKey.OP_READ, attachment);
+        return key;
+    }
+
+    // 开始写一帧：返回的缓冲区至少还能写入 maxPayload 字节，写完负载后调用 endFrame()
+    ByteBuffer beginFrame(int type, int maxPayload) {
+        int required = VersusProtocol.HEADER_SIZE + maxPayload;
+        if (out.remaining() < required) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + required));
+            out.flip();
+            larger.put(out);
+            out = larger;
+        }
+        frameStart = out.position();
+        out.putShort((short) 0);
+        out.put((byte) type);
+        return out;
+    }
+
+    void endFrame() {
+        int length = out.position() - frameStart - VersusProtocol.HEADER_SIZE;
+        if (length > VersusProtocol.MAX_PAYLOAD) {
+            throw new IllegalStateException("Frame too large: " + length);
+        }
+        out.putShort(frameStart, (short) length);
+        framesSent++;
+    }
+
+    // 尽量写出缓冲的数据，返回是否已全部写出
+    public boolean flush() throws IOException {
+        if (out.position() > 0) {
+            out.flip();
+            int written = channel.write(out);
+            out.compact();
+            if (written > 0) {
+                bytesSent += written;
+                writes++;
+            }
+        }
+        boolean done = out.position() == 0;
+        if (key != null && key.isValid()) {
+            int ops = done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+        return done;
+    }
+
+    // 读取已到达的数据并逐帧回调，返回处理的帧数；对端关闭连接时返回 -1
+    int read(FrameHandler handler) throws IOException {
+        int read = channel.read(in);
+        if (read < 0) {
+            return -1;
+        }
+        bytesReceived += read;
+
+        in.flip();
+        int frames = 0;
+        try {
+            while (in.remaining() >= VersusProtocol.HEADER_SIZE) {
+                int start = in.position();
+                int length = in.getShort(start) & 0xFFFF;
+                if (VersusProtocol.HEADER_SIZE + length > in.capacity()) {
+                    throw new IOException("Frame too large: " + length);
+                }
+                if (in.remaining() < VersusProtocol.HEADER_SIZE + length) {
+                    break;
+                }
+                int type = in.get(start + 2);
+                int end = start + VersusProtocol.HEADER_SIZE + length;
+                int limit = in.limit();
+                // 负载之外的数据对回调不可见，读过头时抛出 BufferUnderflowException
+                in.position(start + VersusProtocol.HEADER_SIZE);
+                in.limit(end);
+                handler.onFrame(type, in);
+                in.limit(limit);
+                in.position(end);
+                frames++;
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Malformed frame", e);
+        } finally {
+            in.compact();
+        }
+        return frames;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // 应用层字节数，不含 TCP/IP 头部
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    // 实际发生的 write 次数，近似于发出的 TCP 段数
+    public long getWrites() {
+        return writes;
+    }
+
+    interface FrameHandler {
+        void onFrame(int type, ByteBuffer payload) throws IOException;
+    }
+}
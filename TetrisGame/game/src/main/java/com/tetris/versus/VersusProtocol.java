@@ -0,0 +1,53 @@
+package com.tetris.versus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// 对战协议，TCP 上的二进制帧，整数为大端序：
+//   帧头   short 负载长度 | byte 类型
+//   HELLO      byte 协议版本 | byte 宽 | byte 高（双方棋盘尺寸必须相同）
+//   SYNC       byte 内容标志
+//              | ROWS：byte 变化行数 n | n × (byte 行号 | varint 行占用掩码)
+//              | PIECE：byte 形状 | byte 旋转 | byte x | short y
+//              行掩码相对上一次发出的棋盘，只发送变化的行；当前方块位置变化时附带
+//   ATTACK     byte 行数 | byte 空洞列
+//   GAME_OVER  int 分数 | int 消行数
+final class VersusProtocol {
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 2 + 1;
+    static final int MAX_PAYLOAD = 0xFFFF;
+
+    static final int HELLO = 1;
+    static final int SYNC = 2;
+    static final int ATTACK = 3;
+    static final int GAME_OVER = 4;
+
+    static final int SYNC_ROWS = 1;
+    static final int SYNC_PIECE = 1 << 1;
+
+    private VersusProtocol() {
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift <= 63; shift += 7) {
+            if (!in.hasRemaining()) {
+                break;
+            }
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Truncated or malformed varint");
+    }
+}
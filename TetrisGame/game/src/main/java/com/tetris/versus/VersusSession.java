@@ -0,0 +1,351 @@
+package com.tetris.versus;
+
+import com.tetris.game.GameEventListener;
+import com.tetris.game.GameGrid;
+import com.tetris.game.SplitMix64;
+import com.tetris.game.TetrisGame;
+import com.tetris.game.Tetromino;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// 一名玩家的对战会话：把本地游戏的棋盘变化按行掩码差量同步给对手，把消行换算成攻击发出，
+// 并把对手送来的垃圾行在本地下一次不消行的固定时加入棋盘。
+// 会话接管游戏的 GameEventListener（原监听器通过 setGameEventListener 转发），
+// 所有方法都在驱动游戏的同一线程上调用
+public final class VersusSession {
+    // 默认每秒同步 10 次，每次只发送变化的行，带宽与方块数而不是帧率成正比
+    public static final long DEFAULT_SYNC_INTERVAL_NANOS = 100_000_000L;
+    // 一次消除 1-4 行送出的垃圾行数
+    private static final int[] ATTACK_LINES = {0, 0, 1, 2, 4};
+    // 等待加入棋盘的攻击条数上限，超出时并入最后一条
+    private static final int MAX_PENDING = 16;
+    private static final int SYNC_PIECE_SIZE = 5;
+
+    private final TetrisGame game;
+    private final VersusChannel channel;
+    private final OpponentBoard opponent;
+    private final SplitMix64 holeRandom;
+    private final long syncIntervalNanos;
+    private GameEventListener delegate;
+    private final VersusChannel.FrameHandler frameHandler = new VersusChannel.FrameHandler() {
+        @Override
+        public void onFrame(int type, ByteBuffer payload) throws IOException {
+            handleFrame(type, payload);
+        }
+    };
+
+    // 对手已知的棋盘和方块位置，下一次同步只发送与之不同的部分
+    private final long[] sentRows;
+    private int sentTop;
+    private int sentShape = -1;
+    private int sentRotation;
+    private int sentX;
+    private int sentY;
+    private long nextSyncAt;
+    private boolean gameOverSent;
+    private boolean helloReceived;
+    private boolean disconnected;
+
+    // 本次操作中发生的固定与消行，由 afterAction() 结算
+    private boolean pieceLocked;
+    private int linesJustCleared;
+
+    // 等待加入棋盘的垃圾行，按到达顺序排成环形队列
+    private final int[] pendingLines = new int[MAX_PENDING];
+    private final int[] pendingHoles = new int[MAX_PENDING];
+    private int pendingHead;
+    private int pendingCount;
+    private int pendingTotal;
+
+    private long attackLinesSent;
+    private long garbageLinesReceived;
+
+    public VersusSession(TetrisGame game, VersusChannel channel, long seed) {
+        this(game, channel, seed, DEFAULT_SYNC_INTERVAL_NANOS);
+    }
+
+    // seed 决定本方攻击的空洞列
+    public VersusSession(TetrisGame game, VersusChannel channel, long seed, long syncIntervalNanos) {
+        this.game = game;
+        this.channel = channel;
+        this.holeRandom = new SplitMix64(seed);
+        this.syncIntervalNanos = syncIntervalNanos;
+        GameGrid grid = game.getGrid();
+        opponent = new OpponentBoard(grid.getWidth(), grid.getHeight());
+        sentRows = new long[grid.getHeight()];
+        sentTop = grid.getHeight();
+        game.setGameEventListener(new GameEventListener() {
+            @Override
+            public void onScoreChanged(int score, int level, int linesCleared) {
+                if (delegate != null) {
+                    delegate.onScoreChanged(score, level, linesCleared);
+                }
+            }
+
+            @Override
+            public void onPieceSpawned(Tetromino current, Tetromino next) {
+                pieceLocked = true;
+                if (delegate != null) {
+                    delegate.onPieceSpawned(current, next);
+                }
+            }
+
+            @Override
+            public void onLinesCleared(int lines) {
+                linesJustCleared += lines;
+                if (delegate != null) {
+                    delegate.onLinesCleared(lines);
+                }
+            }
+
+            @Override
+            public void onGameOver(int score, int level, int linesCleared) {
+                if (delegate != null) {
+                    delegate.onGameOver(score, level, linesCleared);
+                }
+            }
+        });
+    }
+
+    public void setGameEventListener(GameEventListener delegate) {
+        this.delegate = delegate;
+    }
+
+    // 发出握手帧，连接建立后首先调用
+    public void start(long nowNanos) throws IOException {
+        GameGrid grid = game.getGrid();
+        ByteBuffer out = channel.beginFrame(VersusProtocol.HELLO, 3);
+        out.put((byte) VersusProtocol.VERSION);
+        out.put((byte) grid.getWidth());
+        out.put((byte) grid.getHeight());
+        channel.endFrame();
+        pieceLocked = false;
+        linesJustCleared = 0;
+        nextSyncAt = nowNanos;
+        channel.flush();
+    }
+
+    // 每次操作本地游戏（输入或重力 tick）之后调用：按本次固定的方块结算攻击，
+    // 消行时先抵消等待中的垃圾行，没有消行时把等待中的垃圾行加入棋盘
+    public void afterAction() throws IOException {
+        if (!pieceLocked) {
+            return;
+        }
+        pieceLocked = false;
+        int cleared = linesJustCleared;
+        linesJustCleared = 0;
+
+        if (cleared > 0) {
+            int attack = ATTACK_LINES[Math.min(cleared, ATTACK_LINES.length - 1)];
+            attack -= cancelPending(attack);
+            if (attack > 0) {
+                sendAttack(attack);
+            }
+        } else {
+            applyPending();
+        }
+    }
+
+    // 每帧调用：到达同步间隔时发送一次棋盘差量，并写出缓冲的帧；游戏结束时立即发送最终状态
+    public void sync(long nowNanos) throws IOException {
+        if (game.isGameOver() && !gameOverSent) {
+            writeSync();
+            ByteBuffer out = channel.beginFrame(VersusProtocol.GAME_OVER, 8);
+            out.putInt(game.getScore());
+            out.putInt(game.getLinesCleared());
+            channel.endFrame();
+            gameOverSent = true;
+        } else if (nowNanos >= nextSyncAt) {
+            writeSync();
+            nextSyncAt = nowNanos + syncIntervalNanos;
+        }
+        channel.flush();
+    }
+
+    // 立即发送一次差量，不等同步间隔
+    public void syncNow() throws IOException {
+        writeSync();
+        channel.flush();
+    }
+
+    // 通道可读时调用；对端关闭连接时返回 false
+    public boolean receive() throws IOException {
+        if (channel.read(frameHandler) < 0) {
+            disconnected = true;
+            return false;
+        }
+        return true;
+    }
+
+    // 通道可写时调用，继续写出上次没写完的数据
+    public boolean flush() throws IOException {
+        return channel.flush();
+    }
+
+    private void handleFrame(int type, ByteBuffer payload) throws IOException {
+        switch (type) {
+            case VersusProtocol.HELLO:
+                int version = payload.get();
+                int width = payload.get() & 0xFF;
+                int height = payload.get() & 0xFF;
+                if (version != VersusProtocol.VERSION) {
+                    throw new IOException("Unsupported versus protocol: " + version);
+                }
+                if (width != opponent.getWidth() || height != opponent.getHeight()) {
+                    throw new IOException("Board size mismatch: " + width + "x" + height);
+                }
+                helloReceived = true;
+                break;
+            case VersusProtocol.SYNC:
+                opponent.applySync(payload);
+                break;
+            case VersusProtocol.ATTACK:
+                int lines = payload.get() & 0xFF;
+                int hole = payload.get() & 0xFF;
+                if (hole >= opponent.getWidth()) {
+                    throw new IOException("Bad hole column: " + hole);
+                }
+                addPending(lines, hole);
+                break;
+            case VersusProtocol.GAME_OVER:
+                int score = payload.getInt();
+                opponent.setGameOver(score, payload.getInt());
+                break;
+            default:
+                // 未知类型的帧直接跳过，便于以后扩展协议
+                break;
+        }
+    }
+
+    private void writeSync() {
+        GameGrid grid = game.getGrid();
+        int height = grid.getHeight();
+        // 两次同步之间只有双方堆叠范围内的行可能不同
+        int top = Math.min(grid.getStackTop(), sentTop);
+        int changed = 0;
+        for (int y = top; y < height; y++) {
+            if (grid.getRowMask(y) != sentRows[y]) {
+                changed++;
+            }
+        }
+
+        Tetromino piece = game.getCurrentTetromino();
+        boolean pieceChanged = piece != null && !game.isGameOver()
+                && (piece.getShape().ordinal() != sentShape || piece.getRotation() != sentRotation
+                || piece.getX() != sentX || piece.getY() != sentY);
+        if (changed == 0 && !pieceChanged) {
+            return;
+        }
+
+        // 每行最多 1 字节行号加 10 字节 varint
+        ByteBuffer out = channel.beginFrame(VersusProtocol.SYNC, 2 + changed * 11 + SYNC_PIECE_SIZE);
+        out.put((byte) ((changed > 0 ? VersusProtocol.SYNC_ROWS : 0)
+                | (pieceChanged ? VersusProtocol.SYNC_PIECE : 0)));
+        if (changed > 0) {
+            out.put((byte) changed);
+            for (int y = top; y < height; y++) {
+                long mask = grid.getRowMask(y);
+                if (mask != sentRows[y]) {
+                    out.put((byte) y);
+                    VersusProtocol.putVarLong(out, mask);
+                    sentRows[y] = mask;
+                }
+            }
+            sentTop = grid.getStackTop();
+        }
+        if (pieceChanged) {
+            sentShape = piece.getShape().ordinal();
+            sentRotation = piece.getRotation();
+            sentX = piece.getX();
+            sentY = piece.getY();
+            out.put((byte) sentShape);
+            out.put((byte) sentRotation);
+            out.put((byte) sentX);
+            out.putShort((short) sentY);
+        }
+        channel.endFrame();
+    }
+
+    private void sendAttack(int lines) {
+        ByteBuffer out = channel.beginFrame(VersusProtocol.ATTACK, 2);
+        out.put((byte) lines);
+        out.put((byte) holeRandom.nextInt(game.getGrid().getWidth()));
+        channel.endFrame();
+        attackLinesSent += lines;
+    }
+
+    private void addPending(int lines, int hole) {
+        if (lines <= 0) {
+            return;
+        }
+        garbageLinesReceived += lines;
+        pendingTotal += lines;
+        if (pendingCount == MAX_PENDING) {
+            pendingLines[(pendingHead + pendingCount - 1) % MAX_PENDING] += lines;
+            return;
+        }
+        int tail = (pendingHead + pendingCount) % MAX_PENDING;
+        pendingLines[tail] = lines;
+        pendingHoles[tail] = hole;
+        pendingCount++;
+    }
+
+    // 从最早到达的攻击开始抵消，返回抵消掉的行数
+    private int cancelPending(int lines) {
+        int cancelled = 0;
+        while (pendingCount > 0 && cancelled < lines) {
+            int take = Math.min(lines - cancelled, pendingLines[pendingHead]);
+            pendingLines[pendingHead] -= take;
+            cancelled += take;
+            if (pendingLines[pendingHead] == 0) {
+                pendingHead = (pendingHead + 1) % MAX_PENDING;
+                pendingCount--;
+            }
+        }
+        pendingTotal -= cancelled;
+        return cancelled;
+    }
+
+    private void applyPending() {
+        while (pendingCount > 0 && !game.isGameOver()) {
+            game.addGarbage(pendingLines[pendingHead], pendingHoles[pendingHead]);
+            pendingHead = (pendingHead + 1) % MAX_PENDING;
+            pendingCount--;
+        }
+        pendingCount = 0;
+        pendingTotal = 0;
+    }
+
+    public OpponentBoard getOpponent() {
+        return opponent;
+    }
+
+    public VersusChannel getChannel() {
+        return channel;
+    }
+
+    public int getPendingGarbage() {
+        return pendingTotal;
+    }
+
+    public long getAttackLinesSent() {
+        return attackLinesSent;
+    }
+
+    public long getGarbageLinesReceived() {
+        return garbageLinesReceived;
+    }
+
+    public boolean isHelloReceived() {
+        return helloReceived;
+    }
+
+    public boolean isDisconnected() {
+        return disconnected;
+    }
+
+    public boolean isGameOverSent() {
+        return gameOverSent;
+    }
+}
@@ -0,0 +1,97 @@
+package com.tetris.game;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class GameSnapshotTest {
+
+    @Test
+    public void restoreReproducesTheSavedGame() throws IOException {
+        TetrisGame game = playedGame(new BagGenerator(3), 400);
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot.capture(game, 1234);
+
+        TetrisGame restored = new TetrisGame(new UniformGenerator(0));
+        assertEquals(1234, snapshot.restore(restored));
+        assertArrayEquals(stateOf(game), stateOf(restored));
+
+        // 恢复后两局继续按同样的输入推进，结果也完全一致
+        for (int i = 0; i < 500; i++) {
+            game.update();
+            restored.update();
+        }
+        assertArrayEquals(stateOf(game), stateOf(restored));
+    }
+
+    @Test
+    public void cellValuesAboveGarbageAreRejected() {
+        TetrisGame game = playedGame(new BagGenerator(5), 600);
+        byte[] bytes = snapshotOf(game);
+        // 最后一个字节属于棋盘最底行，底行在几百个 tick 后一定有方块
+        bytes[bytes.length - 1] = (byte) 0x9F;
+        assertCorruptSnapshotLeavesGameUnchanged(bytes);
+    }
+
+    @Test
+    public void badShapeIsRejected() {
+        TetrisGame game = playedGame(new UniformGenerator(9), 200);
+        byte[] bytes = snapshotOf(game);
+        // 头部 13 字节、尺寸和生成器类型 3 字节、均匀生成器状态 16 字节之后是当前方块的形状
+        bytes[13 + 3 + 16] = 42;
+        assertCorruptSnapshotLeavesGameUnchanged(bytes);
+    }
+
+    @Test
+    public void truncatedSnapshotIsRejected() {
+        byte[] bytes = snapshotOf(playedGame(new HistoryGenerator(1), 300));
+        byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assertCorruptSnapshotLeavesGameUnchanged(truncated);
+    }
+
+    private static void assertCorruptSnapshotLeavesGameUnchanged(byte[] bytes) {
+        TetrisGame target = playedGame(new BagGenerator(11), 300);
+        byte[] before = stateOf(target);
+        try {
+            GameSnapshot.fromByteArray(bytes).restore(target);
+            fail("corrupt snapshot was accepted");
+        } catch (IOException expected) {
+            // 预期的异常
+        }
+        assertArrayEquals(before, stateOf(target));
+    }
+
+    private static TetrisGame playedGame(PieceGenerator generator, int ticks) {
+        TetrisGame game = new TetrisGame(generator);
+        game.start();
+        for (int i = 0; i < ticks && !game.isGameOver(); i++) {
+            if (i % 3 == 0) {
+                game.rotate();
+            }
+            if (i % 5 == 0) {
+                game.moveLeft();
+            }
+            if (i % 7 == 0) {
+                game.moveRight();
+            }
+            game.update();
+        }
+        return game;
+    }
+
+    private static byte[] snapshotOf(TetrisGame game) {
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot.capture(game, 0);
+        return snapshot.toByteArray();
+    }
+
+    // 用存档字节比较完整状态
+    private static byte[] stateOf(TetrisGame game) {
+        return snapshotOf(game);
+    }
+}
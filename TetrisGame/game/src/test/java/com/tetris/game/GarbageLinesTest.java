@@ -0,0 +1,122 @@
+package com.tetris.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class GarbageLinesTest {
+
+    @Test
+    public void garbageShiftsTheStackUp() {
+        GameGrid grid = new GameGrid();
+        grid.setCell(3, 19, 2);
+        grid.setCell(3, 18, 5);
+        grid.clearDirtyRows();
+        assertFalse(grid.addGarbageLines(2, 7));
+
+        assertEquals(2, grid.getCell(3, 17));
+        assertEquals(5, grid.getCell(3, 16));
+        for (int y = 18; y < 20; y++) {
+            assertEquals(grid.getFullRowMask() & ~(1L << 7), grid.getRowMask(y));
+            assertEquals(GameGrid.GARBAGE_CELL, grid.getCell(0, y));
+            assertEquals(0, grid.getCell(7, y));
+        }
+        assertEquals(16, grid.getStackTop());
+        assertEquals(4, grid.getColumnHeight(3));
+        assertEquals(2, grid.getColumnHeight(0));
+        assertEquals(0, grid.getColumnHeight(7));
+        assertEquals(16, grid.getDirtyTop());
+        assertEquals(19, grid.getDirtyBottom());
+    }
+
+    @Test
+    public void garbageOnAnEmptyGridStartsTheStack() {
+        GameGrid grid = new GameGrid();
+        assertFalse(grid.addGarbageLines(3, 0));
+        assertEquals(17, grid.getStackTop());
+        assertEquals(3, grid.getColumnHeight(9));
+    }
+
+    @Test
+    public void overflowRescansForTheNewStackTop() {
+        // 只有顶部两行有方块，被顶出后上移过来的行都是空行
+        GameGrid grid = new GameGrid();
+        grid.setCell(4, 0, 1);
+        grid.setCell(4, 1, 1);
+        grid.clearDirtyRows();
+        assertTrue(grid.addGarbageLines(3, 2));
+
+        assertEquals(17, grid.getStackTop());
+        for (int y = 0; y < 17; y++) {
+            assertEquals("row " + y, 0, grid.getRowMask(y));
+        }
+        assertEquals(3, grid.getColumnHeight(4));
+        assertEquals(0, grid.getColumnHeight(2));
+        assertEquals(0, grid.getDirtyTop());
+    }
+
+    @Test
+    public void overflowKeepsRowsThatStayOnTheBoard() {
+        GameGrid grid = new GameGrid();
+        grid.setCell(1, 1, 3);
+        grid.setCell(1, 5, 6);
+        assertTrue(grid.addGarbageLines(2, 0));
+
+        assertEquals(6, grid.getCell(1, 3));
+        assertEquals(3, grid.getStackTop());
+        assertEquals(17, grid.getColumnHeight(1));
+    }
+
+    @Test
+    public void garbageUnderAFloatingPieceDoesNotRefundLockResets() {
+        TetrisGame game = new TetrisGame(new UniformGenerator(3));
+        game.setLockDelayEnabled(true);
+        GameGrid grid = game.getGrid();
+        for (int x = 0; x < 5; x++) {
+            grid.setCell(x, 12, 1);
+        }
+
+        // 方块落在左侧台阶上，再向右移出台阶，期间的每次移动都消耗一次锁定重置
+        Tetromino piece = game.getCurrentTetromino();
+        Tetromino.Shape shape = piece.getShape();
+        int rotation = piece.getRotation();
+        piece.setPosition(-RotationTable.minX(shape, rotation), piece.getY());
+        piece.setPosition(piece.getX(), piece.getY() + grid.dropDistance(piece));
+        while (game.isGrounded()) {
+            game.moveRight();
+        }
+        int resets = game.getLockResets();
+        int y = piece.getY();
+        assertTrue(resets > 0);
+
+        // 垃圾行正好升到方块下方：方块没有被推动，但已着地
+        int bottom = y + RotationTable.maxY(shape, rotation);
+        game.addGarbage(grid.getHeight() - 1 - bottom, 0);
+        assertEquals(y, piece.getY());
+        assertTrue(game.isGrounded());
+
+        // 方块没有到达更低的行，这次着地移动继续累计，而不是把重置次数清零
+        game.moveRight();
+        assertEquals(resets + 1, game.getLockResets());
+    }
+
+    @Test
+    public void pushedPieceKeepsItsLowestRow() {
+        TetrisGame game = new TetrisGame(new UniformGenerator(3));
+        game.setLockDelayEnabled(true);
+        Tetromino piece = game.getCurrentTetromino();
+        piece.setPosition(piece.getX(), piece.getY() + game.getGrid().dropDistance(piece));
+        game.moveLeft();
+        game.moveRight();
+        assertEquals(2, game.getLockResets());
+
+        // 落在底部的方块被两行垃圾推上去两行，仍在到达过的最低行上
+        int y = piece.getY();
+        game.addGarbage(2, 9);
+        assertEquals(y - 2, piece.getY());
+        game.moveLeft();
+        assertEquals(3, game.getLockResets());
+    }
+}
@@ -0,0 +1,132 @@
+package com.tetris.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.tetris.metrics.LatencyHistogram;
+
+import org.junit.Test;
+
+public class InputQueueTest {
+    private static final int STRESS_COMMANDS = 1000000;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBeAPowerOfTwo() {
+        new InputQueue(48);
+    }
+
+    @Test
+    public void drainsInOrderAndRejectsWhenFull() {
+        InputQueue queue = new InputQueue(4);
+        RecordingGame game = new RecordingGame(16);
+        TimingEngine engine = newEngine(game);
+        LatencyHistogram latency = new LatencyHistogram();
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(encode(i)));
+        }
+        assertFalse("queue of 4 accepted a fifth command", queue.offer(encode(4)));
+        assertEquals(4, queue.drainTo(engine, latency));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.drainTo(engine, latency));
+
+        // 下标越过容量后继续按顺序环绕
+        for (int i = 4; i < 10; i += 2) {
+            assertTrue(queue.offer(encode(i)));
+            assertTrue(queue.offer(encode(i + 1)));
+            assertEquals(2, queue.drainTo(engine, latency));
+        }
+        assertEquals(10, game.count);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, game.received[i]);
+        }
+        assertEquals(10, latency.getCount());
+    }
+
+    @Test
+    public void oldestDrainedIsTheFirstEnqueueTime() {
+        InputQueue queue = new InputQueue(8);
+        TimingEngine engine = newEngine(new RecordingGame(8));
+        long before = System.nanoTime();
+        queue.offer(encode(0));
+        long between = System.nanoTime();
+        queue.offer(encode(1));
+        queue.drainTo(engine, null);
+
+        long oldest = queue.getOldestDrainedNanos();
+        assertTrue(oldest >= before);
+        assertTrue(oldest <= between);
+    }
+
+    // 生产者线程不停写入带序号的指令，队列满时让出；消费者收到的序号必须连续且不重复
+    @Test
+    public void producerAndConsumerThreadsKeepOrder() throws InterruptedException {
+        final InputQueue queue = new InputQueue(64);
+        RecordingGame game = new RecordingGame(STRESS_COMMANDS);
+        TimingEngine engine = newEngine(game);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < STRESS_COMMANDS; i++) {
+                    while (!queue.offer(encode(i))) {
+                        Thread.yield();
+                    }
+                }
+            }
+        }, "input-producer");
+        producer.start();
+
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (game.count < STRESS_COMMANDS && System.nanoTime() < deadline) {
+            if (queue.drainTo(engine, null) == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+
+        assertEquals(STRESS_COMMANDS, game.count);
+        for (int i = 0; i < STRESS_COMMANDS; i++) {
+            if (game.received[i] != i) {
+                assertEquals("command #" + i, i, game.received[i]);
+            }
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    private static TimingEngine newEngine(TetrisGame game) {
+        TimingEngine engine = new TimingEngine();
+        engine.setGame(game);
+        engine.start(System.nanoTime());
+        return engine;
+    }
+
+    // 序号编码成不带 HOLD 位的指令，TimingEngine 会原样交给 TetrisGame.apply
+    private static int encode(int sequence) {
+        return (sequence & 0xFF) | (sequence >>> 8 << 9);
+    }
+
+    private static int decode(int command) {
+        return (command & 0xFF) | (command >>> 9 << 8);
+    }
+
+    // 只记录收到的指令，不执行重力，测试期间局面保持不变
+    private static final class RecordingGame extends TetrisGame {
+        final int[] received;
+        int count;
+
+        RecordingGame(int capacity) {
+            super(new BagGenerator(0));
+            received = new int[capacity];
+        }
+
+        @Override
+        public void apply(int command) {
+            received[count++] = decode(command);
+        }
+
+        @Override
+        public void update() {
+        }
+    }
+}
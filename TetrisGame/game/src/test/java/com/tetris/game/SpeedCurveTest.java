@@ -0,0 +1,94 @@
+package com.tetris.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SpeedCurveTest {
+
+    @Test
+    public void classicMatchesTheOriginalLinearFormula() {
+        for (int level = 1; level <= SpeedCurve.MAX_LEVEL + 10; level++) {
+            assertEquals("level " + level, Math.max(100, 1000 - (level - 1) * 100),
+                    SpeedCurve.CLASSIC.dropSpeed(level));
+        }
+    }
+
+    @Test
+    public void levelsOutsideTheTableAreClamped() {
+        SpeedCurve curve = SpeedCurve.parse("900,500,300");
+        assertEquals(900, curve.dropSpeed(0));
+        assertEquals(900, curve.dropSpeed(-5));
+        assertEquals(300, curve.dropSpeed(3));
+        assertEquals(300, curve.dropSpeed(100));
+    }
+
+    @Test
+    public void parseReadsToString() {
+        SpeedCurve[] curves = {SpeedCurve.EASY, SpeedCurve.NORMAL, SpeedCurve.HARD};
+        for (SpeedCurve curve : curves) {
+            SpeedCurve parsed = SpeedCurve.parse(curve.toString());
+            assertEquals(curve.toString(), parsed.toString());
+            for (int level = 1; level <= SpeedCurve.MAX_LEVEL; level++) {
+                assertEquals(curve.dropSpeed(level), parsed.dropSpeed(level));
+            }
+        }
+    }
+
+    @Test
+    public void geometricCurveDecreasesToItsFloor() {
+        SpeedCurve curve = SpeedCurve.geometric(800, 0.8, 50);
+        assertEquals(800, curve.dropSpeed(1));
+        assertEquals(640, curve.dropSpeed(2));
+        for (int level = 2; level <= SpeedCurve.MAX_LEVEL; level++) {
+            assertTrue(curve.dropSpeed(level) <= curve.dropSpeed(level - 1));
+            assertTrue(curve.dropSpeed(level) >= 50);
+        }
+        assertEquals(50, curve.dropSpeed(SpeedCurve.MAX_LEVEL));
+    }
+
+    @Test
+    public void gameFollowsItsCurveWhenLevelling() {
+        TetrisGame game = new TetrisGame(new BagGenerator(1));
+        game.setSpeedCurve(SpeedCurve.HARD);
+        assertEquals(SpeedCurve.HARD.dropSpeed(1), game.getDropSpeed());
+        game.setSpeedCurve(SpeedCurve.EASY);
+        assertEquals(SpeedCurve.EASY.dropSpeed(1), game.getDropSpeed());
+        game.reset();
+        assertEquals(SpeedCurve.EASY.dropSpeed(1), game.getDropSpeed());
+
+        // 填满底部 10 行，方块落下固定时一次消除，升到 2 级
+        GameGrid grid = game.getGrid();
+        for (int y = grid.getHeight() - 10; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                grid.setCell(x, y, 1);
+            }
+        }
+        game.dropDown();
+        assertEquals(10, game.getLinesCleared());
+        assertEquals(2, game.getLevel());
+        assertEquals(SpeedCurve.EASY.dropSpeed(2), game.getDropSpeed());
+        assertTrue(SpeedCurve.EASY.dropSpeed(2) < SpeedCurve.EASY.dropSpeed(1));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseRejectsGarbage() {
+        SpeedCurve.parse("fast");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsBlankInput() {
+        SpeedCurve.parse(" ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsZeroInterval() {
+        SpeedCurve.parse("500,0,100");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsNegativeInterval() {
+        SpeedCurve.parse("500,-100");
+    }
+}
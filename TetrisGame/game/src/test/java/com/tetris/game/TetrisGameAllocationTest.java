@@ -0,0 +1,101 @@
+package com.tetris.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+// 稳定状态下 update()、移动和旋转不应分配任何对象：预热之后用 ThreadMXBean 统计当前线程分配的字节数
+public class TetrisGameAllocationTest {
+    private static final int WARMUP_ITERATIONS = 200000;
+    private static final int ROUND_ITERATIONS = 200000;
+    // 即时编译和去优化偶尔会在当前线程上分配几十个字节，与游戏代码无关；
+    // 只要有一整轮测得 0 字节就说明每 tick 不分配，真正按 tick 分配时每一轮都不会是 0
+    private static final int MAX_ROUNDS = 20;
+
+    private com.sun.management.ThreadMXBean threads;
+    private long threadId;
+
+    @Before
+    public void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threadId = Thread.currentThread().getId();
+    }
+
+    @Test
+    public void updateMoveAndRotateAllocateNothing() {
+        TetrisGame game = new TetrisGame(new BagGenerator(42));
+        game.start();
+        assertSteadyStateAllocatesNothing(game);
+    }
+
+    @Test
+    public void lockDelayAllocatesNothing() {
+        TetrisGame game = new TetrisGame(new BagGenerator(7));
+        game.setLockDelayEnabled(true);
+        game.start();
+        assertSteadyStateAllocatesNothing(game);
+    }
+
+    private void assertSteadyStateAllocatesNothing(TetrisGame game) {
+        play(game, WARMUP_ITERATIONS);
+
+        // 读取计数本身可能分配，先测出这部分开销再扣除
+        long overhead = allocatedBytes();
+        overhead = allocatedBytes() - overhead;
+        long fewest = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < MAX_ROUNDS && fewest > 0; round++) {
+            long before = allocatedBytes();
+            checksum += play(game, ROUND_ITERATIONS);
+            fewest = Math.min(fewest, allocatedBytes() - before - overhead);
+        }
+        assertEquals("bytes allocated per " + ROUND_ITERATIONS + " iterations (checksum " + checksum + ")",
+                0, fewest);
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+
+    // 按固定节奏混合重力 tick、左右移动、旋转、锁定和硬降，游戏结束时原地重置；
+    // 返回累计分数，避免整个循环被优化掉
+    private static long play(TetrisGame game, int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            switch (i & 7) {
+                case 0:
+                case 4:
+                    game.moveLeft();
+                    break;
+                case 1:
+                    game.rotate();
+                    break;
+                case 2:
+                case 6:
+                    game.moveRight();
+                    break;
+                case 5:
+                    game.lock();
+                    break;
+                default:
+                    game.update();
+                    break;
+            }
+            if ((i & 255) == 255) {
+                game.dropDown();
+            }
+            if (game.isGameOver()) {
+                checksum += game.getScore();
+                game.reset();
+            }
+        }
+        return checksum + game.getScore();
+    }
+}
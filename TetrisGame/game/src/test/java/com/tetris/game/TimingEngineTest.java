@@ -0,0 +1,198 @@
+package com.tetris.game;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimingEngineTest {
+    private static final long MS = 1_000_000L;
+    // 模拟渲染线程的帧间隔
+    private static final long FRAME = 10 * MS;
+
+    private RecordingGame game;
+    private TimingEngine engine;
+    private long now;
+
+    @Before
+    public void setUp() {
+        game = new RecordingGame();
+        engine = new TimingEngine();
+        engine.setGame(game);
+        engine.start(0);
+        now = 0;
+    }
+
+    @Test
+    public void gravityFollowsTheDropSpeed() {
+        assertEquals(1000, game.getDropSpeed());
+        runTo(999 * MS);
+        assertEquals("", game.events());
+        runTo(1000 * MS);
+        assertEquals("G", game.events());
+        runTo(3250 * MS);
+        assertEquals("GGG", game.events());
+        assertEquals(0.25f, engine.getInterpolation(), 1e-6);
+    }
+
+    @Test
+    public void longStallRunsAtMostOneStep() {
+        // 从后台恢复时只补跑最后 250ms，不会一次下落多格
+        engine.advance(10_000 * MS);
+        assertEquals("", game.events());
+        assertEquals(250 * MS, engine.getTickPhaseNanos());
+    }
+
+    @Test
+    public void holdShiftsOnceThenRepeatsAfterDas() {
+        runTo(100 * MS);
+        accept(GameCommand.HOLD | GameCommand.HOLD_LEFT, 100 * MS);
+        assertEquals("L", game.events());
+        runTo(266 * MS);
+        assertEquals("L", game.events());
+        runTo(267 * MS);
+        assertEquals("LL", game.events());
+        runTo(300 * MS);
+        assertEquals("LLL", game.events());
+        runTo(399 * MS);
+        assertEquals("LLLLLL", game.events());
+
+        accept(GameCommand.HOLD, 400 * MS);
+        runTo(900 * MS);
+        assertEquals("LLLLLL", game.events());
+    }
+
+    @Test
+    public void newestDirectionWinsAndReleaseFallsBack() {
+        accept(GameCommand.HOLD | GameCommand.HOLD_LEFT, 0);
+        accept(GameCommand.HOLD | GameCommand.HOLD_LEFT | GameCommand.HOLD_RIGHT, 50 * MS);
+        // 右移在 50ms 按下后立即执行，217ms 起每 33ms 重复
+        accept(GameCommand.HOLD | GameCommand.HOLD_LEFT, 300 * MS);
+        // 松开右键后仍按住左键，左移立即执行并重新等待 DAS
+        accept(GameCommand.HOLD, 510 * MS);
+        runTo(900 * MS);
+        assertEquals("LRRRRLLL", game.events());
+    }
+
+    @Test
+    public void inputRunsBetweenGravityTicksByEnqueueTime() {
+        accept(GameCommand.ROTATE, 500 * MS);
+        accept(GameCommand.MOVE_RIGHT, 1500 * MS);
+        // 与重力同一时刻入队的输入排在重力之后
+        accept(GameCommand.MOVE_LEFT, 2000 * MS);
+        assertEquals("OGRGL", game.events());
+        // 晚到的指令不会让时钟倒退，直接执行
+        accept(GameCommand.ROTATE, 1800 * MS);
+        runTo(2999 * MS);
+        assertEquals("OGRGLO", game.events());
+    }
+
+    @Test
+    public void softDropDividesTheGravityInterval() {
+        accept(GameCommand.HOLD | GameCommand.HOLD_SOFT_DROP, 0);
+        runTo(200 * MS);
+        assertEquals("GGGG", game.events());
+        accept(GameCommand.HOLD, 200 * MS);
+        runTo(1199 * MS);
+        assertEquals("GGGG", game.events());
+        runTo(1200 * MS);
+        assertEquals("GGGGG", game.events());
+    }
+
+    @Test
+    public void groundedPieceLocksAfterTheDelay() {
+        groundPiece();
+        runTo(499 * MS);
+        assertEquals(1, game.getPiecesSpawned());
+        runTo(500 * MS);
+        assertEquals("K", game.events());
+        assertEquals(2, game.getPiecesSpawned());
+    }
+
+    @Test
+    public void groundedMoveRestartsTheLockTimer() {
+        groundPiece();
+        runTo(400 * MS);
+        accept(GameCommand.MOVE_LEFT, 400 * MS);
+        assertEquals(1, game.getLockResets());
+        runTo(899 * MS);
+        assertEquals(1, game.getPiecesSpawned());
+        runTo(900 * MS);
+        assertEquals("LK", game.events());
+        assertEquals(2, game.getPiecesSpawned());
+    }
+
+    @Test
+    public void fifteenthResetLocksImmediately() {
+        groundPiece();
+        for (int i = 1; i <= TetrisGame.MAX_LOCK_RESETS; i++) {
+            assertEquals("before move " + i, 1, game.getPiecesSpawned());
+            accept(i % 2 == 1 ? GameCommand.MOVE_LEFT : GameCommand.MOVE_RIGHT, i * 10 * MS);
+        }
+        assertEquals(2, game.getPiecesSpawned());
+        // 固定由第 15 次移动触发，锁定计时不会再发出 LOCK
+        runTo(1000 * MS);
+        assertEquals(-1, game.events().indexOf('K'));
+    }
+
+    @Test
+    public void pauseDefersTheLock() {
+        groundPiece();
+        runTo(100 * MS);
+        game.pause();
+        runTo(5000 * MS);
+        game.resume();
+        runTo(5399 * MS);
+        assertEquals(1, game.getPiecesSpawned());
+        runTo(5400 * MS);
+        assertEquals(2, game.getPiecesSpawned());
+    }
+
+    // 关闭重力，把当前方块直接放到底部，再让引擎在时刻 0 开始锁定计时
+    private void groundPiece() {
+        game.setSpeedCurve(SpeedCurve.linear(3_600_000, 0, 3_600_000));
+        game.setLockDelayEnabled(true);
+        Tetromino piece = game.getCurrentTetromino();
+        piece.setPosition(piece.getX(), piece.getY() + game.getGrid().dropDistance(piece));
+        accept(GameCommand.HOLD, 0);
+    }
+
+    // 按入队时间交给引擎；之后的帧从入队时间继续，不会让引擎时钟倒退
+    private void accept(int command, long enqueuedNanos) {
+        engine.accept(command, enqueuedNanos);
+        now = Math.max(now, enqueuedNanos);
+    }
+
+    // 按帧推进到 target
+    private void runTo(long target) {
+        while (now < target) {
+            now = Math.min(now + FRAME, target);
+            engine.advance(now);
+        }
+    }
+
+    // 记录引擎发出的指令和重力：L R O D K 分别为左移、右移、旋转、硬降和锁定，G 为一次重力
+    private static final class RecordingGame extends TetrisGame {
+        private final StringBuilder log = new StringBuilder();
+
+        RecordingGame() {
+            super(new UniformGenerator(7));
+        }
+
+        @Override
+        public void apply(int command) {
+            log.append("LRODK".charAt(command));
+            super.apply(command);
+        }
+
+        @Override
+        public void update() {
+            log.append('G');
+            super.update();
+        }
+
+        String events() {
+            return log.toString();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.tetris.game;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+// 逐项检查顺时针旋转选中的踢墙偏移和旋转后的位置；期望值按 SRS 表（y 向上为正）手算后换成棋盘坐标
+public class WallKickTest {
+    private static final Tetromino.Shape T = Tetromino.Shape.T;
+    private static final Tetromino.Shape J = Tetromino.Shape.J;
+    private static final Tetromino.Shape I = Tetromino.Shape.I;
+    private static final int[][] NONE = {};
+
+    private static final Case[] CASES = {
+        // 贴底的 T 转到 R 会伸出底边，原地和左移一格都不行，第 2 项 (-1, +1) 向上踢一格
+        new Case("T 0->R floor", T, 0, 4, 18, NONE, 2, 3, 17),
+        // 贴左墙的 R 状态 T 转到 2 时左端出界，第 1 项向右踢一格
+        new Case("T R->2 left wall", T, 1, -1, 8, NONE, 1, 0, 8),
+        // J 转到 L 时左下角被占，第 1 项向右踢一格
+        new Case("J 2->L block", J, 2, 3, 5, new int[][] {{3, 7}}, 1, 4, 5),
+        // 贴右墙的 L 状态 T 转回 0 时右端出界，第 1 项向左踢一格
+        new Case("T L->0 right wall", T, 3, 8, 8, NONE, 1, 7, 8),
+        // 横放在底行的 I 竖起来伸出底边，前三项都不行，第 4 项 (+1, +2) 向上踢两格
+        new Case("I 0->R floor", I, 0, 3, 18, NONE, 4, 4, 16),
+        // 贴左墙的竖 I 转成横放：向左一格仍出界，第 2 项向右踢两格（JLSTZ 表只会右移一格）
+        new Case("I R->2 left wall", I, 1, -2, 8, NONE, 2, 0, 8),
+        // 横放在底行的 I 转到 L，第 3 项 (+2, +1) 右移两格并向上一格
+        new Case("I 2->L floor", I, 2, 3, 17, NONE, 3, 5, 16),
+        // 贴右墙的竖 I 转回横放，第 2 项向左踢两格
+        new Case("I L->0 right wall", I, 3, 8, 8, NONE, 2, 6, 8),
+    };
+
+    @Test
+    public void clockwiseKicksMatchTheSrsTables() {
+        for (Case c : CASES) {
+            TetrisGame game = newGame();
+            GameGrid grid = game.getGrid();
+            for (int[] cell : c.blocked) {
+                grid.setCell(cell[0], cell[1], 1);
+            }
+            Tetromino piece = game.getCurrentTetromino();
+            piece.set(c.shape, c.rotation, c.x, c.y);
+
+            assertEquals(c.name, c.test, grid.findKick(c.shape, c.rotation, c.x, c.y));
+            game.rotate();
+            assertEquals(c.name, RotationTable.next(c.rotation), piece.getRotation());
+            assertEquals(c.name, c.expectedX, piece.getX());
+            assertEquals(c.name, c.expectedY, piece.getY());
+        }
+    }
+
+    @Test
+    public void oOnlyRotatesInPlace() {
+        for (int rotation = 0; rotation < RotationTable.STATES; rotation++) {
+            assertEquals(1, RotationTable.kickCount(Tetromino.Shape.O, rotation));
+        }
+        TetrisGame game = newGame();
+        Tetromino piece = game.getCurrentTetromino();
+        piece.set(Tetromino.Shape.O, 0, 0, 18);
+        game.rotate();
+        assertEquals(1, piece.getRotation());
+        assertEquals(0, piece.getX());
+        assertEquals(18, piece.getY());
+    }
+
+    @Test
+    public void everyKickBlockedLeavesThePieceAlone() {
+        // 除横放 I 所在的一行外全部填满，五个偏移都放不下
+        TetrisGame game = newGame();
+        GameGrid grid = game.getGrid();
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (y != 11 || x < 3 || x >= 7) {
+                    grid.setCell(x, y, 1);
+                }
+            }
+        }
+        Tetromino piece = game.getCurrentTetromino();
+        piece.set(I, 0, 3, 10);
+
+        assertEquals(-1, grid.findKick(I, 0, 3, 10));
+        game.rotate();
+        assertEquals(0, piece.getRotation());
+        assertEquals(3, piece.getX());
+        assertEquals(10, piece.getY());
+    }
+
+    @Test
+    public void kicksOffKeepsTheOldRules() {
+        TetrisGame game = newGame();
+        game.setWallKicksEnabled(false);
+        Tetromino piece = game.getCurrentTetromino();
+        piece.set(T, 1, -1, 8);
+        game.rotate();
+        assertEquals(1, piece.getRotation());
+        assertEquals(-1, piece.getX());
+    }
+
+    private static TetrisGame newGame() {
+        TetrisGame game = new TetrisGame(new UniformGenerator(1));
+        game.start();
+        return game;
+    }
+
+    private static final class Case {
+        final String name;
+        final Tetromino.Shape shape;
+        final int rotation;
+        final int x;
+        final int y;
+        final int[][] blocked;
+        final int test;
+        final int expectedX;
+        final int expectedY;
+
+        Case(String name, Tetromino.Shape shape, int rotation, int x, int y, int[][] blocked,
+                int test, int expectedX, int expectedY) {
+            this.name = name;
+            this.shape = shape;
+            this.rotation = rotation;
+            this.x = x;
+            this.y = y;
+            this.blocked = blocked;
+            this.test = test;
+            this.expectedX = expectedX;
+            this.expectedY = expectedY;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.tetris.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+    private static final int LAST_BUCKET = LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+
+    @Test
+    public void smallValuesHaveTheirOwnBucket() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucketIndex(value));
+            assertEquals(value, LatencyHistogram.bucketUpperBound(value));
+        }
+        assertEquals(16, LatencyHistogram.bucketIndex(16));
+        assertEquals(16, LatencyHistogram.bucketUpperBound(16));
+    }
+
+    @Test
+    public void bucketsAreContiguousAndIncreasing() {
+        // 每个桶的上界落在该桶内，上界加一落在下一个桶
+        for (int i = 0; i < LAST_BUCKET; i++) {
+            long upper = LatencyHistogram.bucketUpperBound(i);
+            assertEquals("upper bound of " + i, i, LatencyHistogram.bucketIndex(upper));
+            assertEquals("after bucket " + i, i + 1, LatencyHistogram.bucketIndex(upper + 1));
+        }
+        // 2^41 纳秒以上的值全部计入最后一个桶
+        assertEquals((1L << 41) - 1, LatencyHistogram.bucketUpperBound(LAST_BUCKET));
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketIndex(1L << 41));
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void upperBoundIsWithinOneSixteenth() {
+        long[] values = {16, 17, 31, 32, 33, 1000, 16_666_667L, 123_456_789L, (1L << 40) + 12345};
+        for (long value : values) {
+            long upper = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+            assertTrue(value + " <= " + upper, upper >= value);
+            assertTrue(value + " -> " + upper, (upper - value) * 16 < value);
+        }
+    }
+
+    @Test
+    public void percentilesUseBucketUpperBoundCappedAtMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.5));
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1_000_000);
+        }
+        histogram.record(50_000_000);
+
+        long bucket = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(1_000_000));
+        assertEquals(bucket, histogram.percentile(0.5));
+        // 101 个样本中第 100 个仍在 1ms 的桶内，第 101 个是最大值
+        assertEquals(bucket, histogram.percentile(0.99));
+        assertEquals(50_000_000, histogram.percentile(1.0));
+        assertEquals(50_000_000, histogram.getMaxNanos());
+        assertEquals(101, histogram.getCount());
+        assertEquals((100 * 1_000_000.0 + 50_000_000) / 101, histogram.getMeanNanos(), 1e-6);
+    }
+
+    @Test
+    public void percentileNeverExceedsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+        assertEquals(1_000_001, histogram.percentile(0.5));
+    }
+
+    @Test
+    public void negativeValuesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.percentile(1.0));
+        assertEquals(0, histogram.getMeanNanos(), 0);
+    }
+
+    @Test
+    public void addMergesCountsAndMax() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (int i = 0; i < 10; i++) {
+            a.record(100);
+            b.record(10_000);
+        }
+        b.record(20_000);
+        a.add(b);
+
+        assertEquals(21, a.getCount());
+        assertEquals(20_000, a.getMaxNanos());
+        assertEquals(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(100)), a.percentile(0.4));
+        assertEquals(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(10_000)),
+                a.percentile(0.9));
+        assertEquals(11, b.getCount());
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5_000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0, histogram.percentile(0.99));
+        histogram.record(3);
+        assertEquals(3, histogram.percentile(1.0));
+    }
+
+    @Test
+    public void registryReturnsTheSameObjectsAcrossReset() {
+        // GameView 和 GameLoop 缓存了这些引用，reset 必须原地清零
+        MetricsRegistry registry = new MetricsRegistry();
+        LatencyHistogram frame = registry.histogram(MetricsRegistry.FRAME);
+        Counter pieces = registry.counter(MetricsRegistry.PIECES);
+        frame.record(10);
+        pieces.add(3);
+        registry.reset();
+
+        assertTrue(frame == registry.histogram(MetricsRegistry.FRAME));
+        assertTrue(pieces == registry.counter(MetricsRegistry.PIECES));
+        assertEquals(0, frame.getCount());
+        assertEquals(0, pieces.get());
+    }
+}
@@ -0,0 +1,36 @@
+package com.tetris.tuning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.tetris.game.SpeedCurve;
+
+import org.junit.Test;
+
+public class CurveSimulationTest {
+    private static final long MAX_MILLIS = 60000;
+
+    @Test
+    public void sameSeedGivesTheSameGame() {
+        CurveSimulation.GameResult a = new CurveSimulation().play(SpeedCurve.HARD, BotPersona.REGULAR, 42, MAX_MILLIS);
+        // 同一个模拟对象复用时，上一局的状态不能影响下一局
+        CurveSimulation reused = new CurveSimulation();
+        reused.play(SpeedCurve.EASY, BotPersona.CASUAL, 7, MAX_MILLIS);
+        CurveSimulation.GameResult b = reused.play(SpeedCurve.HARD, BotPersona.REGULAR, 42, MAX_MILLIS);
+
+        assertEquals(a.survivalMillis, b.survivalMillis);
+        assertEquals(a.score, b.score);
+        assertEquals(a.lines, b.lines);
+        assertEquals(a.level, b.level);
+    }
+
+    @Test
+    public void survivalIsCappedAtTheTimeLimit() {
+        CurveSimulation simulation = new CurveSimulation();
+        for (long seed = 0; seed < 4; seed++) {
+            CurveSimulation.GameResult result = simulation.play(SpeedCurve.EASY, BotPersona.EXPERT, seed, MAX_MILLIS);
+            assertTrue(result.survivalMillis > 0);
+            assertTrue(result.survivalMillis <= MAX_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.tetris.versus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.tetris.game.BagGenerator;
+import com.tetris.game.GameGrid;
+import com.tetris.game.TetrisGame;
+import com.tetris.game.Tetromino;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+// 两个会话通过 127.0.0.1 上的真实连接互相同步，检查对手棋盘是否与真实棋盘逐行一致
+public class OpponentBoardTest {
+    private static final long TIMEOUT_NANOS = 5_000_000_000L;
+
+    private ServerSocketChannel server;
+    private VersusChannel hostChannel;
+    private VersusChannel guestChannel;
+    private TetrisGame hostGame;
+    private VersusSession host;
+    private VersusSession guest;
+
+    @Before
+    public void setUp() throws IOException {
+        server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        SocketChannel guestSocket = SocketChannel.open(server.socket().getLocalSocketAddress());
+        hostChannel = new VersusChannel(server.accept());
+        guestChannel = new VersusChannel(guestSocket);
+
+        hostGame = new TetrisGame(new BagGenerator(11));
+        host = new VersusSession(hostGame, hostChannel, 1);
+        guest = new VersusSession(new TetrisGame(new BagGenerator(11)), guestChannel, 2);
+        host.start(0);
+        guest.start(0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        hostChannel.close();
+        guestChannel.close();
+        server.close();
+    }
+
+    @Test
+    public void firstSyncMirrorsStackAndPiece() throws IOException {
+        GameGrid grid = hostGame.getGrid();
+        for (int x = 0; x < grid.getWidth(); x++) {
+            if (x != 3) {
+                grid.setCell(x, grid.getHeight() - 1, 1 + x % 7);
+            }
+        }
+        grid.setCell(0, grid.getHeight() - 2, 5);
+        hostGame.moveLeft();
+        hostGame.rotate();
+        host.syncNow();
+
+        awaitMirror();
+        assertPieceMirrored();
+    }
+
+    @Test
+    public void laterSyncsSendOnlyChangedRows() throws IOException {
+        GameGrid grid = hostGame.getGrid();
+        for (int y = 10; y < grid.getHeight(); y++) {
+            grid.setCell(y % grid.getWidth(), y, 2);
+        }
+        host.syncNow();
+        awaitMirror();
+        long before = hostChannel.getBytesSent();
+
+        // 只改动一行：差量帧只带这一行，不带方块
+        grid.setCell(0, 15, 4);
+        host.syncNow();
+        awaitMirror();
+        long frameBytes = hostChannel.getBytesSent() - before;
+        assertEquals(VersusProtocol.HEADER_SIZE + 1 + 1 + 1 + 1, frameBytes);
+
+        // 清空一行后对手棋盘上的这一行也变回空行
+        for (int x = 0; x < grid.getWidth(); x++) {
+            grid.setCell(x, 12, 0);
+        }
+        host.syncNow();
+        awaitMirror();
+        assertEquals(0, guest.getOpponent().getRowMask(12));
+    }
+
+    @Test
+    public void pieceAgainstTheLeftWallIsMirrored() throws IOException {
+        // 旋转后贴着左墙时方块矩阵的 x 可能为负，按有符号字节传输
+        hostGame.rotate();
+        for (int i = 0; i < hostGame.getGrid().getWidth(); i++) {
+            hostGame.moveLeft();
+        }
+        host.syncNow();
+        awaitMirror();
+        assertPieceMirrored();
+    }
+
+    @Test
+    public void gameOverIsReported() throws IOException {
+        // 除最右一列外填满第 2 行以下，几个方块之后新方块就无处生成
+        GameGrid grid = hostGame.getGrid();
+        for (int y = 2; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth() - 1; x++) {
+                grid.setCell(x, y, 3);
+            }
+        }
+        for (int i = 0; i < 10 && !hostGame.isGameOver(); i++) {
+            hostGame.dropDown();
+        }
+        assertTrue(hostGame.isGameOver());
+        host.sync(0);
+
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (!guest.getOpponent().isGameOver()) {
+            assertTrue(guest.receive());
+            assertTrue("timed out waiting for game over", System.nanoTime() < deadline);
+        }
+        assertEquals(hostGame.getScore(), guest.getOpponent().getScore());
+        assertEquals(hostGame.getLinesCleared(), guest.getOpponent().getLinesCleared());
+        assertTrue(guest.getOpponent().matches(grid));
+    }
+
+    private void awaitMirror() throws IOException {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        OpponentBoard opponent = guest.getOpponent();
+        long syncs = opponent.getSyncs();
+        while (opponent.getSyncs() == syncs || !opponent.matches(hostGame.getGrid())) {
+            assertTrue(guest.receive());
+            assertTrue("timed out waiting for sync", System.nanoTime() < deadline);
+        }
+        assertFalse(opponent.isGameOver());
+    }
+
+    private void assertPieceMirrored() {
+        Tetromino piece = hostGame.getCurrentTetromino();
+        OpponentBoard opponent = guest.getOpponent();
+        assertEquals(piece.getShape(), opponent.getPieceShape());
+        assertEquals(piece.getRotation(), opponent.getPieceRotation());
+        assertEquals(piece.getX(), opponent.getPieceX());
+        assertEquals(piece.getY(), opponent.getPieceY());
+    }
+}
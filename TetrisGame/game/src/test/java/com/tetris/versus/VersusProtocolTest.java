@@ -0,0 +1,258 @@
+package com.tetris.versus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.Tetromino;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+public class VersusProtocolTest {
+    private static final long TIMEOUT_NANOS = 5_000_000_000L;
+
+    private ServerSocketChannel server;
+    private SocketChannel raw;
+    private VersusChannel channel;
+
+    @Before
+    public void setUp() throws IOException {
+        server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        // 一端是阻塞的原始连接，用来按任意字节边界写入；另一端是被测的非阻塞通道
+        raw = SocketChannel.open(server.socket().getLocalSocketAddress());
+        channel = new VersusChannel(server.accept());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        channel.close();
+        raw.close();
+        server.close();
+    }
+
+    @Test
+    public void varLongRoundTripsAndUsesSevenBitsPerByte() throws IOException {
+        long[] values = {0, 1, 127, 128, 16383, 16384, 0x3FF, 1L << 62, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        int[] sizes = {1, 1, 1, 2, 2, 3, 2, 9, 9, 10, 10};
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        for (int i = 0; i < values.length; i++) {
+            buffer.clear();
+            VersusProtocol.putVarLong(buffer, values[i]);
+            assertEquals("size of " + values[i], sizes[i], buffer.position());
+            buffer.flip();
+            assertEquals(values[i], VersusProtocol.getVarLong(buffer));
+            assertEquals(0, buffer.remaining());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedVarLongIsRejected() throws IOException {
+        VersusProtocol.getVarLong(ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0x80}));
+    }
+
+    @Test(expected = IOException.class)
+    public void overlongVarLongIsRejected() throws IOException {
+        byte[] bytes = new byte[11];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) 0x80;
+        }
+        VersusProtocol.getVarLong(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void frameSplitAcrossReadsIsDeliveredWhole() throws IOException {
+        byte[] first = frame(VersusProtocol.ATTACK, new byte[]{3, 7});
+        byte[] second = frame(VersusProtocol.GAME_OVER, new byte[]{0, 0, 1, 0, 0, 0, 0, 9});
+
+        Recorder recorder = new Recorder();
+        // 先只写出帧头和一半负载，通道不应回调
+        write(first, 0, VersusProtocol.HEADER_SIZE + 1);
+        while (channel.getBytesReceived() < VersusProtocol.HEADER_SIZE + 1) {
+            assertEquals(0, readSome(recorder));
+        }
+
+        byte[] rest = new byte[first.length - VersusProtocol.HEADER_SIZE - 1 + second.length];
+        System.arraycopy(first, VersusProtocol.HEADER_SIZE + 1, rest, 0, 1);
+        System.arraycopy(second, 0, rest, 1, second.length);
+        write(rest, 0, rest.length);
+        readFrames(recorder, 2);
+
+        assertEquals(VersusProtocol.ATTACK, (int) recorder.types.get(0));
+        assertArrayEquals(new byte[]{3, 7}, recorder.payloads.get(0));
+        assertEquals(VersusProtocol.GAME_OVER, (int) recorder.types.get(1));
+        assertArrayEquals(new byte[]{0, 0, 1, 0, 0, 0, 0, 9}, recorder.payloads.get(1));
+    }
+
+    @Test
+    public void writtenFramesCarryTheirLength() throws IOException {
+        VersusChannel writer = new VersusChannel(raw);
+        for (int i = 0; i < 3; i++) {
+            ByteBuffer out = writer.beginFrame(VersusProtocol.SYNC, 16);
+            out.put((byte) i);
+            VersusProtocol.putVarLong(out, 1L << (i * 20));
+            writer.endFrame();
+        }
+        while (!writer.flush()) {
+            Thread.yield();
+        }
+        assertEquals(3, writer.getFramesSent());
+
+        Recorder recorder = new Recorder();
+        readFrames(recorder, 3);
+        for (int i = 0; i < 3; i++) {
+            ByteBuffer payload = ByteBuffer.wrap(recorder.payloads.get(i));
+            assertEquals(i, payload.get());
+            assertEquals(1L << (i * 20), VersusProtocol.getVarLong(payload));
+            assertEquals(0, payload.remaining());
+        }
+    }
+
+    @Test
+    public void readingPastThePayloadIsMalformed() throws IOException {
+        byte[] bytes = frame(VersusProtocol.GAME_OVER, new byte[]{1, 2});
+        write(bytes, 0, bytes.length);
+        VersusChannel.FrameHandler handler = new VersusChannel.FrameHandler() {
+            @Override
+            public void onFrame(int type, ByteBuffer payload) {
+                payload.getInt();
+            }
+        };
+        assertMalformed(handler, "Malformed frame");
+    }
+
+    @Test
+    public void frameLargerThanTheBufferIsRejected() throws IOException {
+        byte[] header = {(byte) 0x30, 0, VersusProtocol.SYNC};
+        write(header, 0, header.length);
+        assertMalformed(new Recorder(), "Frame too large");
+    }
+
+    @Test
+    public void syncMirrorsRowsAndSignedPiecePosition() throws IOException {
+        OpponentBoard board = new OpponentBoard(GameGrid.DEFAULT_WIDTH, GameGrid.DEFAULT_HEIGHT);
+        ByteBuffer payload = ByteBuffer.allocate(64);
+        payload.put((byte) (VersusProtocol.SYNC_ROWS | VersusProtocol.SYNC_PIECE));
+        payload.put((byte) 2);
+        payload.put((byte) 19);
+        VersusProtocol.putVarLong(payload, 0x3FE);
+        payload.put((byte) 18);
+        VersusProtocol.putVarLong(payload, 0x201);
+        payload.put((byte) Tetromino.Shape.I.ordinal());
+        payload.put((byte) 1);
+        payload.put((byte) -2);
+        payload.putShort((short) -1);
+        payload.flip();
+        board.applySync(payload);
+
+        assertEquals(0x3FE, board.getRowMask(19));
+        assertEquals(0x201, board.getRowMask(18));
+        assertEquals(0, board.getRowMask(17));
+        assertEquals(Tetromino.Shape.I, board.getPieceShape());
+        assertEquals(1, board.getPieceRotation());
+        assertEquals(-2, board.getPieceX());
+        assertEquals(-1, board.getPieceY());
+        assertEquals(1, board.getSyncs());
+
+        // 只带方块的同步不改动行
+        payload.clear();
+        payload.put((byte) VersusProtocol.SYNC_PIECE);
+        payload.put((byte) Tetromino.Shape.T.ordinal()).put((byte) 0).put((byte) 4).putShort((short) 7);
+        payload.flip();
+        board.applySync(payload);
+        assertEquals(0x3FE, board.getRowMask(19));
+        assertEquals(Tetromino.Shape.T, board.getPieceShape());
+        assertEquals(7, board.getPieceY());
+
+        GameGrid grid = new GameGrid();
+        for (int x = 1; x < 10; x++) {
+            grid.setCell(x, 19, 1);
+        }
+        grid.setCell(0, 18, 2);
+        grid.setCell(9, 18, 2);
+        assertTrue(board.matches(grid));
+    }
+
+    @Test(expected = IOException.class)
+    public void syncRowOutsideTheBoardIsRejected() throws IOException {
+        OpponentBoard board = new OpponentBoard(10, 20);
+        ByteBuffer payload = ByteBuffer.allocate(8);
+        payload.put((byte) VersusProtocol.SYNC_ROWS).put((byte) 1).put((byte) 20).put((byte) 1).flip();
+        board.applySync(payload);
+    }
+
+    @Test(expected = IOException.class)
+    public void syncWithUnknownShapeIsRejected() throws IOException {
+        OpponentBoard board = new OpponentBoard(10, 20);
+        ByteBuffer payload = ByteBuffer.allocate(8);
+        payload.put((byte) VersusProtocol.SYNC_PIECE).put((byte) Tetromino.Shape.values().length)
+                .put((byte) 0).put((byte) 0).putShort((short) 0).flip();
+        board.applySync(payload);
+    }
+
+    private static byte[] frame(int type, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(VersusProtocol.HEADER_SIZE + payload.length);
+        buffer.putShort((short) payload.length).put((byte) type).put(payload);
+        return buffer.array();
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) {
+            raw.write(buffer);
+        }
+    }
+
+    private int readSome(VersusChannel.FrameHandler handler) throws IOException {
+        int frames = channel.read(handler);
+        assertTrue("connection closed", frames >= 0);
+        return frames;
+    }
+
+    private void readFrames(Recorder recorder, int expected) throws IOException {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (recorder.types.size() < expected) {
+            readSome(recorder);
+            assertTrue("timed out waiting for frames", System.nanoTime() < deadline);
+        }
+        assertEquals(expected, recorder.types.size());
+    }
+
+    private void assertMalformed(VersusChannel.FrameHandler handler, String message) {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        try {
+            while (System.nanoTime() < deadline) {
+                readSome(handler);
+            }
+            fail("expected " + message);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+        }
+    }
+
+    private static final class Recorder implements VersusChannel.FrameHandler {
+        final List<Integer> types = new ArrayList<>();
+        final List<byte[]> payloads = new ArrayList<>();
+
+        @Override
+        public void onFrame(int type, ByteBuffer payload) {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            types.add(type);
+            payloads.add(bytes);
+        }
+    }
+}
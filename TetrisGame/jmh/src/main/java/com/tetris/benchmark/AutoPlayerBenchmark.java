@@ -0,0 +1,65 @@
+package com.tetris.benchmark;
+
+import com.tetris.ai.AutoPlayer;
+import com.tetris.ai.WeightedHeuristic;
+import com.tetris.game.BagGenerator;
+import com.tetris.game.TetrisGame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutoPlayerBenchmark {
+    // 1 表示单线程搜索；吞吐量 × 每块评估数（见 TearDown 输出）即为每秒评估的放置数
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private AutoPlayer player;
+    private TetrisGame game;
+    private long pieces;
+
+    @Setup
+    public void setup() {
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        player = new AutoPlayer(WeightedHeuristic.DEFAULT, pool);
+        game = new TetrisGame(new BagGenerator(42));
+        game.start();
+    }
+
+    @Benchmark
+    public boolean playPiece() {
+        if (game.isGameOver()) {
+            game.reset();
+        }
+        pieces++;
+        return player.play(game);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n评估的放置数: %d, 每块平均: %.1f%n",
+                player.getEvaluatedPlacements(), (double) player.getEvaluatedPlacements() / Math.max(1, pieces));
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
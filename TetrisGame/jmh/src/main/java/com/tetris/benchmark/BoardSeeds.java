@@ -0,0 +1,35 @@
+package com.tetris.benchmark;
+
+import com.tetris.game.GameGrid;
+
+import java.util.Random;
+
+final class BoardSeeds {
+    // 种子棋盘中非满行的堆叠高度
+    private static final int STACK_HEIGHT = 8;
+
+    private BoardSeeds() {
+    }
+
+    // 生成底部 fullRows 行为满行、其上若干行带随机空洞的标准棋盘
+    static GameGrid seededGrid(int fullRows, Random random) {
+        return seededGrid(GameGrid.DEFAULT_WIDTH, GameGrid.DEFAULT_HEIGHT, fullRows, random);
+    }
+
+    static GameGrid seededGrid(int width, int height, int fullRows, Random random) {
+        GameGrid grid = new GameGrid(width, height);
+        int bottom = height - 1;
+
+        for (int row = 0; row < STACK_HEIGHT + fullRows; row++) {
+            int y = bottom - row;
+            int hole = row < fullRows ? -1 : random.nextInt(width);
+            for (int x = 0; x < width; x++) {
+                if (x != hole && (row < fullRows || random.nextInt(4) != 0)) {
+                    grid.setCell(x, y, 1 + random.nextInt(7));
+                }
+            }
+        }
+
+        return grid;
+    }
+}
@@ -0,0 +1,82 @@
+package com.tetris.benchmark;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.RotationTable;
+import com.tetris.game.Tetromino;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameGridBenchmark {
+    // 底部完整行的数量
+    @Param({"0", "1", "2", "3", "4"})
+    public int fullRows;
+
+    // 棋盘尺寸（列x行），大棋盘上的消行开销应与有方块的行数而不是总面积成正比
+    @Param({"10x20", "64x200"})
+    public String size;
+
+    private GameGrid template;
+    private GameGrid grid;
+    private Tetromino piece;
+
+    @Setup
+    public void setup() {
+        int separator = size.indexOf('x');
+        int width = Integer.parseInt(size.substring(0, separator));
+        int height = Integer.parseInt(size.substring(separator + 1));
+        template = BoardSeeds.seededGrid(width, height, fullRows, new Random(42));
+        grid = new GameGrid(width, height);
+        grid.copyFrom(template);
+
+        // 方块最下一行与堆叠最高一行重合，isValidMove 越过“整个方块在堆叠以上”的提前返回，
+        // 测到的是逐行掩码求交
+        piece = new Tetromino(Tetromino.Shape.T);
+        piece.setPosition(template.getSpawnX(),
+                template.getStackTop() - RotationTable.maxY(piece.getShape(), piece.getRotation()));
+    }
+
+    @Benchmark
+    public boolean isValidMove() {
+        return grid.isValidMove(piece, piece.getX(), piece.getY());
+    }
+
+    @Benchmark
+    public GameGrid placeTetromino() {
+        grid.copyFrom(template);
+        grid.placeTetromino(piece);
+        return grid;
+    }
+
+    @Benchmark
+    public int clearCompletedLines() {
+        // 每次都从种子棋盘恢复，保证清除的行数固定为 fullRows
+        grid.copyFrom(template);
+        return grid.clearCompletedLines();
+    }
+
+    @Benchmark
+    public GameGrid copyBaseline() {
+        // 仅恢复棋盘的开销，用于从上面两项中扣除
+        grid.copyFrom(template);
+        return grid;
+    }
+}
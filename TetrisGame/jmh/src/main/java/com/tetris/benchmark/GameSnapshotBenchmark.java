@@ -0,0 +1,69 @@
+package com.tetris.benchmark;
+
+import com.tetris.game.BagGenerator;
+import com.tetris.game.GameSnapshot;
+import com.tetris.game.TetrisGame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameSnapshotBenchmark {
+    // 棋盘尺寸（列x行），底部 8 行带随机空洞
+    @Param({"10x20", "64x200"})
+    public String size;
+
+    private TetrisGame source;
+    private TetrisGame target;
+    private GameSnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        int separator = size.indexOf('x');
+        int width = Integer.parseInt(size.substring(0, separator));
+        int height = Integer.parseInt(size.substring(separator + 1));
+
+        source = new TetrisGame(new BagGenerator(42), width, height);
+        source.getGrid().copyFrom(BoardSeeds.seededGrid(width, height, 0, new Random(42)));
+        target = new TetrisGame(new BagGenerator(7), width, height);
+        snapshot = new GameSnapshot();
+        snapshot.capture(source, 0);
+    }
+
+    @Benchmark
+    public int capture() {
+        snapshot.capture(source, 0);
+        return snapshot.size();
+    }
+
+    @Benchmark
+    public TetrisGame restore() throws IOException {
+        snapshot.restore(target);
+        return target;
+    }
+
+    @Benchmark
+    public TetrisGame copyBaseline() {
+        // 直接复制对象状态，作为存档往返开销的参照
+        target.copyFrom(source);
+        return target;
+    }
+}
@@ -0,0 +1,106 @@
+package com.tetris.benchmark;
+
+import com.tetris.game.BagGenerator;
+import com.tetris.game.GameGrid;
+import com.tetris.game.TetrisGame;
+import com.tetris.game.Tetromino;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 旋转与 SRS 踢墙的开销：原地旋转成功、第二次尝试成功、五次尝试全部失败三种情况，
+// 以及每个 tick 都旋转一次的逻辑循环，与 TetrisGameBenchmark.updateTickLoop 对比。
+// 预算：updateTickLoopWithRotation 每个 tick 比 updateTickLoop 多出的时间不超过一次 rotateAllKicksFail
+// （五次掩码探测的最坏情况），且 -prof gc 下 gc.alloc.rate.norm 与 updateTickLoop 相同，即旋转不分配内存
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RotationBenchmark {
+    private static final int BLOCKED_X = 3;
+    private static final int BLOCKED_Y = 10;
+
+    // 空棋盘中部的 T 方块，原地旋转即可
+    private TetrisGame openGame;
+    // 贴着左墙的 R 状态 T 方块，转到 2 状态需要向右踢一格
+    private TetrisGame wallGame;
+    // 除横放 I 方块所在的一行外全部填满，五个偏移都放不下
+    private TetrisGame blockedGame;
+    private TetrisGame tickGame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        openGame = startedGame();
+        wallGame = startedGame();
+        tickGame = startedGame();
+
+        blockedGame = startedGame();
+        GameGrid grid = blockedGame.getGrid();
+        // I 方块横放时占据矩阵第 1 行
+        int openRow = BLOCKED_Y + 1;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (y != openRow || x < BLOCKED_X || x >= BLOCKED_X + 4) {
+                    grid.setCell(x, y, 1);
+                }
+            }
+        }
+    }
+
+    private static TetrisGame startedGame() {
+        TetrisGame game = new TetrisGame(new BagGenerator(42));
+        game.start();
+        return game;
+    }
+
+    @Benchmark
+    public int rotateInPlace() {
+        Tetromino piece = openGame.getCurrentTetromino();
+        piece.set(Tetromino.Shape.T, 0, 4, 8);
+        openGame.rotate();
+        return piece.getRotation();
+    }
+
+    @Benchmark
+    public int rotateWithKick() {
+        Tetromino piece = wallGame.getCurrentTetromino();
+        piece.set(Tetromino.Shape.T, 1, -1, 8);
+        wallGame.rotate();
+        return piece.getX();
+    }
+
+    @Benchmark
+    public int rotateAllKicksFail() {
+        Tetromino piece = blockedGame.getCurrentTetromino();
+        piece.set(Tetromino.Shape.I, 0, BLOCKED_X, BLOCKED_Y);
+        blockedGame.rotate();
+        return piece.getRotation();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TetrisGameBenchmark.TICKS)
+    public int updateTickLoopWithRotation() {
+        for (int i = 0; i < TetrisGameBenchmark.TICKS; i++) {
+            if (tickGame.isGameOver()) {
+                tickGame.reset();
+            }
+            tickGame.rotate();
+            tickGame.update();
+        }
+        return tickGame.getScore();
+    }
+}
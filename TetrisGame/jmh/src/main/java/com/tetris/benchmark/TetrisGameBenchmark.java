@@ -0,0 +1,59 @@
+package com.tetris.benchmark;
+
+import com.tetris.game.BagGenerator;
+import com.tetris.game.TetrisGame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TetrisGameBenchmark {
+    // 每次调用模拟的 update() 次数，gc.alloc.rate.norm 除以它即为每个 tick 的分配量
+    static final int TICKS = 1000;
+
+    private TetrisGame game;
+
+    @Setup
+    public void setup() {
+        // 固定种子，每次运行的方块序列相同，结果之间可以比较
+        game = new TetrisGame(new BagGenerator(42));
+        game.start();
+    }
+
+    @Benchmark
+    public int dropDown() {
+        if (game.isGameOver()) {
+            game.reset();
+        }
+        game.dropDown();
+        return game.getScore();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public int updateTickLoop() {
+        for (int i = 0; i < TICKS; i++) {
+            if (game.isGameOver()) {
+                game.reset();
+            }
+            game.update();
+        }
+        return game.getScore();
+    }
+}
@@ -0,0 +1,41 @@
+package com.tetris.benchmark;
+
+import com.tetris.game.Tetromino;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TetrominoBenchmark {
+    @Param({"I", "T", "O"})
+    public Tetromino.Shape shape;
+
+    private Tetromino piece;
+
+    @Setup
+    public void setup() {
+        piece = new Tetromino(shape);
+    }
+
+    @Benchmark
+    public int[][] rotate() {
+        piece.rotate();
+        return piece.getMatrix();
+    }
+}
@@ -0,0 +1,151 @@
+package com.tetris.server;
+
+import com.tetris.ai.AutoPlayer;
+import com.tetris.ai.WeightedHeuristic;
+import com.tetris.game.BagGenerator;
+import com.tetris.game.TetrisGame;
+import com.tetris.replay.ReplayRecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+// 提交流水线的压测：先用自动玩家录制一批录像，再以多个玩家的名义全部提交，
+// 其中少量提交篡改了分数或截断了录像，应当被拒绝。输出每秒校验数、排行榜查询耗时，
+// 最后从日志文件重新打开，确认重建的排行榜与内存中的一致。每次运行都从空日志开始
+public class IngestRunner {
+    private static final int DEFAULT_REPLAYS = 20000;
+    // 录制的不同录像数，提交时循环使用
+    private static final int UNIQUE_REPLAYS = 200;
+    private static final int MAX_PIECES = 200;
+    // 每放一个方块之前最多经过的重力 tick 数，模拟玩家思考的时间
+    private static final int MAX_TICKS_PER_PIECE = 6;
+    private static final int TAMPER_EVERY = 50;
+    private static final int QUERIES = 100000;
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int replays = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_REPLAYS;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        File directory = new File(args.length > 2 ? args[2] : "leaderboard");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = new File(directory, "scores.log");
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Cannot delete " + file);
+        }
+
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        byte[][] recorded = new byte[Math.min(replays, UNIQUE_REPLAYS)][];
+        long[] scores = new long[recorded.length];
+        long totalTicks = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < recorded.length; i++) {
+            TetrisGame game = new TetrisGame(new BagGenerator(0));
+            recorded[i] = record(game, random);
+            scores[i] = game.getScore();
+            totalTicks += game.getTicks();
+            totalBytes += recorded[i].length;
+        }
+        System.out.printf("recorded %d replays in %.1fs, %.0f ticks and %.0f bytes on average%n",
+                recorded.length, (System.nanoTime() - start) / 1e9,
+                (double) totalTicks / recorded.length, (double) totalBytes / recorded.length);
+
+        int players = Math.max(1, replays / 4);
+        Leaderboard leaderboard = new Leaderboard();
+        ScoreStore store = new ScoreStore(file, leaderboard, true);
+        IngestService service = new IngestService(store, leaderboard, threads);
+        List<CompletableFuture<Validation>> futures = new ArrayList<>(replays);
+
+        start = System.nanoTime();
+        int tampered = 0;
+        for (int i = 0; i < replays; i++) {
+            int index = i % recorded.length;
+            byte[] replay = recorded[index];
+            long claimed = scores[index];
+            if (i % TAMPER_EVERY == TAMPER_EVERY - 1) {
+                // 交替篡改分数和截断录像
+                if (tampered++ % 2 == 0) {
+                    claimed += 100;
+                } else {
+                    replay = Arrays.copyOf(replay, replay.length / 2);
+                }
+            }
+            futures.add(service.submit(new Submission("player-" + i % players, claimed, replay)));
+        }
+        int accepted = 0;
+        for (CompletableFuture<Validation> future : futures) {
+            if (future.get().accepted) {
+                accepted++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        service.close();
+        store.close();
+        System.out.printf("validated %d submissions on %d threads in %.2fs: %.0f/s, accepted=%d rejected=%d (tampered=%d)%n",
+                replays, threads, elapsed / 1e9, replays / (elapsed / 1e9), accepted, replays - accepted, tampered);
+
+        System.out.println("leaderboard size=" + leaderboard.size() + ", top 5:");
+        List<LeaderboardEntry> top = leaderboard.top(5);
+        for (int i = 0; i < top.size(); i++) {
+            System.out.println("  " + (i + 1) + ". " + top.get(i));
+        }
+
+        String[] names = new String[players];
+        for (int i = 0; i < players; i++) {
+            names[i] = "player-" + i;
+        }
+        start = System.nanoTime();
+        long rankSum = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            rankSum += leaderboard.rankOf(names[random.nextInt(players)]);
+        }
+        long rankNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            rankSum += leaderboard.range(1 + random.nextInt(Math.max(1, leaderboard.size())), 10).size();
+        }
+        long rangeNanos = System.nanoTime() - start;
+        System.out.printf("rankOf %.0f ns/op, range(rank, 10) %.0f ns/op (checksum %d)%n",
+                (double) rankNanos / QUERIES, (double) rangeNanos / QUERIES, rankSum);
+
+        start = System.nanoTime();
+        Leaderboard reloaded = new Leaderboard();
+        ScoreStore reopened = new ScoreStore(file, reloaded, true);
+        long records = reopened.getRecords();
+        reopened.close();
+        boolean same = reloaded.size() == leaderboard.size();
+        for (int rank = 1; same && rank <= leaderboard.size(); rank++) {
+            LeaderboardEntry a = leaderboard.atRank(rank);
+            LeaderboardEntry b = reloaded.atRank(rank);
+            same = a.player.equals(b.player) && a.score == b.score && a.sequence == b.sequence;
+        }
+        System.out.printf("reloaded %d records (%d bytes) in %.1fms, leaderboard %s%n", records, file.length(),
+                (System.nanoTime() - start) / 1e6, same ? "matches" : "MISMATCH");
+    }
+
+    // 自动玩家每放一个方块之前让重力走随机几个 tick，最多 MAX_PIECES 个方块后结束录制
+    private static byte[] record(TetrisGame game, Random random) {
+        ReplayRecorder recorder = new ReplayRecorder();
+        AutoPlayer bot = new AutoPlayer(WeightedHeuristic.DEFAULT);
+        recorder.begin(game, random.nextLong());
+        game.start();
+        while (!game.isGameOver() && game.getPiecesSpawned() < MAX_PIECES) {
+            int pieces = game.getPiecesSpawned();
+            for (int t = random.nextInt(MAX_TICKS_PER_PIECE); t > 0 && game.getPiecesSpawned() == pieces; t--) {
+                game.update();
+            }
+            if (game.getPiecesSpawned() == pieces && !game.isGameOver()) {
+                bot.play(game);
+            }
+        }
+        recorder.end();
+        return recorder.toByteArray();
+    }
+}
@@ -0,0 +1,124 @@
+package com.tetris.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// 成绩提交流水线：录像在工作窃取线程池上并行重放校验，通过的成绩交给单个写线程，
+// 由它按批追加到 ScoreStore 再更新 Leaderboard。每条提交的 future 在成绩落盘并进入
+// 排行榜之后才完成，未通过校验的提交在校验线程上直接完成
+public final class IngestService implements Closeable {
+    // 写线程一次最多合并的成绩条数
+    private static final int MAX_BATCH = 1024;
+    private static final Pending SHUTDOWN = new Pending(null, null);
+
+    private final ScoreStore store;
+    private final Leaderboard leaderboard;
+    private final ReplayValidator validator = new ReplayValidator();
+    private final ForkJoinPool pool;
+    private final BlockingQueue<Pending> accepted = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    public IngestService(ScoreStore store, Leaderboard leaderboard, int parallelism) {
+        this.store = store;
+        this.leaderboard = leaderboard;
+        // asyncMode：任务之间没有依赖，按提交顺序（FIFO）执行，空闲线程从其他队列窃取
+        this.pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "leaderboard-writer");
+        writer.start();
+    }
+
+    public CompletableFuture<Validation> submit(final Submission submission) {
+        final CompletableFuture<Validation> future = new CompletableFuture<>();
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                Validation validation = validator.validate(submission);
+                if (validation.accepted) {
+                    accepted.add(new Pending(validation, future));
+                } else {
+                    future.complete(validation);
+                }
+            }
+        });
+        return future;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        List<LeaderboardEntry> entries = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(accepted.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            accepted.drainTo(batch, MAX_BATCH - 1);
+            if (batch.get(batch.size() - 1) == SHUTDOWN) {
+                batch.remove(batch.size() - 1);
+                running = false;
+            }
+
+            for (Pending pending : batch) {
+                Validation validation = pending.validation;
+                validation.entry = new LeaderboardEntry(validation.submission.player, validation.score,
+                        validation.lines, validation.ticks, store.allocateSequence());
+                entries.add(validation.entry);
+            }
+            try {
+                // 先落盘再进入排行榜，排行榜里的成绩在重启后一定还在
+                store.append(entries);
+                for (Pending pending : batch) {
+                    leaderboard.submit(pending.validation.entry);
+                }
+                for (Pending pending : batch) {
+                    pending.validation.rank = leaderboard.rankOf(pending.validation.submission.player);
+                    pending.future.complete(pending.validation);
+                }
+            } catch (IOException | RuntimeException e) {
+                for (Pending pending : batch) {
+                    pending.future.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+            entries.clear();
+        }
+    }
+
+    // 等待已提交的校验和写入全部完成后关闭；不关闭 store
+    @Override
+    public void close() throws IOException {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            // 校验全部结束后不会再有新的成绩入队，结束标记一定排在最后
+            accepted.add(SHUTDOWN);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.interrupt();
+        }
+    }
+
+    private static final class Pending {
+        final Validation validation;
+        final CompletableFuture<Validation> future;
+
+        Pending(Validation validation, CompletableFuture<Validation> future) {
+            this.validation = validation;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.tetris.server;
+
+import com.tetris.game.SplitMix64;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 内存中的排行榜，每名玩家只保留最好成绩。
+// 按分数从高到低（同分按写入顺序）排序的可索引跳表：每层前向指针同时记录跨过的节点数（span），
+// 插入、删除、查询名次和按名次取值都是期望 O(log n)；前 K 名和名次区间为 O(log n + K)。
+// 写入只来自 IngestService 的单个写线程，查询可以来自任意线程，全部方法加锁
+public final class Leaderboard {
+    private static final int MAX_LEVEL = 32;
+
+    private final Node head = new Node(null, MAX_LEVEL);
+    private final Map<String, Node> byPlayer = new HashMap<>();
+    private final SplitMix64 random = new SplitMix64(0x5EED);
+    // 插入和删除时各层的前驱节点及其名次，加锁后复用，不必每次分配
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] updateRank = new int[MAX_LEVEL];
+    private int level = 1;
+    private int size;
+
+    // 收录一条成绩，返回是否成为该玩家新的最好成绩
+    public synchronized boolean submit(LeaderboardEntry entry) {
+        Node previous = byPlayer.get(entry.player);
+        if (previous != null) {
+            if (previous.entry.score >= entry.score) {
+                return false;
+            }
+            delete(previous.entry);
+        }
+        byPlayer.put(entry.player, insert(entry));
+        return true;
+    }
+
+    // 玩家的名次（从 1 开始），不在榜上时返回 0
+    public synchronized int rankOf(String player) {
+        Node node = byPlayer.get(player);
+        if (node == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && !node.precedes(x.next[i])) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x == node) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    public synchronized LeaderboardEntry get(String player) {
+        Node node = byPlayer.get(player);
+        return node != null ? node.entry : null;
+    }
+
+    // 名次为 rank（从 1 开始）的成绩，超出范围时返回 null
+    public synchronized LeaderboardEntry atRank(int rank) {
+        Node node = nodeAt(rank);
+        return node != null ? node.entry : null;
+    }
+
+    public synchronized List<LeaderboardEntry> top(int count) {
+        return range(1, count);
+    }
+
+    // 从名次 fromRank 开始的最多 count 条成绩
+    public synchronized List<LeaderboardEntry> range(int fromRank, int count) {
+        List<LeaderboardEntry> result = new ArrayList<>(Math.max(0, Math.min(count, size)));
+        for (Node x = nodeAt(fromRank); x != null && result.size() < count; x = x.next[0]) {
+            result.add(x.entry);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private Node nodeAt(int rank) {
+        if (rank < 1 || rank > size) {
+            return null;
+        }
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private Node insert(LeaderboardEntry entry) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            updateRank[i] = i == level - 1 ? 0 : updateRank[i + 1];
+            while (x.next[i] != null && x.next[i].precedes(entry)) {
+                updateRank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                updateRank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        // updateRank[0] 是新节点之前的节点数，减去 updateRank[i] 即第 i 层前驱到新节点跨过的节点数
+        Node node = new Node(entry, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (updateRank[0] - updateRank[i]);
+            update[i].span[i] = updateRank[0] - updateRank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return node;
+    }
+
+    private void delete(LeaderboardEntry entry) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].precedes(entry)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node node = x.next[0];
+        if (node == null || node.entry != entry) {
+            return;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    // 每升一层的概率为 1/4
+    private int randomLevel() {
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && (random.nextLong() & 3) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static final class Node {
+        final LeaderboardEntry entry;
+        // 排序键复制到节点上，查找时不必再访问 entry，少一次缓存未命中
+        final long score;
+        final long sequence;
+        final Node[] next;
+        // span[i] 是 next[i] 跨过的节点数（含 next[i] 本身）
+        final int[] span;
+
+        Node(LeaderboardEntry entry, int level) {
+            this.entry = entry;
+            this.score = entry != null ? entry.score : 0;
+            this.sequence = entry != null ? entry.sequence : 0;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+
+        // 是否排在 other 之前：分数高的在前，同分时序号小的在前
+        boolean precedes(LeaderboardEntry other) {
+            return score != other.score ? score > other.score : sequence < other.sequence;
+        }
+
+        boolean precedes(Node other) {
+            return score != other.score ? score > other.score : sequence < other.sequence;
+        }
+    }
+}
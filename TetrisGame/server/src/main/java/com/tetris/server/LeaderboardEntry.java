@@ -0,0 +1,24 @@
+package com.tetris.server;
+
+// 排行榜中的一条成绩。sequence 是写入成绩日志的顺序号，同分时先写入的排在前面，
+// 因此从日志重建出的排行榜与写入时完全一致
+public final class LeaderboardEntry {
+    public final String player;
+    public final long score;
+    public final long lines;
+    public final long ticks;
+    public final long sequence;
+
+    public LeaderboardEntry(String player, long score, long lines, long ticks, long sequence) {
+        this.player = player;
+        this.score = score;
+        this.lines = lines;
+        this.ticks = ticks;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public String toString() {
+        return player + " score=" + score + " lines=" + lines + " ticks=" + ticks;
+    }
+}
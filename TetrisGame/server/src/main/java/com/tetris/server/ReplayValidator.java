@@ -0,0 +1,55 @@
+package com.tetris.server;
+
+import com.tetris.game.GameGrid;
+import com.tetris.game.TetrisGame;
+import com.tetris.replay.ReplayPlayer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// 无界面地重放提交的录像，确认客户端报告的分数确实能由录像中的输入打出来。
+// 无状态，可以在多个线程上同时调用；每次校验只创建一个 ReplayPlayer
+public final class ReplayValidator {
+    public static final int MAX_REPLAY_BYTES = 1 << 20;
+    // 最快速度下也相当于连续玩十几个小时，超过即视为恶意构造的录像，不再继续模拟
+    public static final long MAX_TICKS = 1_000_000L;
+    // 校验只需要从头播到尾，不保存中间关键帧
+    private static final int NO_KEYFRAMES = Integer.MAX_VALUE;
+
+    public Validation validate(Submission submission) {
+        if (submission.player == null || submission.player.isEmpty()
+                || submission.player.getBytes(StandardCharsets.UTF_8).length > ScoreStore.MAX_NAME_BYTES) {
+            return Validation.reject(submission, "bad player name");
+        }
+        if (submission.replay == null || submission.replay.length > MAX_REPLAY_BYTES) {
+            return Validation.reject(submission, "replay missing or too large");
+        }
+
+        try {
+            ReplayPlayer player = new ReplayPlayer(submission.replay, NO_KEYFRAMES);
+            TetrisGame game = player.getGame();
+            // 排行榜只收录标准棋盘
+            if (game.getGrid().getWidth() != GameGrid.DEFAULT_WIDTH
+                    || game.getGrid().getHeight() != GameGrid.DEFAULT_HEIGHT) {
+                return Validation.reject(submission, "non-standard board");
+            }
+            player.seek(MAX_TICKS);
+            if (!player.isEnded()) {
+                return Validation.reject(submission, "replay too long");
+            }
+            if (!player.verify()) {
+                return Validation.reject(submission, "simulation does not match replay trailer");
+            }
+            if (game.getScore() != submission.claimedScore) {
+                return Validation.reject(submission, "claimed score " + submission.claimedScore
+                        + " but replay scores " + game.getScore());
+            }
+            return Validation.accept(submission, game.getScore(), game.getLinesCleared(), game.getTicks());
+        } catch (IOException e) {
+            return Validation.reject(submission, "malformed replay: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // 构造出的非法输入可能在重放时越界，同样视为无效录像
+            return Validation.reject(submission, "replay failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.tetris.server;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// 校验通过的成绩按顺序追加到一个本地日志文件，启动时顺序读回重建排行榜，不依赖外部数据库。
+// 记录：int 负载长度 | int 负载的 CRC32 | 负载
+//   负载：long 序号 | long 分数 | long 消行数 | long tick 数 | byte 玩家名长度 | UTF-8 玩家名
+// 一批记录用一次 write 写出，sync 时再 force 一次（组提交）。进程在写入中途崩溃时，
+// 最后一条记录可能不完整，恢复时遇到长度或校验不符的记录就把文件截断到它之前
+public final class ScoreStore implements Closeable {
+    public static final int MAX_NAME_BYTES = 255;
+    private static final int RECORD_HEADER_SIZE = 4 + 4;
+    private static final int FIXED_PAYLOAD_SIZE = 8 * 4 + 1;
+    private static final int MAX_RECORD_SIZE = RECORD_HEADER_SIZE + FIXED_PAYLOAD_SIZE + MAX_NAME_BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long nextSequence;
+    private long records;
+
+    // 打开（不存在时创建）日志，把其中的成绩依次收录进 leaderboard
+    public ScoreStore(File file, Leaderboard leaderboard, boolean sync) throws IOException {
+        this(FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE), leaderboard, sync);
+    }
+
+    // 使用已打开的通道，测试时可以传入在写入中途失败的通道；读回日志失败时关闭通道
+    ScoreStore(FileChannel channel, Leaderboard leaderboard, boolean sync) throws IOException {
+        this.channel = channel;
+        this.sync = sync;
+        try {
+            long end = recover(leaderboard);
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+            channel.position(end);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // 返回最后一条完整记录的结束位置
+    private long recover(Leaderboard leaderboard) throws IOException {
+        ByteBuffer in = buffer;
+        in.clear();
+        long offset = 0;
+        channel.position(0);
+        byte[] name = new byte[MAX_NAME_BYTES];
+        while (true) {
+            int read = channel.read(in);
+            in.flip();
+            while (in.remaining() >= RECORD_HEADER_SIZE) {
+                int start = in.position();
+                int length = in.getInt(start);
+                if (length < FIXED_PAYLOAD_SIZE || length > MAX_RECORD_SIZE - RECORD_HEADER_SIZE) {
+                    return offset;
+                }
+                if (in.remaining() < RECORD_HEADER_SIZE + length) {
+                    break;
+                }
+                int checksum = in.getInt(start + 4);
+                in.position(start + RECORD_HEADER_SIZE);
+                if (checksum(in, length) != checksum) {
+                    return offset;
+                }
+
+                long sequence = in.getLong();
+                long score = in.getLong();
+                long lines = in.getLong();
+                long ticks = in.getLong();
+                int nameLength = in.get() & 0xFF;
+                if (nameLength != length - FIXED_PAYLOAD_SIZE) {
+                    return offset;
+                }
+                in.get(name, 0, nameLength);
+                leaderboard.submit(new LeaderboardEntry(new String(name, 0, nameLength, StandardCharsets.UTF_8),
+                        score, lines, ticks, sequence));
+                nextSequence = Math.max(nextSequence, sequence + 1);
+                records++;
+                offset += RECORD_HEADER_SIZE + length;
+            }
+            in.compact();
+            if (read < 0) {
+                return offset;
+            }
+        }
+    }
+
+    // 计算 in 当前位置起 length 字节的 CRC32，不移动 position
+    private int checksum(ByteBuffer in, int length) {
+        int position = in.position();
+        int limit = in.limit();
+        in.limit(position + length);
+        crc.reset();
+        crc.update(in);
+        in.limit(limit);
+        in.position(position);
+        return (int) crc.getValue();
+    }
+
+    // 分配下一条成绩的序号，只由写线程调用
+    public long allocateSequence() {
+        return nextSequence++;
+    }
+
+    // 追加一批成绩；sync 时返回前已经刷到磁盘，之后才可以向客户端确认
+    public void append(List<LeaderboardEntry> entries) throws IOException {
+        int required = entries.size() * MAX_RECORD_SIZE;
+        if (buffer.capacity() < required) {
+            buffer = ByteBuffer.allocateDirect(Math.max(required, buffer.capacity() * 2));
+        }
+        ByteBuffer out = buffer;
+        out.clear();
+        for (LeaderboardEntry entry : entries) {
+            byte[] name = entry.player.getBytes(StandardCharsets.UTF_8);
+            if (name.length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("Player name too long: " + entry.player);
+            }
+            int start = out.position();
+            int length = FIXED_PAYLOAD_SIZE + name.length;
+            out.position(start + RECORD_HEADER_SIZE);
+            out.putLong(entry.sequence);
+            out.putLong(entry.score);
+            out.putLong(entry.lines);
+            out.putLong(entry.ticks);
+            out.put((byte) name.length);
+            out.put(name);
+            out.position(start + RECORD_HEADER_SIZE);
+            int checksum = checksum(out, length);
+            out.putInt(start, length);
+            out.putInt(start + 4, checksum);
+            out.position(start + RECORD_HEADER_SIZE + length);
+        }
+        out.flip();
+        long start = channel.position();
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            // 写了一半的批次留在文件里，之后追加的记录会接在残缺记录后面，恢复时全部丢失；
+            // 这一批都没有确认，截回写入前的位置再抛出
+            try {
+                channel.truncate(start);
+                channel.position(start);
+            } catch (IOException rollback) {
+                e.addSuppressed(rollback);
+            }
+            throw e;
+        }
+        records += entries.size();
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,14 @@
+package com.tetris.server;
+
+// 客户端提交的一局成绩：玩家、客户端声称的分数和整局录像（ReplayFormat 编码）
+public final class Submission {
+    public final String player;
+    public final long claimedScore;
+    public final byte[] replay;
+
+    public Submission(String player, long claimedScore, byte[] replay) {
+        this.player = player;
+        this.claimedScore = claimedScore;
+        this.replay = replay;
+    }
+}
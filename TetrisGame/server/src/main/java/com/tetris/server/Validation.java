@@ -0,0 +1,46 @@
+package com.tetris.server;
+
+// 一次提交的校验结果。通过时 entry 为写入排行榜的成绩，rank 为写入后该玩家的名次；
+// 未通过时 reason 说明原因
+public final class Validation {
+    public final Submission submission;
+    public final boolean accepted;
+    public final String reason;
+    public final long score;
+    public final long lines;
+    public final long ticks;
+    // 以下两项只有通过校验并写入日志后才有值
+    LeaderboardEntry entry;
+    int rank;
+
+    private Validation(Submission submission, boolean accepted, String reason, long score, long lines, long ticks) {
+        this.submission = submission;
+        this.accepted = accepted;
+        this.reason = reason;
+        this.score = score;
+        this.lines = lines;
+        this.ticks = ticks;
+    }
+
+    static Validation accept(Submission submission, long score, long lines, long ticks) {
+        return new Validation(submission, true, null, score, lines, ticks);
+    }
+
+    static Validation reject(Submission submission, String reason) {
+        return new Validation(submission, false, reason, 0, 0, 0);
+    }
+
+    public LeaderboardEntry getEntry() {
+        return entry;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    @Override
+    public String toString() {
+        return accepted ? "accepted " + submission.player + " score=" + score + " rank=" + rank
+                : "rejected " + submission.player + ": " + reason;
+    }
+}
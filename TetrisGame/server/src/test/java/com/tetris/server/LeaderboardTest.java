@@ -0,0 +1,115 @@
+package com.tetris.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class LeaderboardTest {
+    private static final Comparator<LeaderboardEntry> ORDER = new Comparator<LeaderboardEntry>() {
+        @Override
+        public int compare(LeaderboardEntry a, LeaderboardEntry b) {
+            if (a.score != b.score) {
+                return a.score > b.score ? -1 : 1;
+            }
+            return Long.compare(a.sequence, b.sequence);
+        }
+    };
+
+    @Test
+    public void tiesKeepSubmissionOrder() {
+        Leaderboard leaderboard = new Leaderboard();
+        assertTrue(leaderboard.submit(entry("a", 100, 0)));
+        assertTrue(leaderboard.submit(entry("b", 300, 1)));
+        assertTrue(leaderboard.submit(entry("c", 100, 2)));
+
+        assertEquals(1, leaderboard.rankOf("b"));
+        assertEquals(2, leaderboard.rankOf("a"));
+        assertEquals(3, leaderboard.rankOf("c"));
+        assertEquals(0, leaderboard.rankOf("nobody"));
+        assertNull(leaderboard.atRank(0));
+        assertNull(leaderboard.atRank(4));
+    }
+
+    @Test
+    public void onlyABetterScoreReplacesTheBest() {
+        Leaderboard leaderboard = new Leaderboard();
+        LeaderboardEntry best = entry("a", 500, 0);
+        leaderboard.submit(best);
+        leaderboard.submit(entry("b", 400, 1));
+        assertFalse(leaderboard.submit(entry("a", 500, 2)));
+        assertFalse(leaderboard.submit(entry("a", 10, 3)));
+        assertSame(best, leaderboard.get("a"));
+
+        assertTrue(leaderboard.submit(entry("b", 600, 4)));
+        assertEquals(2, leaderboard.size());
+        assertEquals(1, leaderboard.rankOf("b"));
+        assertEquals(2, leaderboard.rankOf("a"));
+        assertEquals(600, leaderboard.atRank(1).score);
+    }
+
+    // 随机提交，与按同样规则排序的列表逐项比较名次、按名次取值和区间查询
+    @Test
+    public void matchesASortedReference() {
+        Random random = new Random(42);
+        Leaderboard leaderboard = new Leaderboard();
+        Map<String, LeaderboardEntry> best = new HashMap<>();
+        long sequence = 0;
+
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 100; i++) {
+                String player = "p" + random.nextInt(500);
+                // 分数范围较小，保证大量同分
+                LeaderboardEntry entry = entry(player, random.nextInt(2000), sequence++);
+                LeaderboardEntry previous = best.get(player);
+                boolean better = previous == null || entry.score > previous.score;
+                assertEquals(better, leaderboard.submit(entry));
+                if (better) {
+                    best.put(player, entry);
+                }
+            }
+
+            List<LeaderboardEntry> expected = new ArrayList<>(best.values());
+            Collections.sort(expected, ORDER);
+            assertEquals(expected.size(), leaderboard.size());
+            for (int rank = 1; rank <= expected.size(); rank++) {
+                LeaderboardEntry entry = expected.get(rank - 1);
+                assertSame("rank " + rank, entry, leaderboard.atRank(rank));
+                assertEquals(entry.player, rank, leaderboard.rankOf(entry.player));
+            }
+            assertNull(leaderboard.atRank(expected.size() + 1));
+
+            int from = 1 + random.nextInt(expected.size());
+            int count = random.nextInt(30);
+            List<LeaderboardEntry> range = leaderboard.range(from, count);
+            assertEquals(expected.subList(from - 1, Math.min(expected.size(), from - 1 + count)), range);
+            assertEquals(expected.subList(0, Math.min(10, expected.size())), leaderboard.top(10));
+        }
+    }
+
+    @Test
+    public void rangeOutsideTheBoardIsEmpty() {
+        Leaderboard leaderboard = new Leaderboard();
+        assertTrue(leaderboard.top(5).isEmpty());
+        leaderboard.submit(entry("a", 1, 0));
+        assertTrue(leaderboard.range(0, 5).isEmpty());
+        assertTrue(leaderboard.range(2, 5).isEmpty());
+        assertTrue(leaderboard.range(1, 0).isEmpty());
+        assertEquals(1, leaderboard.top(5).size());
+    }
+
+    private static LeaderboardEntry entry(String player, long score, long sequence) {
+        return new LeaderboardEntry(player, score, score / 100, score * 10, sequence);
+    }
+}
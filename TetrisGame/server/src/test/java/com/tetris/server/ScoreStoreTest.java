@@ -0,0 +1,303 @@
+package com.tetris.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ScoreStoreTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("scores", ".log");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void reloadRebuildsTheLeaderboard() throws IOException {
+        Leaderboard leaderboard = new Leaderboard();
+        ScoreStore store = new ScoreStore(file, leaderboard, false);
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entries.add(entry(store, "p" + i % 20, (i * 37) % 101));
+        }
+        // 名字按 UTF-8 存储，多字节字符也要原样读回
+        entries.add(entry(store, "玩家", 500));
+        append(store, leaderboard, entries);
+        store.close();
+
+        Leaderboard reloaded = new Leaderboard();
+        store = new ScoreStore(file, reloaded, false);
+        assertEquals(entries.size(), store.getRecords());
+        assertEquals(entries.size(), store.allocateSequence());
+        assertSameRanking(leaderboard, reloaded);
+        assertEquals("玩家", reloaded.atRank(1).player);
+        store.close();
+    }
+
+    @Test
+    public void tornTailIsTruncated() throws IOException {
+        ScoreStore store = new ScoreStore(file, new Leaderboard(), false);
+        store.append(Arrays.asList(entry(store, "a", 10), entry(store, "b", 20)));
+        long complete = file.length();
+        store.append(Arrays.asList(entry(store, "c", 30)));
+        store.close();
+
+        // 最后一条记录只写出了一部分
+        truncate(file.length() - 5);
+        Leaderboard reloaded = new Leaderboard();
+        store = new ScoreStore(file, reloaded, false);
+        assertEquals(complete, file.length());
+        assertEquals(2, store.getRecords());
+        assertNull(reloaded.get("c"));
+
+        // 截断后追加的记录接在最后一条完整记录之后，再次打开时能读回
+        store.append(Arrays.asList(entry(store, "d", 40)));
+        store.close();
+        reloaded = new Leaderboard();
+        store = new ScoreStore(file, reloaded, false);
+        assertEquals(3, store.getRecords());
+        assertEquals("d", reloaded.atRank(1).player);
+        store.close();
+    }
+
+    @Test
+    public void corruptChecksumDropsTheRecord() throws IOException {
+        ScoreStore store = new ScoreStore(file, new Leaderboard(), false);
+        store.append(Arrays.asList(entry(store, "a", 10)));
+        long complete = file.length();
+        store.append(Arrays.asList(entry(store, "b", 20)));
+        store.close();
+
+        // 改动第二条记录负载中的一个字节
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(complete + 12);
+            int value = raf.read();
+            raf.seek(complete + 12);
+            raf.write(value ^ 0x40);
+        }
+        Leaderboard reloaded = new Leaderboard();
+        store = new ScoreStore(file, reloaded, false);
+        assertEquals(complete, file.length());
+        assertEquals(1, reloaded.size());
+        assertEquals(1, store.allocateSequence());
+        store.close();
+    }
+
+    @Test
+    public void failedAppendIsRolledBack() throws IOException {
+        FailingChannel channel = new FailingChannel(FileChannel.open(file.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        ScoreStore store = new ScoreStore(channel, new Leaderboard(), false);
+        store.append(Arrays.asList(entry(store, "a", 10), entry(store, "b", 20)));
+
+        // 第二批写出 60 字节后失败：第一条记录完整，第二条只有一部分
+        channel.failAfter(60);
+        try {
+            store.append(Arrays.asList(entry(store, "c", 30), entry(store, "d", 40)));
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+        channel.failAfter(-1);
+        store.append(Arrays.asList(entry(store, "e", 50)));
+        assertEquals(3, store.getRecords());
+        store.close();
+
+        Leaderboard reloaded = new Leaderboard();
+        store = new ScoreStore(file, reloaded, false);
+        assertEquals(3, store.getRecords());
+        assertEquals(3, reloaded.size());
+        assertEquals("e", reloaded.atRank(1).player);
+        assertNull(reloaded.get("c"));
+        assertNull(reloaded.get("d"));
+        store.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overlongNameIsRejected() throws IOException {
+        char[] name = new char[ScoreStore.MAX_NAME_BYTES + 1];
+        Arrays.fill(name, 'x');
+        ScoreStore store = new ScoreStore(file, new Leaderboard(), false);
+        try {
+            store.append(Arrays.asList(entry(store, new String(name), 1)));
+        } finally {
+            store.close();
+        }
+    }
+
+    private static LeaderboardEntry entry(ScoreStore store, String player, long score) {
+        return new LeaderboardEntry(player, score, score / 10, score * 1000, store.allocateSequence());
+    }
+
+    // 与 IngestService 相同：写入成功后才提交到排行榜
+    private static void append(ScoreStore store, Leaderboard leaderboard, List<LeaderboardEntry> entries)
+            throws IOException {
+        store.append(entries);
+        for (LeaderboardEntry entry : entries) {
+            leaderboard.submit(entry);
+        }
+    }
+
+    private static void assertSameRanking(Leaderboard expected, Leaderboard actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            LeaderboardEntry a = expected.atRank(rank);
+            LeaderboardEntry b = actual.atRank(rank);
+            assertEquals(a.player, b.player);
+            assertEquals(a.score, b.score);
+            assertEquals(a.lines, b.lines);
+            assertEquals(a.ticks, b.ticks);
+            assertEquals(a.sequence, b.sequence);
+        }
+    }
+
+    private void truncate(long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    // 转发到真实文件的通道，设置额度后写满额度的字节就抛出 IOException，模拟磁盘写满
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        private long budget = -1;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        // bytes 为 -1 时不再失败
+        void failAfter(long bytes) {
+            budget = bytes;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (budget < 0) {
+                return delegate.write(src);
+            }
+            if (budget == 0) {
+                throw new IOException("disk full");
+            }
+            int limit = src.limit();
+            src.limit(src.position() + (int) Math.min(budget, src.remaining()));
+            try {
+                int written = delegate.write(src);
+                budget -= written;
+                return written;
+            } finally {
+                src.limit(limit);
+            }
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            long written = 0;
+            for (int i = offset; i < offset + length; i++) {
+                written += write(srcs[i]);
+            }
+            return written;
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}